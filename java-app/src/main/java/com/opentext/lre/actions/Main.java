@@ -5,6 +5,7 @@ import com.opentext.lre.actions.common.helpers.LocalizationManager;
 import com.opentext.lre.actions.common.helpers.utils.DateFormatter;
 import com.opentext.lre.actions.common.helpers.utils.LogHelper;
 import com.opentext.lre.actions.common.helpers.utils.Result;
+import com.opentext.lre.actions.runtest.LreTestMatrix;
 import com.opentext.lre.actions.runtest.LreTestRunBuilder;
 import com.opentext.lre.actions.runtest.LreTestRunModel;
 import com.opentext.lre.actions.workspacesync.LreWorkspaceSyncModel;
@@ -15,6 +16,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -25,6 +27,7 @@ public class Main {
     private static final int PORT = 57396;
     private static ServerSocket serverSocket;
     private static LreTestRunModel lreTestRunModel;
+    private static List<LreTestRunModel> lreTestRunModels;
     private static LreWorkspaceSyncModel lreWorkspaceSyncModel;
     private static String lreAction;
 
@@ -68,14 +71,17 @@ public class Main {
     private static void initEnvironmentVariables(String[] args) throws Exception {
         InputRetriever inputRetriever = new InputRetriever(args);
         lreAction = inputRetriever.getLreAction();
-        lreTestRunModel = inputRetriever.getLreTestRunModel();
+        lreTestRunModels = inputRetriever.getLreTestRunModels();
+        lreTestRunModel = lreTestRunModels.isEmpty() ? null : lreTestRunModels.get(0);
         lreWorkspaceSyncModel = inputRetriever.getLreWorkspaceSyncModel();
     }
 
     private static int performOperations() {
         int exit;
         try {
-            if ("ExecuteLreTest".equalsIgnoreCase(lreAction) && lreTestRunModel != null) {
+            if (("ExecuteLreTest".equalsIgnoreCase(lreAction)
+                    || "StartLreTest".equalsIgnoreCase(lreAction)
+                    || "CollectLreTest".equalsIgnoreCase(lreAction)) && lreTestRunModel != null) {
                 exit = executeTestRun();
             } else if ("WorkspaceSync".equalsIgnoreCase(lreAction) && lreWorkspaceSyncModel != null) {
                 exit = executeWorkspaceSync();
@@ -117,7 +123,19 @@ public class Main {
 
         // Run the main builder
         LreTestRunBuilder lreTestRunBuilder = new LreTestRunBuilder(lreTestRunModel);
-        boolean buildSuccess = lreTestRunBuilder.perform();
+        boolean buildSuccess;
+        if (lreTestRunModels.size() > 1 && !"ExecuteLreTest".equalsIgnoreCase(lreAction)) {
+            LogHelper.error("A list of tests can only be run by the ExecuteLreTest action.");
+            buildSuccess = false;
+        } else if (lreTestRunModels.size() > 1) {
+            buildSuccess = new LreTestMatrix(lreTestRunModels).perform();
+        } else if ("StartLreTest".equalsIgnoreCase(lreAction)) {
+            buildSuccess = lreTestRunBuilder.start();
+        } else if ("CollectLreTest".equalsIgnoreCase(lreAction)) {
+            buildSuccess = lreTestRunBuilder.collect();
+        } else {
+            buildSuccess = lreTestRunBuilder.perform();
+        }
         if (buildSuccess) {
             LogHelper.log("Build successful", true);
             return 0;
@@ -8,6 +8,8 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 public class InputRetriever {
     private final JSONObject config;
@@ -67,20 +69,33 @@ public class InputRetriever {
 
     /**
      * Gets the action to execute from configuration or environment
-     * @return the action name (e.g., "ExecuteLreTest", "WorkspaceSync")
+     * @return the action name (e.g., "ExecuteLreTest", "StartLreTest", "CollectLreTest", "WorkspaceSync")
      */
     public String getLreAction() throws Exception {
         return GetParameterStrValue("lre_action", false, "ExecuteLreTest");
     }
 
     public LreTestRunModel getLreTestRunModel() throws Exception {
+        List<LreTestRunModel> lreTestRunModels = getLreTestRunModels();
+        return lreTestRunModels.isEmpty() ? null : lreTestRunModels.get(0);
+    }
+
+    /**
+     * Gets a LreTestRunModel for each test of lre_test, which lists several tests separated by commas,
+     * semicolons or new lines to run them in one invocation.
+     * @return the models if lre_action is a test run action, an empty list otherwise
+     */
+    public List<LreTestRunModel> getLreTestRunModels() throws Exception {
+        List<LreTestRunModel> lreTestRunModels = new ArrayList<>();
         String lre_action = GetParameterStrValue("lre_action", false, "ExecuteLreTest");
-        if("ExecuteLreTest".equalsIgnoreCase(lre_action)) {
+        if("ExecuteLreTest".equalsIgnoreCase(lre_action)
+                || "StartLreTest".equalsIgnoreCase(lre_action)
+                || "CollectLreTest".equalsIgnoreCase(lre_action)) {
             // Get common parameters
             CommonLreParameters common = getCommonLreParameters();
 
-            // Get test-specific parameters
-            String lre_test = GetParameterStrValue("lre_test", true, "");
+            // Get test-specific parameters (the collected test is read from the run handle)
+            String lre_test = GetParameterStrValue("lre_test", !"CollectLreTest".equalsIgnoreCase(lre_action), "");
             String lre_test_instance = GetParameterStrValue("lre_test_instance", false, "AUTO");
             String lre_timeslot_duration_hours = GetParameterStrValue("lre_timeslot_duration_hours", false, "0");
             String lre_timeslot_duration_minutes = GetParameterStrValue("lre_timeslot_duration_minutes", false, "30");
@@ -94,53 +109,84 @@ public class InputRetriever {
             String lre_retry_delay = GetParameterStrValue("lre_retry_delay", false, "1");
             String lre_retry_occurrences = GetParameterStrValue("lre_retry_occurrences", false, "1");
             String lre_trend_report_wait_time = GetParameterStrValue("lre_trend_report_wait_time", false, "0");
+            String lre_run_poll_min_ms = GetParameterStrValue("lre_run_poll_min_ms", false, "1000");
+            String lre_run_poll_max_ms = GetParameterStrValue("lre_run_poll_max_ms", false, "30000");
+            String lre_run_handle_file = GetParameterStrValue("lre_run_handle_file", false, "");
+            String lre_attach_run = GetParameterStrValue("lre_attach_run", false, "");
+            String lre_test_concurrency = GetParameterStrValue("lre_test_concurrency", false, "1");
 
-            String lre_test_to_run = getTestToRun(lre_test);
-            String lre_test_content_to_create = lre_test_to_run.equals("CREATE_TEST") ? lre_test : "";
-            String lre_test_id = lre_test_to_run.equals("EXISTING_TEST") ? lre_test : "";
+            List<String> lre_tests = splitTests(lre_test);
+            if (lre_tests.size() > 1) {
+                // an instance or a run belongs to a single test
+                lre_test_instance = "AUTO";
+                lre_attach_run = lre_attach_run.equalsIgnoreCase("AUTO") ? lre_attach_run : "";
+            }
+            for (String test : lre_tests) {
+                String lre_test_to_run = getTestToRun(test);
+                String lre_test_content_to_create = lre_test_to_run.equals("CREATE_TEST") ? test : "";
+                String lre_test_id = lre_test_to_run.equals("EXISTING_TEST") ? test : "";
 
-            String lre_auto_test_instance = lre_test_instance.equalsIgnoreCase("AUTO") ? "AUTO" : "";
-            String lre_test_instance_id = lre_auto_test_instance.equalsIgnoreCase("AUTO") ? "" : lre_test_instance;
+                String lre_auto_test_instance = lre_test_instance.equalsIgnoreCase("AUTO") ? "AUTO" : "";
+                String lre_test_instance_id = lre_auto_test_instance.equalsIgnoreCase("AUTO") ? "" : lre_test_instance;
 
-            String lre_add_run_to_trend_report = lre_trend_report.equalsIgnoreCase("ASSOCIATED") ? "ASSOCIATED":
-                    tryParseIntStrictlyPositive(lre_trend_report) ? "USE_ID" : "";
-            String lre_trend_report_id = lre_add_run_to_trend_report.equals("USE_ID") ? lre_trend_report : "";
+                String lre_add_run_to_trend_report = lre_trend_report.equalsIgnoreCase("ASSOCIATED") ? "ASSOCIATED":
+                        tryParseIntStrictlyPositive(lre_trend_report) ? "USE_ID" : "";
+                String lre_trend_report_id = lre_add_run_to_trend_report.equals("USE_ID") ? lre_trend_report : "";
 
-            return new LreTestRunModel(
-                    common.lreServer,
-                    common.lreUsername,
-                    common.lrePassword,
-                    common.lreDomain,
-                    common.lreProject,
-                    lre_test_to_run,
-                    lre_test_id,
-                    lre_test_content_to_create,
-                    lre_auto_test_instance,
-                    lre_test_instance_id,
-                    lre_timeslot_duration_hours,
-                    lre_timeslot_duration_minutes,
-                    lre_post_run_action,
-                    lre_vuds_mode,
-                    common.lreDescription,
-                    lre_add_run_to_trend_report,
-                    lre_trend_report_id,
-                    common.lreHttpsProtocol,
-                    common.lreProxyOutUrl,
-                    common.lreUsernameProxy,
-                    common.lrePasswordProxy,
-                    lre_retry,
-                    lre_retry_delay,
-                    lre_retry_occurrences,
-                    lre_trend_report_wait_time,
-                    common.lreAuthenticateWithToken,
-                    lre_search_timeslot,
-                    lre_status_by_sla,
-                    common.lreEnableStacktrace,
-                    lre_output_dir,
-                    common.lreWorkspaceDir);
-        } else {
-            return null;
+                LreTestRunModel lreTestRunModel = new LreTestRunModel(
+                        common.lreServer,
+                        common.lreUsername,
+                        common.lrePassword,
+                        common.lreDomain,
+                        common.lreProject,
+                        lre_test_to_run,
+                        lre_test_id,
+                        lre_test_content_to_create,
+                        lre_auto_test_instance,
+                        lre_test_instance_id,
+                        lre_timeslot_duration_hours,
+                        lre_timeslot_duration_minutes,
+                        lre_post_run_action,
+                        lre_vuds_mode,
+                        common.lreDescription,
+                        lre_add_run_to_trend_report,
+                        lre_trend_report_id,
+                        common.lreHttpsProtocol,
+                        common.lreProxyOutUrl,
+                        common.lreUsernameProxy,
+                        common.lrePasswordProxy,
+                        lre_retry,
+                        lre_retry_delay,
+                        lre_retry_occurrences,
+                        lre_trend_report_wait_time,
+                        common.lreAuthenticateWithToken,
+                        lre_search_timeslot,
+                        lre_status_by_sla,
+                        common.lreEnableStacktrace,
+                        lre_output_dir,
+                        common.lreWorkspaceDir);
+                lreTestRunModel.setRunPollMinIntervalMs(parsePositiveInt(lre_run_poll_min_ms, 1000));
+                lreTestRunModel.setRunPollMaxIntervalMs(parsePositiveInt(lre_run_poll_max_ms, 30000));
+                lreTestRunModel.setRunHandleFile(lre_run_handle_file);
+                lreTestRunModel.setAttachRun(lre_attach_run);
+                lreTestRunModel.setTestConcurrency(parsePositiveInt(lre_test_concurrency, 1));
+                lreTestRunModels.add(lreTestRunModel);
+            }
+        }
+        return lreTestRunModels;
+    }
+
+    private static List<String> splitTests(String lre_test) {
+        List<String> tests = new ArrayList<>();
+        for (String test : lre_test.split("[,;\\r\\n]+")) {
+            if (!test.trim().isEmpty()) {
+                tests.add(test.trim());
+            }
+        }
+        if (tests.isEmpty()) {
+            tests.add(lre_test);
         }
+        return tests;
     }
 
     /**
@@ -155,8 +201,31 @@ public class InputRetriever {
 
             // Get workspace sync-specific parameters
             boolean lre_runtime_only = GetParameterBoolValue("lre_runtime_only", false, false);
+            String lre_sync_parallelism = GetParameterStrValue("lre_sync_parallelism", false, "1");
+            String lre_sync_cache_dir = GetParameterStrValue("lre_sync_cache_dir", false, "");
+            boolean lre_force_full_sync = GetParameterBoolValue("lre_force_full_sync", false, false);
+            String lre_sync_compression_threads = GetParameterStrValue("lre_sync_compression_threads", false, "0");
+            String lre_sync_zip_budget_mb = GetParameterStrValue("lre_sync_zip_budget_mb", false, "1024");
+            String lre_sync_scan_threads = GetParameterStrValue("lre_sync_scan_threads", false, "0");
+            String lre_sync_staging_dir = GetParameterStrValue("lre_sync_staging_dir", false, "");
+            String lre_sync_zip_cache_mb = GetParameterStrValue("lre_sync_zip_cache_mb", false, "0");
+            String lre_sync_compression_level = GetParameterStrValue("lre_sync_compression_level", false, "6");
+            String lre_sync_stored_extensions = GetParameterStrValue("lre_sync_stored_extensions", false, "");
+            String lre_sync_zip_threads = GetParameterStrValue("lre_sync_zip_threads", false, "0");
+            String lre_sync_parallel_zip_min_mb = GetParameterStrValue("lre_sync_parallel_zip_min_mb", false, "64");
+            boolean lre_sync_deterministic_zip = GetParameterBoolValue("lre_sync_deterministic_zip", false, false);
+            String lre_sync_exclude = GetParameterStrValue("lre_sync_exclude", false, "");
+            boolean lre_sync_scan_cache = GetParameterBoolValue("lre_sync_scan_cache", false, true);
+            String lre_sync_changed_files = GetParameterStrValue("lre_sync_changed_files", false, "");
+            String lre_sync_git_diff_base = GetParameterStrValue("lre_sync_git_diff_base", false, "");
+            boolean lre_sync_reconcile = GetParameterBoolValue("lre_sync_reconcile", false, false);
+            String lre_sync_min_parallelism = GetParameterStrValue("lre_sync_min_parallelism", false, "1");
+            String lre_sync_max_parallelism = GetParameterStrValue("lre_sync_max_parallelism", false, "0");
+            boolean lre_sync_resume = GetParameterBoolValue("lre_sync_resume", false, false);
+            String lre_sync_upload_retries = GetParameterStrValue("lre_sync_upload_retries", false, "3");
+            String lre_sync_retry_delay_ms = GetParameterStrValue("lre_sync_retry_delay_ms", false, "2000");
 
-            return new LreWorkspaceSyncModel(
+            LreWorkspaceSyncModel lreWorkspaceSyncModel = new LreWorkspaceSyncModel(
                     common.lreServer,
                     common.lreHttpsProtocol,
                     common.lreUsername,
@@ -171,6 +240,30 @@ public class InputRetriever {
                     common.lreAuthenticateWithToken,
                     common.lreEnableStacktrace,
                     common.lreDescription);
+            lreWorkspaceSyncModel.setSyncParallelism(parsePositiveInt(lre_sync_parallelism, 1));
+            lreWorkspaceSyncModel.setSyncCacheDir(lre_sync_cache_dir);
+            lreWorkspaceSyncModel.setForceFullSync(lre_force_full_sync);
+            lreWorkspaceSyncModel.setSyncCompressionThreads(parsePositiveInt(lre_sync_compression_threads, 0));
+            lreWorkspaceSyncModel.setSyncZipBudgetMb(parsePositiveInt(lre_sync_zip_budget_mb, 1024));
+            lreWorkspaceSyncModel.setSyncScanThreads(parsePositiveInt(lre_sync_scan_threads, 0));
+            lreWorkspaceSyncModel.setSyncStagingDir(lre_sync_staging_dir);
+            lreWorkspaceSyncModel.setSyncZipCacheMb(parsePositiveInt(lre_sync_zip_cache_mb, 0));
+            lreWorkspaceSyncModel.setSyncCompressionLevel(parseNonNegativeInt(lre_sync_compression_level, 6));
+            lreWorkspaceSyncModel.setSyncStoredExtensions(lre_sync_stored_extensions);
+            lreWorkspaceSyncModel.setSyncZipThreads(parsePositiveInt(lre_sync_zip_threads, 0));
+            lreWorkspaceSyncModel.setSyncParallelZipMinMb(parsePositiveInt(lre_sync_parallel_zip_min_mb, 64));
+            lreWorkspaceSyncModel.setSyncDeterministicZip(lre_sync_deterministic_zip);
+            lreWorkspaceSyncModel.setSyncExclude(lre_sync_exclude);
+            lreWorkspaceSyncModel.setSyncScanCache(lre_sync_scan_cache);
+            lreWorkspaceSyncModel.setSyncChangedFiles(lre_sync_changed_files);
+            lreWorkspaceSyncModel.setSyncGitDiffBase(lre_sync_git_diff_base);
+            lreWorkspaceSyncModel.setSyncReconcile(lre_sync_reconcile);
+            lreWorkspaceSyncModel.setSyncMinParallelism(parsePositiveInt(lre_sync_min_parallelism, 1));
+            lreWorkspaceSyncModel.setSyncMaxParallelism(parseNonNegativeInt(lre_sync_max_parallelism, 0));
+            lreWorkspaceSyncModel.setSyncResume(lre_sync_resume);
+            lreWorkspaceSyncModel.setSyncUploadRetries(parseNonNegativeInt(lre_sync_upload_retries, 3));
+            lreWorkspaceSyncModel.setSyncRetryDelayMs(parseNonNegativeInt(lre_sync_retry_delay_ms, 2000));
+            return lreWorkspaceSyncModel;
         } else {
             return null;
         }
@@ -336,6 +429,18 @@ public class InputRetriever {
         return ParseIntStrictlyPositive(text) != null;
     }
 
+    private static int parsePositiveInt(String text, int defaultValue) {
+        Integer value = ParseIntStrictlyPositive(text);
+        return value == null ? defaultValue : value;
+    }
+
+    private static int parseNonNegativeInt(String text, int defaultValue) {
+        if (text != null && text.trim().matches("[0-9]+")) {
+            return Integer.parseInt(text.trim());
+        }
+        return defaultValue;
+    }
+
     public static Integer ParseIntStrictlyPositive(String text) {
         if (text != null && !text.isEmpty()) {
             if (text.trim().matches("[0-9]+")) {
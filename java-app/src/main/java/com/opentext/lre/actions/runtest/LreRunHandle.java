@@ -0,0 +1,164 @@
+package com.opentext.lre.actions.runtest;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PostRunAction;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * What the StartLreTest action leaves for the CollectLreTest action: the run it started, with what is needed to
+ * wait for it and publish its results from another process, possibly on another agent.
+ */
+public class LreRunHandle {
+    public static final String DEFAULT_FILE_NAME = "lre_run_handle.json";
+    private static final int VERSION = 1;
+
+    private final int runId;
+    private final String testId;
+    private final String testName;
+    private final String trendReportId;
+    private final String addRunToTrendReport;
+    private final PostRunAction postRunAction;
+    private final String server;
+    private final String domain;
+    private final String project;
+    private final long startedAt;
+    private final long timeslotMinutes;
+
+    public LreRunHandle(int runId, String testId, String testName, String trendReportId, String addRunToTrendReport,
+                        PostRunAction postRunAction, String server, String domain, String project, long startedAt,
+                        long timeslotMinutes) {
+        this.runId = runId;
+        this.testId = testId;
+        this.testName = testName;
+        this.trendReportId = trendReportId;
+        this.addRunToTrendReport = addRunToTrendReport;
+        this.postRunAction = postRunAction;
+        this.server = server;
+        this.domain = domain;
+        this.project = project;
+        this.startedAt = startedAt;
+        this.timeslotMinutes = timeslotMinutes;
+    }
+
+    public int getRunId() {
+        return runId;
+    }
+
+    public String getTestId() {
+        return testId;
+    }
+
+    public String getTestName() {
+        return testName;
+    }
+
+    public String getTrendReportId() {
+        return trendReportId;
+    }
+
+    public String getAddRunToTrendReport() {
+        return addRunToTrendReport;
+    }
+
+    public PostRunAction getPostRunAction() {
+        return postRunAction;
+    }
+
+    /**
+     * @return when the run was started, in milliseconds since the epoch
+     */
+    public long getStartedAt() {
+        return startedAt;
+    }
+
+    /**
+     * @return the duration of the timeslot of the run, 0 when unknown
+     */
+    public long getTimeslotMinutes() {
+        return timeslotMinutes;
+    }
+
+    /**
+     * @return whether the run was started on the server, domain and project of the model
+     */
+    public boolean belongsTo(LreTestRunModel model) {
+        return server.equalsIgnoreCase(model.getLreServerAndPort())
+                && domain.equalsIgnoreCase(model.getDomain())
+                && project.equalsIgnoreCase(model.getProject());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RunID: %s, TestID: %s, %s/%s on %s", runId, testId, domain, project, server);
+    }
+
+    /**
+     * Writes the handle, replacing any previous file. The file is written aside first, so that a collect never
+     * reads half of it.
+     */
+    public void write(Path file) throws IOException {
+        JSONObject json = new JSONObject()
+                .put("version", VERSION)
+                .put("runId", runId)
+                .put("testId", nullToEmpty(testId))
+                .put("testName", nullToEmpty(testName))
+                .put("trendReportId", nullToEmpty(trendReportId))
+                .put("addRunToTrendReport", nullToEmpty(addRunToTrendReport))
+                .put("postRunAction", postRunAction.name())
+                .put("server", server)
+                .put("domain", domain)
+                .put("project", project)
+                .put("startedAt", startedAt)
+                .put("timeslotMinutes", timeslotMinutes);
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try {
+            Files.writeString(temporary, json.toString(2), StandardCharsets.UTF_8);
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @throws IOException when the file is missing or is not a run handle
+     */
+    public static LreRunHandle read(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            throw new IOException("Run handle not found: " + file.toAbsolutePath());
+        }
+        try {
+            JSONObject json = new JSONObject(Files.readString(file, StandardCharsets.UTF_8));
+            return new LreRunHandle(
+                    json.getInt("runId"),
+                    json.optString("testId"),
+                    json.optString("testName"),
+                    json.optString("trendReportId"),
+                    json.optString("addRunToTrendReport"),
+                    PostRunAction.valueOf(json.getString("postRunAction")),
+                    json.getString("server"),
+                    json.getString("domain"),
+                    json.getString("project"),
+                    json.getLong("startedAt"),
+                    json.optLong("timeslotMinutes"));
+        } catch (JSONException | IllegalArgumentException e) {
+            throw new IOException("Invalid run handle " + file.toAbsolutePath() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,151 @@
+package com.opentext.lre.actions.runtest;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcRunResponse;
+import com.opentext.lre.actions.common.helpers.result.model.junit.Error;
+import com.opentext.lre.actions.common.helpers.result.model.junit.JUnitTestCaseStatus;
+import com.opentext.lre.actions.common.helpers.result.model.junit.Testcase;
+import com.opentext.lre.actions.common.helpers.result.model.junit.Testsuite;
+import com.opentext.lre.actions.common.helpers.result.model.junit.Testsuites;
+import com.opentext.lre.actions.common.helpers.utils.LogHelper;
+import org.apache.commons.lang.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.opentext.lre.actions.runtest.LreTestRunBuilder.artifactsResourceName;
+
+/**
+ * Runs several tests from one invocation, at most {@link LreTestRunModel#getTestConcurrency()} at a time. Each test
+ * is started as by the StartLreTest action, with its own run handle. All the runs are then watched by a single
+ * {@link RunStateMonitor}. Each complete run publishes its reports to its own directory, while the other runs go on.
+ * The results of all the runs are written to one file, with a testsuite per run.
+ */
+public class LreTestMatrix {
+    private final List<LreTestRunModel> models;
+
+    /**
+     * @param models one model per test, sharing the server, project and run options of the first one
+     */
+    public LreTestMatrix(List<LreTestRunModel> models) {
+        this.models = models;
+    }
+
+    public boolean perform() throws InterruptedException, IOException {
+        LreTestRunModel first = models.get(0);
+        int concurrency = Math.min(first.getTestConcurrency(), models.size());
+        LogHelper.log("Running %d tests, %d at a time.", true, models.size(), concurrency);
+        // publishes the combined results: created before the models are used by the runs
+        LreTestRunBuilder resultsBuilder = new LreTestRunBuilder(first);
+
+        Testsuites testsuites = new Testsuites();
+        LreTestRunClient monitorClient = new LreTestRunClient(first, "", "", "", "");
+        if (!monitorClient.login()) {
+            return resultsBuilder.publishResults(null);
+        }
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, task -> {
+            Thread thread = new Thread(task, "lre-test-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (RunStateMonitor monitor = new RunStateMonitor(monitorClient)) {
+            List<Future<Testsuites>> results = new ArrayList<>();
+            for (int i = 0; i < models.size(); i++) {
+                LreTestRunModel model = models.get(i);
+                model.setRunHandleFile(runHandleFile(model, i + 1).toString());
+                results.add(executor.submit(() -> runTest(model, monitor)));
+            }
+            for (int i = 0; i < models.size(); i++) {
+                Testsuites result = null;
+                try {
+                    result = results.get(i).get();
+                } catch (ExecutionException e) {
+                    LogHelper.logStackTrace(e.getCause());
+                } catch (InterruptedException e) {
+                    // the runs are stopped before the monitor is closed, while its session is logged in
+                    executor.shutdownNow();
+                    monitor.stopRuns();
+                    throw e;
+                }
+                if (result != null) {
+                    testsuites.getTestsuite().addAll(result.getTestsuite());
+                } else {
+                    testsuites.getTestsuite().add(notRun(models.get(i)));
+                }
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            throw e;
+        } finally {
+            executor.shutdown();
+            monitorClient.logout();
+        }
+        return resultsBuilder.publishResults(testsuites);
+    }
+
+    private static Testsuites runTest(LreTestRunModel model, RunStateMonitor monitor)
+            throws InterruptedException, IOException {
+        LreTestRunBuilder builder = new LreTestRunBuilder(model);
+        builder.setReportsByRun(true);
+        LreRunHandle handle = builder.startDetached();
+        if (handle == null) {
+            return null;
+        }
+        CompletableFuture<PcRunResponse> completion = monitor.watch(handle.getRunId(),
+                LreTestRunClient.completionState(handle.getPostRunAction()),
+                new RunStatePollScheduler(model.getRunPollMinIntervalMs(), model.getRunPollMaxIntervalMs(),
+                        handle.getTimeslotMinutes() * 60 * 1000, handle.getStartedAt()));
+        PcRunResponse response;
+        try {
+            response = completion.get();
+        } catch (CancellationException e) {
+            // the matrix was aborted: the run was stopped by it
+            return null;
+        } catch (ExecutionException e) {
+            response = null;
+        }
+        // without data from the monitor, the run is waited for by its own session
+        return builder.collectResults(handle, response);
+    }
+
+    /**
+     * @return the run handle file of the model, numbered after the test
+     */
+    static Path runHandleFile(LreTestRunModel model, int number) {
+        Path file = StringUtils.isBlank(model.getRunHandleFile())
+                ? Paths.get(artifactsResourceName, LreRunHandle.DEFAULT_FILE_NAME)
+                : Paths.get(model.getRunHandleFile());
+        String name = file.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        name = extension > 0
+                ? name.substring(0, extension) + "_" + number + name.substring(extension)
+                : name + "_" + number;
+        return file.resolveSibling(name);
+    }
+
+    private static Testsuite notRun(LreTestRunModel model) {
+        String test = "CREATE_TEST".equals(model.getTestToRun())
+                ? model.getTestContentToCreate() : model.getTestId();
+        Error error = new Error();
+        error.setMessage("The run of the test could not be started or its results could not be collected.");
+        Testcase testCase = new Testcase();
+        testCase.setClassname("Performance Test.Load Test");
+        testCase.setName(test);
+        testCase.getError().add(error);
+        testCase.setStatus(JUnitTestCaseStatus.ERROR);
+        Testsuite testSuite = new Testsuite();
+        testSuite.setName("Performance Test: " + test);
+        testSuite.getTestcase().add(testCase);
+        return testSuite;
+    }
+}
@@ -75,6 +75,8 @@ public class LreTestRunBuilder {
     public static final String ERROR = "Error";
     private static final String artifactsDirectoryName = "LreResult";
     private static final String RUNID_BUILD_VARIABLE = "PC_RUN_ID";
+    /** Value of the attach option attaching to the run of the run handle, when it is still in progress. */
+    public static final String ATTACH_ACTIVE_RUN = "AUTO";
     private String junitResultsFileName;
 
     //private transient static Run<?, ?> _run;
@@ -108,6 +110,9 @@ public class LreTestRunBuilder {
     private final boolean searchTimeslot;
     private final boolean enableStackTrace;
     private int runId;
+    private LreRunHandle attachedRun;
+    private PcRunResponse completedRun;
+    private boolean reportsByRun;
     private String testName;
     private final Path output;
     private final Path workspace;
@@ -286,6 +291,223 @@ public class LreTestRunBuilder {
     }
 
     public boolean perform() throws InterruptedException, IOException {
+        Testsuites testsuites = execute(newLreTestRunClient(), false);
+        return publishResults(testsuites);
+    }
+
+    /**
+     * Starts the test and writes its run handle, without waiting for the run: {@link #collect()} waits for it and
+     * publishes its results later, from another process.
+     *
+     * @return whether the run was started and its handle written
+     */
+    public boolean start() throws InterruptedException, IOException {
+        LreRunHandle handle = startDetached();
+        if (handle != null) {
+            LogHelper.log("Use the CollectLreTest action to wait for the run and publish its results.", true);
+        }
+        setBuildStatus(handle != null ? BuildStatus.Running : BuildStatus.Failed);
+        provideStepResultStatus(buildStatus);
+        return handle != null;
+    }
+
+    /**
+     * Starts the test, or attaches to its run, and writes the run handle.
+     *
+     * @return the handle of the run, null when no run was started or its handle could not be written
+     */
+    LreRunHandle startDetached() throws InterruptedException, IOException {
+        LreTestRunClient lreTestRunClient = newLreTestRunClient();
+        Path handleFile = getRunHandlePath();
+        LreRunHandle started = null;
+        try {
+            if (!StringUtils.isBlank(getLreTestRunModel().getDescription())) {
+                LogHelper.log(LocalizationManager.getString("TestDescription")
+                        + ": " + getLreTestRunModel().getDescription(), true);
+            }
+            if (beforeRun(lreTestRunClient) && (attachRun(lreTestRunClient) || startRun(lreTestRunClient))) {
+                LreRunHandle handle = attachedRun != null ? attachedRun : newStartedRunHandle();
+                try {
+                    handle.write(handleFile);
+                    started = handle;
+                    LogHelper.log("Run handle written to %s (%s).", true, handleFile.toAbsolutePath(), handle);
+                } catch (IOException e) {
+                    // nothing would ever collect the run
+                    LogHelper.log("Failed to write run handle %s: %s. Stopping the run.", true,
+                            handleFile.toAbsolutePath(), e.getMessage());
+                    if (attachedRun == null) {
+                        lreTestRunClient.stopRun(runId);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            this.setBuildStatus(BuildStatus.Aborted);
+            lreTestRunClient.stopRun(runId);
+            throw e;
+        } catch (Exception e) {
+            LogHelper.logStackTrace(e);
+        } finally {
+            lreTestRunClient.logout();
+        }
+        return started;
+    }
+
+    /**
+     * Waits for the run written by {@link #start()} to complete, then publishes its reports and results as
+     * {@link #perform()} does.
+     */
+    public boolean collect() throws InterruptedException, IOException {
+        LreRunHandle handle;
+        try {
+            handle = LreRunHandle.read(getRunHandlePath());
+        } catch (IOException e) {
+            LogHelper.log("%s: %s", true, LocalizationManager.getString("Error"), e.getMessage());
+            return publishResults(null);
+        }
+        if (!handle.belongsTo(getLreTestRunModel())) {
+            LogHelper.log("%s: the run handle was written for another server, domain or project (%s).", true,
+                    LocalizationManager.getString("Error"), handle);
+            return publishResults(null);
+        }
+        LogHelper.log("Collecting %s, started at %s.", true, handle, new Date(handle.getStartedAt()));
+        return publishResults(collectResults(handle, null));
+    }
+
+    /**
+     * Waits for a run started earlier, unless it is already known to be complete, then publishes its reports.
+     *
+     * @param completedRun last data of the run when it is complete, null to wait for it
+     * @return the results of the run, null when they could not be collected
+     */
+    Testsuites collectResults(LreRunHandle handle, PcRunResponse completedRun) throws InterruptedException {
+        LreTestRunClient lreTestRunClient = new LreTestRunClient(getLreTestRunModel(), "", "", "", "");
+        resumeRun(lreTestRunClient, handle);
+        this.completedRun = completedRun;
+        return execute(lreTestRunClient, true);
+    }
+
+    private void resumeRun(LreTestRunClient lreTestRunClient, LreRunHandle handle) {
+        runId = handle.getRunId();
+        testName = StringUtils.isBlank(handle.getTestName())
+                ? String.format("TestId_%s", handle.getTestId()) : handle.getTestName();
+        getLreTestRunModel().setTestId(handle.getTestId());
+        getLreTestRunModel().setTrendReportId(handle.getTrendReportId());
+        getLreTestRunModel().setAddRunToTrendReport(handle.getAddRunToTrendReport());
+        getLreTestRunModel().setPostRunAction(handle.getPostRunAction());
+        lreTestRunClient.resumeRun(handle);
+    }
+
+    private LreRunHandle newRunHandle(long startedAt, long timeslotMinutes) {
+        return new LreRunHandle(runId,
+                getLreTestRunModel().getTestId(),
+                testName,
+                getLreTestRunModel().getTrendReportId(),
+                getLreTestRunModel().getAddRunToTrendReport(),
+                getLreTestRunModel().getPostRunAction(),
+                getLreTestRunModel().getLreServerAndPort(),
+                getLreTestRunModel().getDomain(),
+                getLreTestRunModel().getProject(),
+                startedAt,
+                timeslotMinutes);
+    }
+
+    private LreRunHandle newStartedRunHandle() {
+        return newRunHandle(System.currentTimeMillis(), LreTestRunClient.timeslotMinutes(getLreTestRunModel()));
+    }
+
+    /**
+     * Continues with a run started earlier, when one is configured to be attached, instead of starting a new one.
+     *
+     * @return whether a run was attached
+     * @throws PcException when the configured run ID cannot be attached
+     */
+    private boolean attachRun(LreTestRunClient lreTestRunClient) throws IOException, PcException {
+        String attachRun = getLreTestRunModel().getAttachRun();
+        if (StringUtils.isBlank(attachRun)) {
+            return false;
+        }
+        if (ATTACH_ACTIVE_RUN.equalsIgnoreCase(attachRun)) {
+            LreRunHandle handle = findActiveRun(lreTestRunClient);
+            if (handle == null) {
+                return false;
+            }
+            LogHelper.log("Attaching to active %s instead of starting a new run.", true, handle);
+            resumeRun(lreTestRunClient, handle);
+            attachedRun = handle;
+            return true;
+        }
+        int attachRunId;
+        try {
+            attachRunId = Integer.parseInt(attachRun);
+        } catch (NumberFormatException e) {
+            throw new PcException(String.format("%s: '%s' is neither a run ID nor %s",
+                    LocalizationManager.getString("IllegalParameter"), attachRun, ATTACH_ACTIVE_RUN));
+        }
+        lreTestRunClient.attachRun(attachRunId);
+        runId = attachRunId;
+        try {
+            testName = lreTestRunClient.getTestName();
+        } catch (PcException | IOException ex) {
+            testName = null;
+        }
+        if (testName == null) {
+            testName = String.format("TestId_%s", getLreTestRunModel().getTestId());
+        }
+        // the start of its timeslot is unknown, so it is polled as if it started now
+        attachedRun = newRunHandle(System.currentTimeMillis(), 0);
+        lreTestRunClient.resumeRun(attachedRun);
+        return true;
+    }
+
+    /**
+     * @return the run of the run handle when it is still in progress and was started for the configured test,
+     * null otherwise
+     */
+    private LreRunHandle findActiveRun(LreTestRunClient lreTestRunClient) {
+        LreRunHandle handle;
+        try {
+            handle = LreRunHandle.read(getRunHandlePath());
+        } catch (IOException e) {
+            LogHelper.log("No run to attach to: %s", true, e.getMessage());
+            return null;
+        }
+        if (!handle.belongsTo(getLreTestRunModel())) {
+            LogHelper.log("No run to attach to: %s was started on another server, domain or project.", true, handle);
+            return null;
+        }
+        if ("EXISTING_TEST".equals(getLreTestRunModel().getTestToRun())
+                && !handle.getTestId().equals(getLreTestRunModel().getTestId().trim())) {
+            LogHelper.log("No run to attach to: %s was started for another test.", true, handle);
+            return null;
+        }
+        PcRunResponse response = lreTestRunClient.getRunData(handle.getRunId());
+        if (response == null) {
+            return null;
+        }
+        RunState state = RunState.get(response.getRunState());
+        if (state == RunState.UNDEFINED || state.ordinal() >= FINISHED.ordinal()) {
+            LogHelper.log("No run to attach to: %s is %s.", true, handle, state.value());
+            return null;
+        }
+        String testInstanceId = getLreTestRunModel().getTestInstanceId();
+        if (LreTestRunHelper.isInteger(testInstanceId)
+                && response.getTestInstanceID() != Integer.parseInt(testInstanceId.trim())) {
+            LogHelper.log("No run to attach to: %s runs test instance %s.", true, handle,
+                    (Object) response.getTestInstanceID());
+            return null;
+        }
+        return handle;
+    }
+
+    private Path getRunHandlePath() {
+        String runHandleFile = getLreTestRunModel().getRunHandleFile();
+        if (StringUtils.isBlank(runHandleFile)) {
+            return workspace.resolve(artifactsDirectoryName).resolve(LreRunHandle.DEFAULT_FILE_NAME);
+        }
+        return workspace.resolve(runHandleFile);
+    }
+
+    private LreTestRunClient newLreTestRunClient() throws InterruptedException, IOException {
         String testToCreate = "";
         String testName = "";
         String testFolderPath = "";
@@ -302,12 +524,11 @@ public class LreTestRunBuilder {
             }
         }
 
-        LreTestRunClient lreTestRunClient =
-                new LreTestRunClient(getLreTestRunModel(), testToCreate, testName,
-                        testFolderPath, fileExtension);
-
-        Testsuites testsuites = execute(lreTestRunClient);
+        return new LreTestRunClient(getLreTestRunModel(), testToCreate, testName,
+                testFolderPath, fileExtension);
+    }
 
+    boolean publishResults(Testsuites testsuites) throws IOException {
         File resultsFile = resolveResultsFile();
 
         createResultsFileIfNeeded(resultsFile);
@@ -372,14 +593,30 @@ public class LreTestRunBuilder {
     private Testsuites run(LreTestRunClient lreTestRunClient)
             throws InterruptedException,
             IOException, PcException {
-        PcRunResponse response = null;
-        String errorMessage = "";
-        String eventLogString = "";
-        boolean trendReportReady = false;
+        if (!attachRun(lreTestRunClient) && !startRun(lreTestRunClient)) {
+            return null;
+        }
+        // lets a restarted step attach to the run instead of starting another one
+        try {
+            (attachedRun != null ? attachedRun : newStartedRunHandle()).write(getRunHandlePath());
+        } catch (IOException e) {
+            LogHelper.log("Failed to write run handle %s: %s", true, getRunHandlePath(), e.getMessage());
+        }
+        return collectRun(lreTestRunClient);
+    }
+
+    /**
+     * Starts the run and resolves the name of its test.
+     *
+     * @return false when no run could be started
+     */
+    private boolean startRun(LreTestRunClient lreTestRunClient)
+            throws InterruptedException,
+            IOException, PcException {
         try {
             runId = lreTestRunClient.startRun();
             if (runId == 0)
-                return null;
+                return false;
         } catch (NumberFormatException | PcException | IOException ex) {
             LogHelper.log("%s. %s: %s", true, LocalizationManager.getString("StartRunFailed"),
                     LocalizationManager.getString("Error"), ex.getMessage());
@@ -403,12 +640,25 @@ public class LreTestRunBuilder {
                     testName, ex.getMessage());
             LogHelper.logStackTrace(ex);
         }
+        return true;
+    }
+
+    /**
+     * Waits for the started run to complete, then publishes its reports.
+     */
+    private Testsuites collectRun(LreTestRunClient lreTestRunClient)
+            throws InterruptedException,
+            IOException {
+        PcRunResponse response = null;
+        String errorMessage = "";
+        String eventLogString = "";
+        boolean trendReportReady = false;
         try {
 //            publishRunIdVariable(runId);
 //            LogHelper.log("%s: %s = %s \n", true,
 //                    LocalizationManager.getString("SetEnvironmentVariable"),
 //                    RUNID_BUILD_VARIABLE, (Object) runId);
-            response = lreTestRunClient.waitForRunCompletion(runId);
+            response = completedRun != null ? completedRun : lreTestRunClient.waitForRunCompletion(runId);
             if (response != null && RunState.get(response.getRunState()) == FINISHED &&
                     getLreTestRunModel().getPostRunAction() != PostRunAction.DO_NOTHING) {
                 lreReportFile = lreTestRunClient.publishRunReport(runId, getReportDirectory());
@@ -458,10 +708,10 @@ public class LreTestRunBuilder {
     }
 
     private String getNVInsightsReportDirectory() {
-        return String.format(
+        return runDirectory(String.format(
                 runNVInsightsReportStructure,
                 this.workspace,
-                artifactsDirectoryName);
+                artifactsDirectoryName));
     }
 
     private Testsuites parseLreTrendResponse(
@@ -470,8 +720,8 @@ public class LreTestRunBuilder {
             int runID)
             throws IntrospectionException, NoSuchMethodException {
         if (trendReportReady) {
-            String reportUrlTemp = trendReportStructure.replaceFirst(
-                    "%s/", "") + "/trendReport%s.pdf";
+            String reportUrlTemp = runDirectory(trendReportStructure.replaceFirst(
+                    "%s/", "")) + "/trendReport%s.pdf";
             String reportUrl = String.format(reportUrlTemp,
                     artifactsResourceName, getLreTestRunModel().getTrendReportId());
             pcTestRunClient.publishTrendReport(reportUrl, getLreTestRunModel()
@@ -481,17 +731,35 @@ public class LreTestRunBuilder {
     }
 
     private String getTrendReportsDirectory() {
-        return String.format(
+        return runDirectory(String.format(
                 trendReportStructure,
                 this.workspace,
-                artifactsDirectoryName);
+                artifactsDirectoryName));
     }
 
     private String getReportDirectory() {
-        return String.format(
+        return runDirectory(String.format(
                 runReportStructure,
                 this.workspace,
-                artifactsDirectoryName);
+                artifactsDirectoryName));
+    }
+
+    /**
+     * @return the directory, or a subdirectory of it for the run when several runs publish their reports
+     */
+    private String runDirectory(String directory) {
+        return reportsByRun ? directory + "/RunID_" + runId : directory;
+    }
+
+    /**
+     * Publishes the reports of each run to its own directory, for several runs publishing at the same time.
+     */
+    void setReportsByRun(boolean reportsByRun) {
+        this.reportsByRun = reportsByRun;
+    }
+
+    int getRunId() {
+        return runId;
     }
 
     private String publishRunIdVariable(int runId) {
@@ -527,7 +795,10 @@ public class LreTestRunBuilder {
         }
     }
 
-    private Testsuites execute(LreTestRunClient lreTestRunClient)
+    /**
+     * @param collectOnly whether the run was already started by the StartLreTest action
+     */
+    private Testsuites execute(LreTestRunClient lreTestRunClient, boolean collectOnly)
             throws InterruptedException {
         try {
             try {
@@ -538,7 +809,7 @@ public class LreTestRunBuilder {
                 if (!beforeRun(lreTestRunClient)) {
                     return null;
                 }
-                return run(lreTestRunClient);
+                return collectOnly ? collectRun(lreTestRunClient) : run(lreTestRunClient);
             } catch (InterruptedException e) {
                 this.setBuildStatus(BuildStatus.Aborted);
                 lreTestRunClient.stopRun(runId);
@@ -17,6 +17,12 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -33,6 +39,12 @@ public class LreTestRunClient {
     private boolean loggedIn;
     private int testInstanceID = 0;
     private int timeslotId = -1;
+    private int pollCount;
+    private LreRunHandle resumedRun;
+    /** Time after which a run waiting before collating or analyzing is considered stopped. */
+    static final long STALLED_STATE_MILLIS = 60_000;
+    /** Lookups sent together before starting a run. */
+    private static final int PRE_RUN_LOOKUPS = 4;
 
     public LreTestRunClient(LreTestRunModel lreTestRunModel,
                             String testToCreate,
@@ -81,8 +93,9 @@ public class LreTestRunClient {
 
         int testID;
         LogHelper.log("", true);
-        if ("EXISTING_TEST".equals(lreTestRunModel.getTestToRun())) {
-            testID = getTestForExistingTestId();
+        boolean existingTest = "EXISTING_TEST".equals(lreTestRunModel.getTestToRun());
+        if (existingTest) {
+            testID = Integer.parseInt(lreTestRunModel.getTestId());
         } else {
             Test test = createTestFromYamlOrXml();
             if (test == null) {
@@ -94,13 +107,7 @@ public class LreTestRunClient {
             LogHelper.log("Running YAML test: Test ID %s, Name: %s, Path: %s", true, test.getID(), test.getName(), test.getTestFolderPath());
         }
         //log(listener, "", true);
-        getOpenedTimeslot(testID);
-        if (testInstanceID <= 0)
-            getCorrectTestInstanceID(testID);
-        else {
-            LogHelper.log("Test instance already found in the timeslot.", true);
-        }
-        setCorrectTrendReportID();
+        resolveRunSettings(testID, existingTest);
         printInitMessage();
         PcRunResponse response = null;
         try {
@@ -237,57 +244,144 @@ public class LreTestRunClient {
         return testID;
     }
 
-    private void getOpenedTimeslot(int testID) {
-        timeslotId = -1;
-        if (lreTestRunModel.isSearchTimeslot()) {
+    /**
+     * Looks up what the run needs before it is started: the existing test, an opened timeslot, the test instance and
+     * the trend report. These lookups do not depend on each other and are sent together, in the same session. Only
+     * creating a test instance, when neither the timeslot nor the test has one, waits for all of them. A lookup
+     * failing with a {@link PcException} or an {@link IOException} fails the start with that exception.
+     */
+    private void resolveRunSettings(int testID, boolean existingTest) throws IOException, PcException {
+        long start = System.currentTimeMillis();
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(PRE_RUN_LOOKUPS, task -> {
+            Thread thread = new Thread(task, "lre-pre-run-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            Future<Integer> test = existingTest
+                    ? lookup(executor, "test", this::getTestForExistingTestId) : null;
+            Future<Timeslot> timeslot = lreTestRunModel.isSearchTimeslot()
+                    ? lookup(executor, "opened timeslots", () -> findOpenedTimeslot(testID)) : null;
+            Future<PcTestInstances> testInstances = "AUTO".equals(lreTestRunModel.getAutoTestInstanceID())
+                    ? lookup(executor, "test instances", () -> findTestInstances(testID)) : null;
+            Future<Void> trendReport = isTrendReportAssociated()
+                    ? lookup(executor, "trend report", () -> {
+                        setCorrectTrendReportID();
+                        return null;
+                    }) : null;
+
+            if (test != null) {
+                join(test);
+            }
+            timeslotId = -1;
+            Timeslot openedTimeslot = timeslot != null ? join(timeslot) : null;
+            if (openedTimeslot != null) {
+                timeslotId = openedTimeslot.getID();
+                if (openedTimeslot.getLoadTestInstanceID() > 0) {
+                    testInstanceID = openedTimeslot.getLoadTestInstanceID();
+                }
+            }
+            PcTestInstances instances = testInstances != null ? join(testInstances) : null;
+            if (trendReport != null) {
+                join(trendReport);
+            }
+            // nothing is created in LRE before every lookup succeeded
+            if (testInstanceID <= 0)
+                getCorrectTestInstanceID(testID, instances);
+            else {
+                LogHelper.log("Test instance already found in the timeslot.", true);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        LogHelper.log("Run settings resolved in %d ms.", true, System.currentTimeMillis() - start);
+    }
+
+    private static <T> Future<T> lookup(ExecutorService executor, String name, Callable<T> lookup) {
+        return executor.submit(() -> {
+            long start = System.currentTimeMillis();
             try {
-                LogHelper.log("Searching timeslot", true);
-                Timeslots openedTimeslots = restProxy.GetOpenTimeslotsByTestId(testID);
-                List<Timeslot> timeslots = openedTimeslots.getTimeslotsList();
-                String timeslotIds = timeslots.stream().map(i -> Integer.toString(i.getID())).collect(Collectors.joining(", "));
-                String timeslotNames = timeslots.stream().map(Timeslot::getName).collect(Collectors.joining(", "));
-                String timeslotTestInstanceIDs = timeslots.stream().map(i -> Integer.toString(i.getLoadTestInstanceID())).collect(Collectors.joining(", "));
-                LogHelper.log(
-                        "Timeslots related to test ID %s are: timeslot Ids '%s', timeslot names '%s', timeslot TestInstance IDs '%s'.",
-                        true,
-                        (Object) testID,
-                        timeslotIds,
-                        timeslotNames,
-                        timeslotTestInstanceIDs);
-                Stream<Timeslot> timeslotsStream = openedTimeslots.getTimeslotsList().stream().filter((p) -> IsTimeslotPostRunActionValidComparedToRequestedPostRunAction(p.getPostRunAction()));
-                ArrayList<Timeslot> timeslotsList = timeslotsStream.collect(Collectors.toCollection(ArrayList::new));
-                long timeslotsListCount = timeslotsList.size();
+                return lookup.call();
+            } finally {
+                LogHelper.log("Lookup of the %s took %d ms.", true, name, System.currentTimeMillis() - start);
+            }
+        });
+    }
+
+    private static <T> T join(Future<T> lookup) throws IOException, PcException {
+        try {
+            return lookup.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while resolving the run settings.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof PcException) {
+                throw (PcException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PcException(cause.toString());
+        }
+    }
+
+    /**
+     * @return the first opened timeslot of the test matching the post run action, null when none or when the
+     * search fails
+     */
+    private Timeslot findOpenedTimeslot(int testID) {
+        try {
+            LogHelper.log("Searching timeslot", true);
+            Timeslots openedTimeslots = restProxy.GetOpenTimeslotsByTestId(testID);
+            List<Timeslot> timeslots = openedTimeslots.getTimeslotsList();
+            String timeslotIds = timeslots.stream().map(i -> Integer.toString(i.getID())).collect(Collectors.joining(", "));
+            String timeslotNames = timeslots.stream().map(Timeslot::getName).collect(Collectors.joining(", "));
+            String timeslotTestInstanceIDs = timeslots.stream().map(i -> Integer.toString(i.getLoadTestInstanceID())).collect(Collectors.joining(", "));
+            LogHelper.log(
+                    "Timeslots related to test ID %s are: timeslot Ids '%s', timeslot names '%s', timeslot TestInstance IDs '%s'.",
+                    true,
+                    (Object) testID,
+                    timeslotIds,
+                    timeslotNames,
+                    timeslotTestInstanceIDs);
+            Stream<Timeslot> timeslotsStream = openedTimeslots.getTimeslotsList().stream().filter((p) -> IsTimeslotPostRunActionValidComparedToRequestedPostRunAction(p.getPostRunAction()));
+            ArrayList<Timeslot> timeslotsList = timeslotsStream.collect(Collectors.toCollection(ArrayList::new));
+            long timeslotsListCount = timeslotsList.size();
+
+            LogHelper.log(
+                    "%s matching timeslot(s) found.",
+                    true,
+                    (Object) timeslotsListCount);
 
+            if (timeslotsListCount > 0) {
+                Timeslot timeslot = timeslotsList.stream().findFirst().get();
                 LogHelper.log(
-                        "%s matching timeslot(s) found.",
+                        "Found timeslot ID: %s",
                         true,
-                        (Object) timeslotsListCount);
-
-                if (timeslotsListCount > 0) {
-                    Timeslot timeslot = timeslotsList.stream().findFirst().get();
-                    timeslotId = timeslot.getID();
+                        (Object) timeslot.getID());
+                if (timeslot.getLoadTestInstanceID() > 0) {
                     LogHelper.log(
-                            "Found timeslot ID: %s",
+                            "Using timeslot %s defined to run TestInstance Id %s.",
                             true,
-                            (Object) timeslotId);
-                    if (timeslot.getLoadTestInstanceID() > 0) {
-                        testInstanceID = timeslot.getLoadTestInstanceID();
-                        LogHelper.log(
-                                "Using timeslot %s defined to run TestInstance Id %s.",
-                                true,
-                                (Object) timeslotId,
-                                (Object) testInstanceID);
-                    }
+                            (Object) timeslot.getID(),
+                            (Object) timeslot.getLoadTestInstanceID());
                 }
-            } catch (Exception e) {
-                LogHelper.log(
-                        "getOpenedTimeslot %s. %s: %s", true,
-                        LocalizationManager.getString("Failure"),
-                        LocalizationManager.getString("Error"),
-                        e.getMessage());
-                LogHelper.logStackTrace(e);
+                return timeslot;
             }
+        } catch (Exception e) {
+            LogHelper.log(
+                    "getOpenedTimeslot %s. %s: %s", true,
+                    LocalizationManager.getString("Failure"),
+                    LocalizationManager.getString("Error"),
+                    e.getMessage());
+            LogHelper.logStackTrace(e);
         }
+        return null;
     }
 
     private boolean IsTimeslotPostRunActionValidComparedToRequestedPostRunAction(String postRunAction) {
@@ -304,21 +398,27 @@ public class LreTestRunClient {
         }
     }
 
-    private void getCorrectTestInstanceID(int testID) throws IOException, PcException {
+    private PcTestInstances findTestInstances(int testID) throws IOException {
+        LogHelper.log(LocalizationManager.getString("SearchingTestInstance"), true);
+        try {
+            return restProxy.getTestInstancesByTestId(testID);
+        } catch (PcException ex) {
+            LogHelper.log(
+                    "%s - getTestInstancesByTestId %s. Error: %s", true,
+                    LocalizationManager.getString("Failure"),
+                    LocalizationManager.getString("Error"),
+                    ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param pcTestInstances the instances of the test, found by {@link #findTestInstances(int)}: when there is none,
+     *                        one is created in a test set
+     */
+    private void getCorrectTestInstanceID(int testID, PcTestInstances pcTestInstances) throws IOException, PcException {
         if ("AUTO".equals(lreTestRunModel.getAutoTestInstanceID())) {
             try {
-                LogHelper.log(LocalizationManager.getString("SearchingTestInstance"), true);
-                PcTestInstances pcTestInstances = null;
-                try {
-                    pcTestInstances = restProxy.getTestInstancesByTestId(testID);
-                } catch (PcException ex) {
-                    LogHelper.log(
-                            "%s - getTestInstancesByTestId %s. Error: %s", true,
-                            LocalizationManager.getString("Failure"),
-                            LocalizationManager.getString("Error"),
-                            ex.getMessage());
-                }
-
                 if (pcTestInstances != null && pcTestInstances.getTestInstancesList() != null) {
                     PcTestInstance pcTestInstance = pcTestInstances.getTestInstancesList().get(pcTestInstances.getTestInstancesList().size() - 1);
                     testInstanceID = pcTestInstance.getInstanceId();
@@ -367,12 +467,17 @@ public class LreTestRunClient {
             testInstanceID = Integer.parseInt(lreTestRunModel.getTestInstanceId());
     }
 
+    private boolean isTrendReportAssociated() {
+        return ("ASSOCIATED").equals(lreTestRunModel.getAddRunToTrendReport())
+                && lreTestRunModel.getPostRunAction() != PostRunAction.DO_NOTHING;
+    }
+
     private void setCorrectTrendReportID() throws IOException, PcException {
         // If the user selected "Use trend report associated with the test" we want the report ID to be the one from the test
         String msg = LocalizationManager.getString("NoTrendReportAssociated") + "\n" +
                 LocalizationManager.getString("PleaseTurnAutomaticTrendOn") + "\n" +
                 LocalizationManager.getString("PleaseTurnAutomaticTrendOnAlternative");
-        if (("ASSOCIATED").equals(lreTestRunModel.getAddRunToTrendReport()) && lreTestRunModel.getPostRunAction() != PostRunAction.DO_NOTHING) {
+        if (isTrendReportAssociated()) {
             PcTest pcTest = restProxy.getTestData(Integer.parseInt(lreTestRunModel.getTestId()));
             //if the trend report ID is parametrized
             if (!lreTestRunModel.getTrendReportId().startsWith("$")) {
@@ -396,6 +501,38 @@ public class LreTestRunClient {
         }
     }
 
+    /**
+     * @return the current data of a run, or null when it cannot be read
+     */
+    public PcRunResponse getRunData(int runId) {
+        try {
+            return restProxy.getRunData(runId);
+        } catch (PcException | IOException e) {
+            LogHelper.log("getRunData failed for RunID: %s. %s", true, (Object) runId, e.getMessage());
+            LogHelper.logStackTrace(e);
+            return null;
+        }
+    }
+
+    /**
+     * Continues with a run started earlier instead of starting a new one: takes its test as the test of the model
+     * and resolves its trend report as {@link #startRun()} does.
+     *
+     * @return the current data of the run
+     */
+    public PcRunResponse attachRun(int runId) throws IOException, PcException {
+        PcRunResponse response = restProxy.getRunData(runId);
+        if (response == null || response.getID() != runId) {
+            throw new PcException(String.format("RunID: %s not found", runId));
+        }
+        lreTestRunModel.setTestId(String.valueOf(response.getTestID()));
+        setCorrectTrendReportID();
+        LogHelper.log("Attached to RunID: %s (TestID: %s, TimeslotID: %s) - State = %s", true,
+                (Object) runId, (Object) response.getTestID(), (Object) response.getTimeslotID(),
+                RunState.get(response.getRunState()).value());
+        return response;
+    }
+
     public String getTestName() throws IOException, PcException {
 
         try {
@@ -411,88 +548,136 @@ public class LreTestRunClient {
 
     public PcRunResponse waitForRunCompletion(int runId) throws InterruptedException, PcException, IOException {
 
-        return waitForRunCompletion(runId, 5000);
+        return waitForRunCompletion(runId, newPollScheduler());
     }
 
     public PcRunResponse waitForRunCompletion(int runId, int interval) throws InterruptedException, IOException {
-        RunState state;
-        switch (lreTestRunModel.getPostRunAction()) {
+
+        return waitForRunCompletion(runId, RunStatePollScheduler.fixed(interval));
+    }
+
+    public PcRunResponse waitForRunCompletion(int runId, RunStatePollScheduler scheduler) throws InterruptedException,
+            IOException {
+        return waitForRunState(runId, completionState(lreTestRunModel.getPostRunAction()), scheduler);
+    }
+
+    /**
+     * @return the state in which a run is complete for its post-run action
+     */
+    static RunState completionState(PostRunAction postRunAction) {
+        switch (postRunAction) {
             case DO_NOTHING:
-                state = RunState.BEFORE_COLLATING_RESULTS;
-                break;
+                return RunState.BEFORE_COLLATING_RESULTS;
             case COLLATE:
-                state = RunState.BEFORE_CREATING_ANALYSIS_DATA;
-                break;
+                return RunState.BEFORE_CREATING_ANALYSIS_DATA;
             case COLLATE_AND_ANALYZE:
-                state = RunState.FINISHED;
-                break;
+                return RunState.FINISHED;
             default:
-                state = RunState.UNDEFINED;
-                break;
+                return RunState.UNDEFINED;
         }
-        return waitForRunState(runId, state, interval);
     }
 
+    /**
+     * Continues with a run started by another process, so that its state is polled according to the time left in
+     * its timeslot.
+     */
+    public void resumeRun(LreRunHandle handle) {
+        this.resumedRun = handle;
+    }
 
-    private PcRunResponse waitForRunState(int runId, RunState completionState, int interval) throws InterruptedException,
-            IOException {
+    /**
+     * @return a scheduler polling the run between the configured intervals, according to the timeslot duration
+     */
+    private RunStatePollScheduler newPollScheduler() {
+        long start = resumedRun == null ? System.currentTimeMillis() : resumedRun.getStartedAt();
+        long timeslotMinutes = resumedRun == null ? timeslotMinutes(lreTestRunModel) : resumedRun.getTimeslotMinutes();
+        return new RunStatePollScheduler(lreTestRunModel.getRunPollMinIntervalMs(),
+                lreTestRunModel.getRunPollMaxIntervalMs(), timeslotMinutes * 60 * 1000, start);
+    }
+
+    /**
+     * @return the configured timeslot duration in minutes, 0 when unknown
+     */
+    static long timeslotMinutes(LreTestRunModel model) {
+        try {
+            return Long.parseLong(model.getTimeslotDurationHours().trim()) * 60
+                    + Long.parseLong(model.getTimeslotDurationMinutes().trim());
+        } catch (NullPointerException | NumberFormatException e) {
+            // unknown duration: the running state is polled like the other ones
+            return 0;
+        }
+    }
+
+    /**
+     * @return the number of times the state of the run was polled by the last wait
+     */
+    public int getPollCount() {
+        return pollCount;
+    }
+
+    private PcRunResponse waitForRunState(int runId, RunState completionState, RunStatePollScheduler scheduler)
+            throws InterruptedException, IOException {
 
-        int counter = 0;
         RunState[] states = {RunState.BEFORE_COLLATING_RESULTS, RunState.BEFORE_CREATING_ANALYSIS_DATA};
         PcRunResponse response = null;
         RunState lastState = RunState.UNDEFINED;
         int threeStrikes = 3;
-        do {
-            try {
+        try {
+            do {
+                try {
 
-                if (threeStrikes < 3) {
-                    LogHelper.log("Cannot get response from PC about the state of RunID: %s %s time(s) consecutively", true,
-                            (Object) runId,
-                            (Object) (3 - threeStrikes));
-                    if (threeStrikes == 0) {
-                        LogHelper.log("%s: %s", true,
-                                LocalizationManager.getString("StoppingMonitoringOnRun"),
-                                (Object) runId);
+                    if (threeStrikes < 3) {
+                        LogHelper.log("Cannot get response from PC about the state of RunID: %s %s time(s) consecutively", true,
+                                (Object) runId,
+                                (Object) (3 - threeStrikes));
+                        if (threeStrikes == 0) {
+                            LogHelper.log("%s: %s", true,
+                                    LocalizationManager.getString("StoppingMonitoringOnRun"),
+                                    (Object) runId);
+                            break;
+                        }
+                        Thread.sleep(2000);
+                        login();
+                    }
+                    response = restProxy.getRunData(runId);
+                    RunState currentState = RunState.get(response.getRunState());
+                    long delay = scheduler.onPoll(currentState);
+                    if (lastState.ordinal() < currentState.ordinal()) {
+                        lastState = currentState;
+                        LogHelper.log("RunID: %s - State = %s", true,
+                                (Object) runId,
+                                currentState.value());
+                    }
+                    threeStrikes = 3;
+                    if (lastState.ordinal() >= completionState.ordinal()) {
                         break;
                     }
-                    Thread.sleep(2000);
-                    login();
-                }
-                response = restProxy.getRunData(runId);
-                RunState currentState = RunState.get(response.getRunState());
-                if (lastState.ordinal() < currentState.ordinal()) {
-                    lastState = currentState;
-                    LogHelper.log("RunID: %s - State = %s", true,
-                            (Object) runId,
-                            currentState.value());
-                }
 
-                // In case we are in state before collate or before analyze, we will wait 1 minute for the state to change otherwise we exit
-                // because the user probably stopped the run from PC or timeslot has reached the end.
-                if (Arrays.asList(states).contains(currentState)) {
-                    counter++;
-                    Thread.sleep(1000);
-                    if (counter > 60) {
+                    // In case we are in state before collate or before analyze, we will wait 1 minute for the state to change otherwise we exit
+                    // because the user probably stopped the run from PC or timeslot has reached the end.
+                    if (Arrays.asList(states).contains(currentState)
+                            && scheduler.getMillisInState() > STALLED_STATE_MILLIS) {
                         LogHelper.log("Run ID: %s  - %s = %s", true,
                                 (Object) runId,
                                 LocalizationManager.getString("StoppedFromLre"),
                                 currentState.value());
                         break;
                     }
-                } else {
-                    counter = 0;
-                    Thread.sleep(interval);
+                    Thread.sleep(delay);
+                } catch (PcException e) {
+                    threeStrikes--;
+                } catch (InterruptedException e) {
+                    LogHelper.log("Job execution interrupted: %s", true,
+                            (Object) runId,
+                            e.getMessage());
+                    throw e;
                 }
-                threeStrikes = 3;
-            } catch (PcException e) {
-                threeStrikes--;
-            } catch (InterruptedException e) {
-                LogHelper.log("Job execution interrupted: %s", true,
-                        (Object) runId,
-                        e.getMessage());
-                throw e;
-            }
-        } while (lastState.ordinal() < completionState.ordinal());
+            } while (lastState.ordinal() < completionState.ordinal());
+        } finally {
+            pollCount = scheduler.getPollCount();
+            LogHelper.log("RunID: %s - State polled %d time(s) in %d s, %d state change(s).", true,
+                    (Object) runId, pollCount, scheduler.getElapsedMillis() / 1000, scheduler.getStateChanges());
+        }
         return response;
     }
 
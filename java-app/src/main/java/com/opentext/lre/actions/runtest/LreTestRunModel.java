@@ -10,9 +10,9 @@ public class LreTestRunModel extends LreBaseModel {
     private final String testToRun;
     private final String testContentToCreate;
     private final String autoTestInstanceID;
-    private final PostRunAction postRunAction;
+    private PostRunAction postRunAction;
     private final boolean vudsMode;
-    private final String addRunToTrendReport;
+    private String addRunToTrendReport;
     private final boolean searchTimeslot;
     private String testId;
     private String testInstanceId;
@@ -27,6 +27,11 @@ public class LreTestRunModel extends LreBaseModel {
     private boolean statusBySla;
     private boolean enableStacktrace;
     private String output;
+    private int runPollMinIntervalMs = RunStatePollScheduler.DEFAULT_MIN_INTERVAL_MILLIS;
+    private int runPollMaxIntervalMs = RunStatePollScheduler.DEFAULT_MAX_INTERVAL_MILLIS;
+    private String runHandleFile = "";
+    private String attachRun = "";
+    private int testConcurrency = 1;
 
     // </editor-fold>
 
@@ -109,6 +114,7 @@ public class LreTestRunModel extends LreBaseModel {
     public String getTimeslotDurationMinutes() { return this.timeslotDurationMinutes; }
     public boolean isVudsMode() { return this.vudsMode; }
     public PostRunAction getPostRunAction() { return this.postRunAction; }
+    public void setPostRunAction(PostRunAction postRunAction) { this.postRunAction = postRunAction; }
     public String getDescription() { return super.getDescription(); }
     public String getBuildParameters() { return this.buildParameters; }
     public void setBuildParameters(String buildParameters) { this.buildParameters = buildParameters; }
@@ -121,6 +127,9 @@ public class LreTestRunModel extends LreBaseModel {
     public String getAddRunToTrendReport() {
         return this.addRunToTrendReport;
     }
+    public void setAddRunToTrendReport(String addRunToTrendReport) {
+        this.addRunToTrendReport = addRunToTrendReport;
+    }
     public boolean isSearchTimeslot() {
         return this.searchTimeslot;
     }
@@ -134,6 +143,26 @@ public class LreTestRunModel extends LreBaseModel {
     public void setOutput(String output) { this.output = output; }
     public String getOutput() { return this.output; }
 
+    public void setRunPollMinIntervalMs(int runPollMinIntervalMs) { this.runPollMinIntervalMs = Math.max(1, runPollMinIntervalMs); }
+    /** Shortest interval between two polls of the run state. */
+    public int getRunPollMinIntervalMs() { return this.runPollMinIntervalMs; }
+
+    public void setRunPollMaxIntervalMs(int runPollMaxIntervalMs) { this.runPollMaxIntervalMs = Math.max(1, runPollMaxIntervalMs); }
+    /** Longest interval between two polls of the run state, reached in the middle of long runs. */
+    public int getRunPollMaxIntervalMs() { return Math.max(this.runPollMinIntervalMs, this.runPollMaxIntervalMs); }
+
+    public void setRunHandleFile(String runHandleFile) { this.runHandleFile = runHandleFile == null ? "" : runHandleFile.trim(); }
+    /** File the StartLreTest action writes the started run to, and the CollectLreTest action reads it from. */
+    public String getRunHandleFile() { return this.runHandleFile; }
+
+    public void setAttachRun(String attachRun) { this.attachRun = attachRun == null ? "" : attachRun.trim(); }
+    /** ID of a run to wait for instead of starting a new one, {@code AUTO} for the active run of the run handle, or empty. */
+    public String getAttachRun() { return this.attachRun; }
+
+    public void setTestConcurrency(int testConcurrency) { this.testConcurrency = Math.max(1, testConcurrency); }
+    /** Maximum number of runs in progress at once, when several tests are run in one invocation. */
+    public int getTestConcurrency() { return this.testConcurrency; }
+
     // workspace is now inherited from LreBaseModel - use getWorkspace() from base class
 
 
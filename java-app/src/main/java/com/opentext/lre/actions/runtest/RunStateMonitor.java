@@ -0,0 +1,209 @@
+package com.opentext.lre.actions.runtest;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcRunResponse;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.RunState;
+import com.opentext.lre.actions.common.helpers.LocalizationManager;
+import com.opentext.lre.actions.common.helpers.utils.LogHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Waits for several runs from a single thread and a single session: each run is polled when its own
+ * {@link RunStatePollScheduler} says so, and the runs due within {@link #BATCH_WINDOW_MILLIS} of each other are
+ * polled together, so that the requests come in batches instead of being spread over time.
+ * <p>
+ * A run is complete in the same cases as with {@link LreTestRunClient#waitForRunCompletion(int)}: its completion
+ * state is reached, or it stays more than a minute before collating or analyzing. A run whose state cannot be read
+ * three times in a row is given up without data.
+ */
+final class RunStateMonitor implements AutoCloseable {
+    static final long BATCH_WINDOW_MILLIS = 1000;
+    private static final RunState[] STALLED_STATES = {RunState.BEFORE_COLLATING_RESULTS,
+            RunState.BEFORE_CREATING_ANALYSIS_DATA};
+
+    private static final class WatchedRun {
+        private final int runId;
+        private final RunState completionState;
+        private final RunStatePollScheduler scheduler;
+        private final CompletableFuture<PcRunResponse> completion = new CompletableFuture<>();
+        private long nextPoll;
+        private RunState lastState = RunState.UNDEFINED;
+        private PcRunResponse lastResponse;
+        private int failures;
+
+        private WatchedRun(int runId, RunState completionState, RunStatePollScheduler scheduler) {
+            this.runId = runId;
+            this.completionState = completionState;
+            this.scheduler = scheduler;
+        }
+    }
+
+    private final LreTestRunClient client;
+    private final List<WatchedRun> runs = new ArrayList<>();
+    private final Thread thread;
+    private boolean closed;
+    private int polls;
+    private int batches;
+
+    /**
+     * @param client client logged in for the whole monitoring
+     */
+    RunStateMonitor(LreTestRunClient client) {
+        this.client = client;
+        this.thread = new Thread(this::monitor, "lre-run-monitor");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * @return completed with the last data read for the run once it is complete, with null when its state could not
+     * be read, exceptionally when its state could not be handled, or cancelled when the monitoring stops first
+     */
+    synchronized CompletableFuture<PcRunResponse> watch(int runId, RunState completionState,
+                                                        RunStatePollScheduler scheduler) {
+        WatchedRun run = new WatchedRun(runId, completionState, scheduler);
+        if (closed) {
+            run.completion.cancel(false);
+            return run.completion;
+        }
+        run.nextPoll = System.currentTimeMillis();
+        runs.add(run);
+        notifyAll();
+        return run.completion;
+    }
+
+    private void monitor() {
+        while (true) {
+            List<WatchedRun> due = new ArrayList<>();
+            synchronized (this) {
+                try {
+                    while (!closed && due.isEmpty()) {
+                        long now = System.currentTimeMillis();
+                        long next = Long.MAX_VALUE;
+                        for (WatchedRun run : runs) {
+                            next = Math.min(next, run.nextPoll);
+                        }
+                        if (next <= now) {
+                            for (WatchedRun run : runs) {
+                                if (run.nextPoll <= now + BATCH_WINDOW_MILLIS) {
+                                    due.add(run);
+                                }
+                            }
+                        } else {
+                            wait(next == Long.MAX_VALUE ? 0 : next - now);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+                if (closed) {
+                    for (WatchedRun run : runs) {
+                        run.completion.cancel(false);
+                    }
+                    runs.clear();
+                    return;
+                }
+                batches++;
+                polls += due.size();
+            }
+            for (WatchedRun run : due) {
+                try {
+                    poll(run);
+                } catch (RuntimeException e) {
+                    // fails this run only: the other runs are still watched
+                    LogHelper.logStackTrace(e);
+                    run.completion.completeExceptionally(e);
+                }
+            }
+            synchronized (this) {
+                runs.removeIf(run -> run.completion.isDone());
+            }
+        }
+    }
+
+    private void poll(WatchedRun run) {
+        long now = System.currentTimeMillis();
+        PcRunResponse response;
+        synchronized (client) {
+            response = client.getRunData(run.runId);
+        }
+        if (response == null) {
+            run.failures++;
+            LogHelper.log("Cannot get response from PC about the state of RunID: %s %s time(s) consecutively", true,
+                    (Object) run.runId, (Object) run.failures);
+            if (run.failures >= 3) {
+                LogHelper.log("%s: %s", true, LocalizationManager.getString("StoppingMonitoringOnRun"),
+                        (Object) run.runId);
+                // the run is not known to be complete
+                run.completion.complete(null);
+            } else {
+                synchronized (client) {
+                    client.login();
+                }
+                run.nextPoll = now + 2000;
+            }
+            return;
+        }
+        run.failures = 0;
+        run.lastResponse = response;
+        RunState state = RunState.get(response.getRunState());
+        long delay = run.scheduler.onPoll(state);
+        if (run.lastState.ordinal() < state.ordinal()) {
+            run.lastState = state;
+            LogHelper.log("RunID: %s - State = %s", true, (Object) run.runId, state.value());
+        }
+        if (run.lastState.ordinal() >= run.completionState.ordinal()) {
+            complete(run);
+        } else if (Arrays.asList(STALLED_STATES).contains(state)
+                && run.scheduler.getMillisInState() > LreTestRunClient.STALLED_STATE_MILLIS) {
+            LogHelper.log("Run ID: %s  - %s = %s", true, (Object) run.runId,
+                    LocalizationManager.getString("StoppedFromLre"), state.value());
+            complete(run);
+        } else {
+            run.nextPoll = now + delay;
+        }
+    }
+
+    private void complete(WatchedRun run) {
+        LogHelper.log("RunID: %s - State polled %d time(s) in %d s, %d state change(s).", true,
+                (Object) run.runId, run.scheduler.getPollCount(), run.scheduler.getElapsedMillis() / 1000,
+                run.scheduler.getStateChanges());
+        run.completion.complete(run.lastResponse);
+    }
+
+    /**
+     * Stops the runs still watched, from the monitoring session. Called before {@link #close()}, while the session
+     * is logged in.
+     */
+    void stopRuns() {
+        List<Integer> runIds = new ArrayList<>();
+        synchronized (this) {
+            for (WatchedRun run : runs) {
+                if (!run.completion.isDone()) {
+                    runIds.add(run.runId);
+                }
+            }
+        }
+        for (int runId : runIds) {
+            synchronized (client) {
+                client.stopRun(runId);
+            }
+        }
+    }
+
+    /**
+     * Stops the monitoring: the runs still watched are cancelled.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        thread.join();
+        LogHelper.log("%d run state poll(s) in %d batch(es).", true, polls, batches);
+    }
+}
@@ -0,0 +1,106 @@
+package com.opentext.lre.actions.runtest;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.RunState;
+
+/**
+ * Decides when to poll the state of a run next, between a minimum and a maximum interval:
+ * <ul>
+ *     <li>while the run is running, the interval is a tenth of the time left in the timeslot, so that the hours
+ *     in the middle of a run are polled rarely and the end of the timeslot closely. A run still running past the
+ *     end of its timeslot, as computed from an inaccurate start or duration, is polled as an unchanged state;</li>
+ *     <li>in the other states, which usually change within minutes, polling starts at the minimum interval and
+ *     doubles each time the state is found unchanged;</li>
+ *     <li>a state change brings the interval back to the minimum, as the next one often follows quickly.</li>
+ * </ul>
+ */
+public class RunStatePollScheduler {
+    public static final int DEFAULT_MIN_INTERVAL_MILLIS = 1000;
+    public static final int DEFAULT_MAX_INTERVAL_MILLIS = 30000;
+    /** The interval while running is this fraction of the remaining timeslot. */
+    static final int RUNNING_REMAINING_DIVISOR = 10;
+
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+    private final long timeslotMillis;
+    private final long start;
+    private RunState lastState;
+    private long lastChange;
+    private int unchangedPolls;
+    private int pollCount;
+    private int stateChanges;
+
+    /**
+     * @param timeslotMillis duration of the timeslot of the run, 0 when unknown
+     */
+    public RunStatePollScheduler(long minIntervalMillis, long maxIntervalMillis, long timeslotMillis) {
+        this(minIntervalMillis, maxIntervalMillis, timeslotMillis, System.currentTimeMillis());
+    }
+
+    RunStatePollScheduler(long minIntervalMillis, long maxIntervalMillis, long timeslotMillis, long start) {
+        this.minIntervalMillis = Math.max(1, minIntervalMillis);
+        this.maxIntervalMillis = Math.max(this.minIntervalMillis, maxIntervalMillis);
+        this.timeslotMillis = Math.max(0, timeslotMillis);
+        this.start = start;
+        this.lastChange = start;
+    }
+
+    /**
+     * @return a scheduler polling at the same interval in every state
+     */
+    public static RunStatePollScheduler fixed(long intervalMillis) {
+        return new RunStatePollScheduler(intervalMillis, intervalMillis, 0);
+    }
+
+    /**
+     * Records the state found by a poll.
+     *
+     * @return the time to wait before the next poll, in milliseconds
+     */
+    public long onPoll(RunState state) {
+        return onPoll(state, System.currentTimeMillis());
+    }
+
+    long onPoll(RunState state, long now) {
+        pollCount++;
+        if (state != lastState) {
+            if (lastState != null) {
+                stateChanges++;
+            }
+            lastState = state;
+            lastChange = now;
+            unchangedPolls = 0;
+        } else {
+            unchangedPolls++;
+        }
+        if (state == RunState.RUNNING && timeslotMillis > 0) {
+            long remaining = start + timeslotMillis - now;
+            if (remaining > 0) {
+                return clamp(remaining / RUNNING_REMAINING_DIVISOR);
+            }
+        }
+        return clamp(minIntervalMillis << Math.min(unchangedPolls, 20));
+    }
+
+    /**
+     * @return the time since the state last changed, in milliseconds
+     */
+    public long getMillisInState() {
+        return System.currentTimeMillis() - lastChange;
+    }
+
+    public int getPollCount() {
+        return pollCount;
+    }
+
+    public int getStateChanges() {
+        return stateChanges;
+    }
+
+    public long getElapsedMillis() {
+        return System.currentTimeMillis() - start;
+    }
+
+    private long clamp(long interval) {
+        return Math.min(maxIntervalMillis, Math.max(minIntervalMillis, interval));
+    }
+}
@@ -0,0 +1,138 @@
+package com.opentext.lre.actions.workspacesync;
+
+import com.opentext.lre.actions.common.helpers.utils.LogHelper;
+
+/**
+ * Number of uploads allowed to run at once, tuned between a minimum and a maximum from the outcome of the uploads,
+ * with additive increase and multiplicative decrease:
+ * <ul>
+ *     <li>after each window of as many successful uploads as the limit, the limit is raised by one when the bytes
+ *     uploaded per second by all the workers improved over the previous window;</li>
+ *     <li>it is halved when an upload shows the server overloaded: a timeout, a 5xx response or no script ID
+ *     returned. Overloads of uploads started before the last decrease do not decrease it again. Other failures,
+ *     such as an invalid script, leave the limit as it is.</li>
+ * </ul>
+ * With equal minimum and maximum, the limit is fixed.
+ */
+final class AdaptiveConcurrencyLimit {
+    private final int min;
+    private final int max;
+    private int limit;
+    private int inFlight;
+    // incremented on each decrease, to ignore the failures of the uploads started before it
+    private int decreases;
+    private long windowStart;
+    private long windowBytes;
+    private int windowUploads;
+    private double previousThroughput;
+
+    /**
+     * Permit to run one upload, to release when it completes.
+     */
+    static final class Permit {
+        private final int decreases;
+
+        private Permit(int decreases) {
+            this.decreases = decreases;
+        }
+    }
+
+    AdaptiveConcurrencyLimit(int initial, int min, int max) {
+        this.min = Math.max(1, min);
+        this.max = Math.max(this.min, max);
+        this.limit = Math.min(this.max, Math.max(this.min, initial));
+    }
+
+    static AdaptiveConcurrencyLimit fixed(int limit) {
+        return new AdaptiveConcurrencyLimit(limit, limit, limit);
+    }
+
+    boolean isAdaptive() {
+        return min < max;
+    }
+
+    int getMin() {
+        return min;
+    }
+
+    int getMax() {
+        return max;
+    }
+
+    synchronized int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Waits until fewer uploads than the limit are running.
+     */
+    synchronized Permit acquire() throws InterruptedException {
+        while (inFlight >= limit) {
+            wait();
+        }
+        inFlight++;
+        if (windowStart == 0) {
+            windowStart = System.nanoTime();
+        }
+        return new Permit(decreases);
+    }
+
+    /**
+     * Releases the permit of an upload that was not attempted, without tuning the limit.
+     */
+    synchronized void release(Permit permit) {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Halves the limit after an upload, still holding its permit, found the server overloaded.
+     */
+    synchronized void onOverload(Permit permit) {
+        if (!isAdaptive() || permit.decreases != decreases) {
+            return;
+        }
+        decreases++;
+        int previousLimit = limit;
+        limit = Math.max(min, limit / 2);
+        resetWindow(0);
+        if (limit != previousLimit) {
+            LogHelper.log("Upload concurrency lowered from %d to %d: the server is overloaded.", true,
+                    previousLimit, limit);
+        }
+    }
+
+    /**
+     * Releases the permit of a completed upload. A successful upload counts towards raising the limit, a failed
+     * one leaves it as it is: an overload is reported by {@link #onOverload(Permit)}.
+     *
+     * @param bytes size of the uploaded zip
+     */
+    synchronized void release(Permit permit, long bytes, boolean succeeded) {
+        inFlight--;
+        notifyAll();
+        if (!isAdaptive() || !succeeded) {
+            return;
+        }
+        windowBytes += bytes;
+        if (++windowUploads < limit) {
+            return;
+        }
+        long elapsedNanos = Math.max(1, System.nanoTime() - windowStart);
+        double throughput = windowBytes * 1_000_000_000.0 / elapsedNanos;
+        if (throughput > previousThroughput && limit < max) {
+            limit++;
+            notifyAll();
+            LogHelper.log("Upload concurrency raised to %d: %.2f MB/s over the last %d upload(s).", true,
+                    limit, throughput / (1024 * 1024), windowUploads);
+        }
+        resetWindow(throughput);
+    }
+
+    private void resetWindow(double throughput) {
+        previousThroughput = throughput;
+        windowStart = System.nanoTime();
+        windowBytes = 0;
+        windowUploads = 0;
+    }
+}
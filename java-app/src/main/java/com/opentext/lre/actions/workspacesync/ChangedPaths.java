@@ -0,0 +1,104 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paths changed in the workspace, relative to it with '/' separators, read from a list file or from
+ * {@code git diff --name-only}. Only the script folders enclosing them need to be synced.
+ */
+public final class ChangedPaths {
+    static final long GIT_TIMEOUT_SECONDS = 300;
+
+    private ChangedPaths() {
+    }
+
+    /**
+     * Reads a list of changed paths, one per line, relative to the workspace or absolute. Paths outside of the
+     * workspace are ignored.
+     */
+    public static List<String> readList(Path workspaceRoot, Path listFile) throws IOException {
+        return normalize(workspaceRoot, Files.readAllLines(listFile, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs {@code git diff --name-only} in the workspace between the base revision and the working tree.
+     * Deleted files are listed too, as their script folder may still exist.
+     *
+     * @throws IOException if git fails, or if the base revision starts with '-' and would be read as an option
+     */
+    public static List<String> fromGitDiff(Path workspaceRoot, String baseRevision) throws IOException {
+        if (baseRevision.startsWith("-")) {
+            throw new IOException("the git diff base '" + baseRevision + "' is not a revision");
+        }
+        // the checkout is usually owned by another user than the one running the sync: only the workspace is
+        // trusted, not every repository of the agent
+        String workspace = workspaceRoot.toAbsolutePath().normalize().toString().replace('\\', '/');
+        ProcessBuilder builder = new ProcessBuilder("git", "-c", "safe.directory=" + workspace, "diff",
+                "--name-only", "--no-renames", "--relative", "-z", baseRevision, "--")
+                .directory(workspaceRoot.toFile());
+        Process process = builder.start();
+        process.getOutputStream().close();
+        CompletableFuture<String> errors = CompletableFuture.supplyAsync(() -> readQuietly(process.getErrorStream()));
+        String output;
+        try (InputStream in = process.getInputStream()) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try {
+            if (!process.waitFor(GIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                throw new IOException("git diff did not complete within " + GIT_TIMEOUT_SECONDS + " seconds");
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("git diff interrupted", e);
+        }
+        if (process.exitValue() != 0) {
+            throw new IOException("git diff " + baseRevision + " failed with exit code " + process.exitValue()
+                    + ": " + errors.join().trim());
+        }
+        return normalize(workspaceRoot, Arrays.asList(output.split("\0")));
+    }
+
+    static List<String> normalize(Path workspaceRoot, Collection<String> paths) {
+        Path root = workspaceRoot.toAbsolutePath().normalize();
+        Set<String> result = new LinkedHashSet<>();
+        for (String path : paths) {
+            String trimmed = path.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            Path absolute;
+            try {
+                absolute = root.resolve(trimmed).normalize();
+            } catch (InvalidPathException e) {
+                continue;
+            }
+            if (absolute.startsWith(root) && !absolute.equals(root)) {
+                result.add(root.relativize(absolute).toString().replace('\\', '/'));
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static String readQuietly(InputStream in) {
+        try (in) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.opentext.lre.actions.workspacesync;
+
+import com.opentext.lre.actions.common.helpers.utils.LogHelper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A script folder handed from the compression workers to the upload workers: either its zip, staged for
+ * the upload or leased from the zip cache, or the error that prevented compressing it.
+ */
+final class CompressedScript {
+    private final ScriptSyncItem item;
+    private final Path zipPath;
+    private final long zipSize;
+    private final ZipCache.Lease cacheLease;
+    private final boolean reusedFromCache;
+    private final Exception error;
+
+    private CompressedScript(ScriptSyncItem item, Path zipPath, long zipSize, ZipCache.Lease cacheLease,
+                             boolean reusedFromCache, Exception error) {
+        this.item = item;
+        this.zipPath = zipPath;
+        this.zipSize = zipSize;
+        this.reusedFromCache = reusedFromCache;
+        this.cacheLease = cacheLease;
+        this.error = error;
+    }
+
+    static CompressedScript compressed(ScriptSyncItem item, Path zipPath, long zipSize) {
+        return new CompressedScript(item, zipPath, zipSize, null, false, null);
+    }
+
+    /**
+     * A zip of the zip cache. Its size is not counted in the budget of staged zips.
+     *
+     * @param reused whether the zip was already cached, false when it was compressed by this sync
+     */
+    static CompressedScript cached(ScriptSyncItem item, ZipCache.Lease cacheLease, boolean reused) {
+        return new CompressedScript(item, cacheLease.getZipPath(), 0, cacheLease, reused, null);
+    }
+
+    static CompressedScript failed(ScriptSyncItem item, Exception error) {
+        return new CompressedScript(item, null, 0, null, false, error);
+    }
+
+    ScriptSyncItem getItem() {
+        return item;
+    }
+
+    Path getZipPath() {
+        return zipPath;
+    }
+
+    long getZipSize() {
+        return zipSize;
+    }
+
+    /**
+     * @return whether the zip was taken from the zip cache instead of being compressed by this sync
+     */
+    boolean isReusedFromCache() {
+        return reusedFromCache;
+    }
+
+    boolean isCompressed() {
+        return error == null;
+    }
+
+    Exception getError() {
+        return error;
+    }
+
+    /**
+     * Deletes the temporary zip from the staging area, or returns the zip to the zip cache.
+     */
+    void discard() {
+        if (cacheLease != null) {
+            cacheLease.close();
+            return;
+        }
+        if (zipPath == null) {
+            return;
+        }
+        try {
+            ZipStagingArea.delete(zipPath);
+        } catch (IOException e) {
+            LogHelper.log("Failed to delete temp zip: %s", true, zipPath);
+        }
+    }
+}
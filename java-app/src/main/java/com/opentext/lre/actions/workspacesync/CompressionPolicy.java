@@ -0,0 +1,123 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Decides how the files of a script folder are zipped: deflated with the configured level, or STORED when
+ * deflating would only spend CPU time, for files that are already compressed.
+ * <p>
+ * A file is stored when its extension is one of the stored extensions, or when a trial compression of its
+ * beginning saves less than {@link #MIN_TRIAL_SAVING} of the sample. The policy can also make the zips
+ * deterministic.
+ */
+public final class CompressionPolicy {
+    public static final int DEFAULT_LEVEL = 6;
+    public static final Set<String> DEFAULT_STORED_EXTENSIONS = Set.of(
+            "zip", "jar", "war", "ear", "gz", "tgz", "bz2", "xz", "7z", "rar",
+            "png", "jpg", "jpeg", "gif", "webp", "ico",
+            "mp3", "mp4", "avi", "mov", "webm",
+            "docx", "xlsx", "pptx", "woff", "woff2", "pdf");
+    /** Files smaller than this are always deflated: a trial would cost more than it saves. */
+    static final int TRIAL_MIN_FILE_SIZE = 16 * 1024;
+    static final int TRIAL_SAMPLE_SIZE = 64 * 1024;
+    static final double MIN_TRIAL_SAVING = 0.1;
+
+    private final int level;
+    private final Set<String> storedExtensions;
+    private final boolean deterministic;
+
+    public CompressionPolicy(int level, Collection<String> additionalStoredExtensions) {
+        this(level, additionalStoredExtensions, false);
+    }
+
+    /**
+     * @param deterministic when set, identical folder content always gives a byte-identical zip
+     */
+    public CompressionPolicy(int level, Collection<String> additionalStoredExtensions, boolean deterministic) {
+        this.level = Math.max(0, Math.min(9, level));
+        this.deterministic = deterministic;
+        Set<String> extensions = new HashSet<>(DEFAULT_STORED_EXTENSIONS);
+        for (String extension : additionalStoredExtensions) {
+            String normalized = normalizeExtension(extension);
+            if (!normalized.isEmpty()) {
+                extensions.add(normalized);
+            }
+        }
+        this.storedExtensions = Set.copyOf(extensions);
+    }
+
+    public static CompressionPolicy defaults() {
+        return new CompressionPolicy(DEFAULT_LEVEL, Set.of());
+    }
+
+    /**
+     * @param level               deflate level, 0 to 9; 0 stores every file
+     * @param storedExtensionList comma separated extensions stored in addition to the default ones
+     */
+    public static CompressionPolicy of(int level, String storedExtensionList) {
+        return of(level, storedExtensionList, false);
+    }
+
+    /**
+     * @param deterministic when set, identical folder content always gives a byte-identical zip
+     */
+    public static CompressionPolicy of(int level, String storedExtensionList, boolean deterministic) {
+        Set<String> extensions = storedExtensionList == null ? Set.of()
+                : Arrays.stream(storedExtensionList.split(","))
+                        .map(String::trim)
+                        .filter(extension -> !extension.isEmpty())
+                        .collect(Collectors.toSet());
+        return new CompressionPolicy(level, extensions, deterministic);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public Set<String> getStoredExtensions() {
+        return storedExtensions;
+    }
+
+    /**
+     * Deterministic zips have their entries sorted by name, a fixed timestamp, no extra fields or permissions,
+     * and are written the same way whatever the number of threads.
+     */
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * @return true if the file must be stored whatever its content
+     */
+    public boolean isStored(String fileName) {
+        if (level == 0) {
+            return true;
+        }
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 && storedExtensions.contains(fileName.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * @return true if a trial compression should decide between deflating and storing a file of this size
+     */
+    public boolean needsTrial(long fileSize) {
+        return fileSize >= TRIAL_MIN_FILE_SIZE;
+    }
+
+    /**
+     * @return true if a sample that deflates to the given size is not worth deflating
+     */
+    public boolean isPoorlyCompressible(int sampleSize, int compressedSize) {
+        return sampleSize > 0 && compressedSize > sampleSize * (1 - MIN_TRIAL_SAVING);
+    }
+
+    private static String normalizeExtension(String extension) {
+        String normalized = extension.trim().toLowerCase(Locale.ROOT);
+        return normalized.startsWith(".") ? normalized.substring(1) : normalized;
+    }
+}
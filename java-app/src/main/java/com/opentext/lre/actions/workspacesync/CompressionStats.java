@@ -0,0 +1,81 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compression figures of a sync, shared by the compression threads. The CPU time saved by storing files is
+ * estimated from the CPU time deflate spent per byte on the other files and on the trial samples.
+ */
+public final class CompressionStats {
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final LongAdder deflatedFiles = new LongAdder();
+    private final LongAdder deflatedBytes = new LongAdder();
+    private final LongAdder deflateCpuNanos = new LongAdder();
+    private final LongAdder storedFiles = new LongAdder();
+    private final LongAdder storedBytes = new LongAdder();
+
+    /**
+     * @return the CPU time of the current thread, or the wall clock time when the JVM cannot measure it
+     */
+    static long cpuTimeNanos() {
+        if (THREADS.isCurrentThreadCpuTimeSupported()) {
+            long cpuTime = THREADS.getCurrentThreadCpuTime();
+            if (cpuTime >= 0) {
+                return cpuTime;
+            }
+        }
+        return System.nanoTime();
+    }
+
+    void recordDeflated(long bytes, long cpuNanos) {
+        recordDeflatedFile();
+        recordDeflateTime(bytes, cpuNanos);
+    }
+
+    /**
+     * Counts a deflated file whose deflate time is recorded separately, block by block.
+     */
+    void recordDeflatedFile() {
+        deflatedFiles.increment();
+    }
+
+    /**
+     * Records deflate work measured apart from whole files: a block of a file, or a trial compression.
+     */
+    void recordDeflateTime(long bytes, long cpuNanos) {
+        deflatedBytes.add(bytes);
+        deflateCpuNanos.add(cpuNanos);
+    }
+
+    void recordStored(long bytes) {
+        storedFiles.increment();
+        storedBytes.add(bytes);
+    }
+
+    public long getDeflatedFiles() {
+        return deflatedFiles.sum();
+    }
+
+    public long getStoredFiles() {
+        return storedFiles.sum();
+    }
+
+    public long getStoredBytes() {
+        return storedBytes.sum();
+    }
+
+    /**
+     * @return the estimated CPU time, in milliseconds, deflating the stored files would have taken
+     */
+    public long getEstimatedSavedCpuMillis() {
+        long bytes = deflatedBytes.sum();
+        if (bytes == 0) {
+            return 0;
+        }
+        double nanosPerByte = (double) deflateCpuNanos.sum() / bytes;
+        return (long) (storedBytes.sum() * nanosPerByte / 1_000_000);
+    }
+}
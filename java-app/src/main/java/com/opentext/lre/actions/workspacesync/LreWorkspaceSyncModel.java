@@ -2,8 +2,34 @@ package com.opentext.lre.actions.workspacesync;
 
 import com.opentext.lre.actions.common.model.LreBaseModel;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 public final class LreWorkspaceSyncModel extends LreBaseModel {
     private final boolean runtimeOnly;
+    private int syncParallelism = 1;
+    private String syncCacheDir = "";
+    private boolean forceFullSync;
+    private int syncCompressionThreads;
+    private int syncZipBudgetMb = 1024;
+    private int syncScanThreads;
+    private String syncStagingDir = "";
+    private int syncZipCacheMb;
+    private int syncCompressionLevel = CompressionPolicy.DEFAULT_LEVEL;
+    private String syncStoredExtensions = "";
+    private int syncZipThreads;
+    private int syncParallelZipMinMb = 64;
+    private boolean syncDeterministicZip;
+    private String syncExclude = "";
+    private boolean syncScanCache = true;
+    private String syncChangedFiles = "";
+    private String syncGitDiffBase = "";
+    private boolean syncReconcile;
+    private int syncMinParallelism = 1;
+    private int syncMaxParallelism;
+    private boolean syncResume;
+    private int syncUploadRetries = 3;
+    private int syncRetryDelayMs = 2000;
 
     public LreWorkspaceSyncModel(String lreServerAndPort,
                                  boolean httpsProtocol,
@@ -29,4 +55,276 @@ public final class LreWorkspaceSyncModel extends LreBaseModel {
     public boolean isRuntimeOnly() {
         return runtimeOnly;
     }
+
+    /**
+     * Number of upload workers, each one using its own authenticated session. 1 means sequential upload.
+     */
+    public int getSyncParallelism() {
+        return syncParallelism;
+    }
+
+    public void setSyncParallelism(int syncParallelism) {
+        this.syncParallelism = Math.max(1, syncParallelism);
+    }
+
+    public String getSyncCacheDir() {
+        return syncCacheDir;
+    }
+
+    public void setSyncCacheDir(String syncCacheDir) {
+        this.syncCacheDir = syncCacheDir == null ? "" : syncCacheDir.trim();
+    }
+
+    /**
+     * Directory holding the sync state (manifest): the configured cache directory, or the workspace itself.
+     */
+    public Path getSyncCacheDirectory() {
+        String directory = syncCacheDir.isEmpty() ? getWorkspace() : syncCacheDir;
+        return Paths.get(directory).toAbsolutePath();
+    }
+
+    /**
+     * When set, every script folder is uploaded regardless of the manifest of previous syncs.
+     */
+    public boolean isForceFullSync() {
+        return forceFullSync;
+    }
+
+    public void setForceFullSync(boolean forceFullSync) {
+        this.forceFullSync = forceFullSync;
+    }
+
+    /**
+     * Number of threads compressing script folders while uploads are running. 0 means automatic.
+     */
+    public int getSyncCompressionThreads() {
+        return syncCompressionThreads;
+    }
+
+    public void setSyncCompressionThreads(int syncCompressionThreads) {
+        this.syncCompressionThreads = Math.max(0, syncCompressionThreads);
+    }
+
+    /**
+     * Maximum disk space, in MB, used by temporary zips waiting for their upload.
+     */
+    public int getSyncZipBudgetMb() {
+        return syncZipBudgetMb;
+    }
+
+    public void setSyncZipBudgetMb(int syncZipBudgetMb) {
+        this.syncZipBudgetMb = Math.max(1, syncZipBudgetMb);
+    }
+
+    /**
+     * Number of threads reading workspace folders while looking for scripts. 0 means the number of processors.
+     */
+    public int getSyncScanThreads() {
+        return syncScanThreads;
+    }
+
+    public void setSyncScanThreads(int syncScanThreads) {
+        this.syncScanThreads = Math.max(0, syncScanThreads);
+    }
+
+    public String getSyncStagingDir() {
+        return syncStagingDir;
+    }
+
+    public void setSyncStagingDir(String syncStagingDir) {
+        this.syncStagingDir = syncStagingDir == null ? "" : syncStagingDir.trim();
+    }
+
+    /**
+     * Directory where zips are staged before their upload: the configured staging directory, or the system
+     * temporary directory.
+     */
+    public Path getSyncStagingDirectory() {
+        String directory = syncStagingDir.isEmpty() ? System.getProperty("java.io.tmpdir") : syncStagingDir;
+        return Paths.get(directory).toAbsolutePath();
+    }
+
+    /**
+     * Maximum size, in MB, of the zip cache kept in the staging directory between syncs. 0 disables the cache.
+     */
+    public int getSyncZipCacheMb() {
+        return syncZipCacheMb;
+    }
+
+    public void setSyncZipCacheMb(int syncZipCacheMb) {
+        this.syncZipCacheMb = Math.max(0, syncZipCacheMb);
+    }
+
+    /**
+     * Deflate level of the zipped scripts, 0 (store only) to 9.
+     */
+    public int getSyncCompressionLevel() {
+        return syncCompressionLevel;
+    }
+
+    public void setSyncCompressionLevel(int syncCompressionLevel) {
+        this.syncCompressionLevel = Math.max(0, Math.min(9, syncCompressionLevel));
+    }
+
+    /**
+     * Comma separated extensions of files stored without compression, in addition to the already compressed
+     * formats stored by default.
+     */
+    public String getSyncStoredExtensions() {
+        return syncStoredExtensions;
+    }
+
+    public void setSyncStoredExtensions(String syncStoredExtensions) {
+        this.syncStoredExtensions = syncStoredExtensions == null ? "" : syncStoredExtensions.trim();
+    }
+
+    /**
+     * Number of threads deflating the blocks of a large script folder. 0 means the number of processors,
+     * 1 zips every folder on a single thread.
+     */
+    public int getSyncZipThreads() {
+        return syncZipThreads;
+    }
+
+    public void setSyncZipThreads(int syncZipThreads) {
+        this.syncZipThreads = Math.max(0, syncZipThreads);
+    }
+
+    /**
+     * Size, in MB, from which a script folder is zipped on several threads.
+     */
+    public int getSyncParallelZipMinMb() {
+        return syncParallelZipMinMb;
+    }
+
+    public void setSyncParallelZipMinMb(int syncParallelZipMinMb) {
+        this.syncParallelZipMinMb = Math.max(1, syncParallelZipMinMb);
+    }
+
+    /**
+     * When set, identical script content gives byte-identical zips on every agent: sorted entries,
+     * fixed timestamps, no file system attributes.
+     */
+    public boolean isSyncDeterministicZip() {
+        return syncDeterministicZip;
+    }
+
+    public void setSyncDeterministicZip(boolean syncDeterministicZip) {
+        this.syncDeterministicZip = syncDeterministicZip;
+    }
+
+    /**
+     * Comma separated exclude patterns in gitignore syntax, applied after the ones of the
+     * {@value SyncIgnoreRules#FILE_NAME} file of the workspace.
+     */
+    public String getSyncExclude() {
+        return syncExclude;
+    }
+
+    public void setSyncExclude(String syncExclude) {
+        this.syncExclude = syncExclude == null ? "" : syncExclude.trim();
+    }
+
+    /**
+     * When set, folders unchanged since the previous scan, according to their modification time, are not read again.
+     */
+    public boolean isSyncScanCache() {
+        return syncScanCache;
+    }
+
+    public void setSyncScanCache(boolean syncScanCache) {
+        this.syncScanCache = syncScanCache;
+    }
+
+    /**
+     * File listing the changed paths, one per line, relative to the workspace. When set, only the script folders
+     * enclosing them are synced.
+     */
+    public String getSyncChangedFiles() {
+        return syncChangedFiles;
+    }
+
+    public void setSyncChangedFiles(String syncChangedFiles) {
+        this.syncChangedFiles = syncChangedFiles == null ? "" : syncChangedFiles.trim();
+    }
+
+    /**
+     * Git revision the workspace is compared to with {@code git diff --name-only}. When set, only the script
+     * folders enclosing the changed paths are synced.
+     */
+    public String getSyncGitDiffBase() {
+        return syncGitDiffBase;
+    }
+
+    public void setSyncGitDiffBase(String syncGitDiffBase) {
+        this.syncGitDiffBase = syncGitDiffBase == null ? "" : syncGitDiffBase.trim();
+    }
+
+    /**
+     * When set, every script folder is compared with the sync manifest of previous syncs and the resulting plan is
+     * reported before the first upload. Otherwise uploads start while the workspace is still being scanned.
+     */
+    public boolean isSyncReconcile() {
+        return syncReconcile;
+    }
+
+    public void setSyncReconcile(boolean syncReconcile) {
+        this.syncReconcile = syncReconcile;
+    }
+
+    /**
+     * Lowest number of concurrent uploads the sync backs off to when uploads fail.
+     */
+    public int getSyncMinParallelism() {
+        return Math.min(syncMinParallelism, syncParallelism);
+    }
+
+    public void setSyncMinParallelism(int syncMinParallelism) {
+        this.syncMinParallelism = Math.max(1, syncMinParallelism);
+    }
+
+    /**
+     * Highest number of concurrent uploads the sync raises to while the upload throughput improves. 0, or a value
+     * below the parallelism, keeps the parallelism as the maximum.
+     */
+    public int getSyncMaxParallelism() {
+        return Math.max(syncMaxParallelism, syncParallelism);
+    }
+
+    public void setSyncMaxParallelism(int syncMaxParallelism) {
+        this.syncMaxParallelism = Math.max(0, syncMaxParallelism);
+    }
+
+    /**
+     * When set, the scripts uploaded by an interrupted sync, as recorded in its journal, are not uploaded again.
+     */
+    public boolean isSyncResume() {
+        return syncResume;
+    }
+
+    public void setSyncResume(boolean syncResume) {
+        this.syncResume = syncResume;
+    }
+
+    /**
+     * Number of times an upload failing with a transient error is attempted again, 0 to never retry.
+     */
+    public int getSyncUploadRetries() {
+        return syncUploadRetries;
+    }
+
+    public void setSyncUploadRetries(int syncUploadRetries) {
+        this.syncUploadRetries = Math.max(0, syncUploadRetries);
+    }
+
+    /**
+     * Delay before the first retry of an upload, doubled for each following one.
+     */
+    public int getSyncRetryDelayMs() {
+        return syncRetryDelayMs;
+    }
+
+    public void setSyncRetryDelayMs(int syncRetryDelayMs) {
+        this.syncRetryDelayMs = Math.max(0, syncRetryDelayMs);
+    }
 }
@@ -21,8 +21,31 @@ public final class LreWorkspaceSyncRunnerConfig {
         boolean runtimeOnly = json.optBoolean("lre_runtime_only", false);
         boolean lreEnableStacktrace = json.optBoolean("lre_enable_stacktrace", false);
         String description = json.optString("lre_description", "");
+        int syncParallelism = json.optInt("lre_sync_parallelism", 1);
+        String syncCacheDir = json.optString("lre_sync_cache_dir", "");
+        boolean forceFullSync = json.optBoolean("lre_force_full_sync", false);
+        int syncCompressionThreads = json.optInt("lre_sync_compression_threads", 0);
+        int syncZipBudgetMb = json.optInt("lre_sync_zip_budget_mb", 1024);
+        int syncScanThreads = json.optInt("lre_sync_scan_threads", 0);
+        String syncStagingDir = json.optString("lre_sync_staging_dir", "");
+        int syncZipCacheMb = json.optInt("lre_sync_zip_cache_mb", 0);
+        int syncCompressionLevel = json.optInt("lre_sync_compression_level", 6);
+        String syncStoredExtensions = json.optString("lre_sync_stored_extensions", "");
+        int syncZipThreads = json.optInt("lre_sync_zip_threads", 0);
+        int syncParallelZipMinMb = json.optInt("lre_sync_parallel_zip_min_mb", 64);
+        boolean syncDeterministicZip = json.optBoolean("lre_sync_deterministic_zip", false);
+        String syncExclude = json.optString("lre_sync_exclude", "");
+        boolean syncScanCache = json.optBoolean("lre_sync_scan_cache", true);
+        String syncChangedFiles = json.optString("lre_sync_changed_files", "");
+        String syncGitDiffBase = json.optString("lre_sync_git_diff_base", "");
+        boolean syncReconcile = json.optBoolean("lre_sync_reconcile", false);
+        int syncMinParallelism = json.optInt("lre_sync_min_parallelism", 1);
+        int syncMaxParallelism = json.optInt("lre_sync_max_parallelism", 0);
+        boolean syncResume = json.optBoolean("lre_sync_resume", false);
+        int syncUploadRetries = json.optInt("lre_sync_upload_retries", 3);
+        int syncRetryDelayMs = json.optInt("lre_sync_retry_delay_ms", 2000);
 
-        return new LreWorkspaceSyncModel(
+        LreWorkspaceSyncModel model = new LreWorkspaceSyncModel(
                 server,
                 https,
                 username,
@@ -37,6 +60,30 @@ public final class LreWorkspaceSyncRunnerConfig {
                 authenticateWithToken,
                 lreEnableStacktrace,
                 description);
+        model.setSyncParallelism(syncParallelism);
+        model.setSyncCacheDir(syncCacheDir);
+        model.setForceFullSync(forceFullSync);
+        model.setSyncCompressionThreads(syncCompressionThreads);
+        model.setSyncZipBudgetMb(syncZipBudgetMb);
+        model.setSyncScanThreads(syncScanThreads);
+        model.setSyncStagingDir(syncStagingDir);
+        model.setSyncZipCacheMb(syncZipCacheMb);
+        model.setSyncCompressionLevel(syncCompressionLevel);
+        model.setSyncStoredExtensions(syncStoredExtensions);
+        model.setSyncZipThreads(syncZipThreads);
+        model.setSyncParallelZipMinMb(syncParallelZipMinMb);
+        model.setSyncDeterministicZip(syncDeterministicZip);
+        model.setSyncExclude(syncExclude);
+        model.setSyncScanCache(syncScanCache);
+        model.setSyncChangedFiles(syncChangedFiles);
+        model.setSyncGitDiffBase(syncGitDiffBase);
+        model.setSyncReconcile(syncReconcile);
+        model.setSyncMinParallelism(syncMinParallelism);
+        model.setSyncMaxParallelism(syncMaxParallelism);
+        model.setSyncResume(syncResume);
+        model.setSyncUploadRetries(syncUploadRetries);
+        model.setSyncRetryDelayMs(syncRetryDelayMs);
+        return model;
     }
 
     private static String requireString(JSONObject json, String key) {
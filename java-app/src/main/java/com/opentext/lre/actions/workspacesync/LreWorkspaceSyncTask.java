@@ -10,22 +10,51 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public final class LreWorkspaceSyncTask {
+    private static final String ZIP_CACHE_DIRECTORY = "lre-zip-cache";
+    private static final String REPORT_SUFFIX = "_report.json";
+
     private final LreWorkspaceSyncModel model;
     private final WorkspaceScriptFolderScanner scanner;
-    private final ZipFolderCompressor compressor;
+    private final UploadRetryPolicy retryPolicy;
+    private final AtomicInteger uploadRetries = new AtomicInteger();
+    private final SyncReport report = new SyncReport();
+    private ScriptFolderHasher hasher;
+    private SyncIgnoreRules ignoreRules = SyncIgnoreRules.none();
+    private SyncManifest manifest;
+    private SyncJournal journal;
+    private ManifestSnapshot snapshot;
+    private SubjectFolders subjectFolders;
 
     public LreWorkspaceSyncTask(LreWorkspaceSyncModel model) {
         this.model = model;
-        this.scanner = new WorkspaceScriptFolderScanner();
-        this.compressor = new ZipFolderCompressor();
+        this.scanner = new WorkspaceScriptFolderScanner(model.getSyncScanThreads());
+        this.retryPolicy = new UploadRetryPolicy(model.getSyncUploadRetries(), model.getSyncRetryDelayMs());
         // Set the static flag for stack trace output based on configuration
         LreTestRunHelper.ENABLE_STACKTRACE = model.isEnableStacktrace();
     }
 
     public Result execute() {
+        Result result = null;
+        try {
+            result = sync();
+            return result;
+        } finally {
+            writeReport(result);
+        }
+    }
+
+    private Result sync() {
         PcRestProxy restProxy = createRestProxy();
         if (restProxy == null) {
             return Result.FAILURE;
@@ -41,18 +70,41 @@ public final class LreWorkspaceSyncTask {
 
             // Convert workspace String to Path for file operations
             Path workspacePath = Paths.get(model.getWorkspace()).toAbsolutePath();
-            List<ScriptFolder> scriptFolders = scanner.findScriptFolders(workspacePath);
-            if (scriptFolders.isEmpty()) {
-                LogHelper.log("No script folders found in workspace.", true);
-                return Result.SUCCESS;
+            ignoreRules = SyncIgnoreRules.load(workspacePath, model.getSyncExclude())
+                    .withRuntimeOnly(model.isRuntimeOnly());
+            if (!ignoreRules.isEmpty()) {
+                LogHelper.log("Excluding files and folders matching %d rule(s) of %s and of the configuration.", true,
+                        ignoreRules.size(), SyncIgnoreRules.FILE_NAME);
+            }
+            if (model.isRuntimeOnly()) {
+                LogHelper.log("Runtime only: results, snapshots, logs and backups of the scripts are not zipped.", true);
+            }
+            hasher = new ScriptFolderHasher(ignoreRules);
+            manifest = SyncManifest.load(model.getSyncCacheDirectory());
+            snapshot = ManifestSnapshot.fromManifest(manifest, resumeInterruptedSync());
+            subjectFolders = SubjectFolders.fromSnapshot(snapshot);
+            if (model.isForceFullSync()) {
+                LogHelper.log("Full sync forced: the manifest %s is not used to skip scripts.", true, manifest.getFile());
             }
 
-            return processScriptFolderUploads(restProxy, scriptFolders);
+            List<String> changedPaths = readChangedPaths(workspacePath);
+            ScanCache scanCache = changedPaths == null ? openScanCache(workspacePath) : null;
+            try (ZipStagingArea stagingArea = ZipStagingArea.create(model.getSyncStagingDirectory());
+                 ZipFolderCompressor compressor = createCompressor(stagingArea);
+                 ScriptFolderScan scan = changedPaths == null
+                         ? scanner.scan(workspacePath, ignoreRules, scanCache)
+                         : scanner.scanChanged(workspacePath, changedPaths, ignoreRules)) {
+                LogHelper.log("Staging zipped scripts in %s", true, stagingArea.getDirectory());
+                Result result = processScriptFolderUploads(restProxy, scan, compressor);
+                saveScanCache(scanCache, scan);
+                return result;
+            }
         } catch (PcException | IOException e) {
             LogHelper.log("Workspace sync failed: %s", true, e.getMessage());
             LogHelper.logStackTrace(e);
             return Result.FAILURE;
         } finally {
+            saveManifest();
             if (loggedIn) {
                 try {
                     restProxy.logout();
@@ -63,41 +115,309 @@ public final class LreWorkspaceSyncTask {
         }
     }
 
-    private Result processScriptFolderUploads(PcRestProxy restProxy, List<ScriptFolder> scriptFolders) {
-        final int MAX_CONSECUTIVE_FAILURES = 5;
-        final int totalScripts = scriptFolders.size();
+    /**
+     * Writes the performance report of the sync next to its log file, or in the logs folder of the workspace.
+     */
+    private void writeReport(Result result) {
+        String logFile = System.getProperty("log.file");
+        Path file;
+        if (logFile != null && !logFile.isEmpty()) {
+            Path log = Paths.get(logFile).toAbsolutePath();
+            String name = log.getFileName().toString().replaceFirst("\\.log$", "");
+            file = log.resolveSibling(name + REPORT_SUFFIX);
+        } else {
+            file = Paths.get(model.getWorkspace()).toAbsolutePath().resolve("logs")
+                    .resolve("lre_workspace_sync" + REPORT_SUFFIX);
+        }
+        try {
+            report.write(file, result);
+            LogHelper.log("Sync report: %s", true, file);
+        } catch (IOException e) {
+            LogHelper.log("Failed to write sync report %s: %s", true, file, e.getMessage());
+        }
+    }
 
-        int consecutiveFailures = 0;
-        int totalFailures = 0;
-        int currentIndex = 0;
+    /**
+     * Reads the journal of an interrupted sync. When resuming, its uploads are put back into the manifest so that
+     * they are not uploaded again; otherwise the journal is discarded.
+     *
+     * @return the scripts uploaded by the interrupted sync being resumed
+     */
+    private Set<String> resumeInterruptedSync() throws IOException {
+        journal = SyncJournal.open(model.getSyncCacheDirectory());
+        Map<String, SyncManifest.Entry> uploaded = journal.read();
+        if (uploaded.isEmpty()) {
+            return Collections.emptySet();
+        }
+        if (!model.isSyncResume()) {
+            LogHelper.log("Journal %s of an interrupted sync ignored: %d script(s) it uploaded are synced again.", true,
+                    journal.getFile(), uploaded.size());
+            journal.delete();
+            return Collections.emptySet();
+        }
+        uploaded.forEach(manifest::restore);
+        LogHelper.log("Resuming an interrupted sync: %d script(s) uploaded before, recorded in %s, are skipped.", true,
+                uploaded.size(), journal.getFile());
+        return uploaded.keySet();
+    }
 
-        LogHelper.log("Found %d script(s) to upload.", true, totalScripts);
+    /**
+     * Logs the Subject folders of the plan not known from previous syncs: the first upload into each of them runs
+     * alone, as it may create it.
+     */
+    private void reportMissingFolders(SyncPlan plan) {
+        List<String> missing = subjectFolders.missingFolders(plan.getSubjectPaths());
+        if (missing.isEmpty()) {
+            return;
+        }
+        LogHelper.log("%d Subject folder(s) not known from previous syncs, created if missing by the first script "
+                + "uploaded into each:", true, missing.size());
+        for (int i = 0; i < missing.size() && i < SyncPlan.MAX_LISTED_SCRIPTS; i++) {
+            LogHelper.log("  %s", true, missing.get(i));
+        }
+        if (missing.size() > SyncPlan.MAX_LISTED_SCRIPTS) {
+            LogHelper.log("  ... and %d more.", true, missing.size() - SyncPlan.MAX_LISTED_SCRIPTS);
+        }
+    }
 
-        for (ScriptFolder folder : scriptFolders) {
-            currentIndex++;
-            LogHelper.log("Script #%d out of %d", true, currentIndex, totalScripts);
+    /**
+     * Hashes a script folder and schedules its upload when its content differs from the manifest of previous syncs,
+     * or always when a full sync is forced.
+     */
+    private ScriptSyncItem planUpload(ScriptFolder folder) throws IOException {
+        ScriptSyncItem item = ScriptSyncItem.hashed(folder, hasher.digest(folder));
+        if ((!model.isForceFullSync() || snapshot.isResumed(item.getManifestKey()))
+                && snapshot.isUpToDate(item.getManifestKey(), item.getContentHash())) {
+            return null;
+        }
+        return item;
+    }
 
-            Result uploadResult = uploadFolder(restProxy, folder);
+    /**
+     * @return the changed paths whose script folders are synced, or null to scan the whole workspace
+     */
+    private List<String> readChangedPaths(Path workspacePath) {
+        if (model.getSyncChangedFiles().isEmpty() && model.getSyncGitDiffBase().isEmpty()) {
+            return null;
+        }
+        if (model.isForceFullSync()) {
+            LogHelper.log("Full sync forced: the whole workspace is scanned, not only the changed files.", true);
+            return null;
+        }
+        Set<String> changedPaths = new LinkedHashSet<>();
+        try {
+            if (!model.getSyncChangedFiles().isEmpty()) {
+                Path listFile = workspacePath.resolve(model.getSyncChangedFiles());
+                changedPaths.addAll(ChangedPaths.readList(workspacePath, listFile));
+            }
+            if (!model.getSyncGitDiffBase().isEmpty()) {
+                changedPaths.addAll(ChangedPaths.fromGitDiff(workspacePath, model.getSyncGitDiffBase()));
+            }
+        } catch (IOException e) {
+            LogHelper.log("Changed files cannot be listed, the whole workspace is scanned: %s", true, e.getMessage());
+            LogHelper.logStackTrace(e);
+            return null;
+        }
+        LogHelper.log("Syncing only the script folders of %d changed path(s).", true, changedPaths.size());
+        return new ArrayList<>(changedPaths);
+    }
 
-            if (uploadResult == Result.FAILURE) {
-                totalFailures++;
-                consecutiveFailures++;
+    /**
+     * @return the cache of the previous workspace scan, or null when it is disabled. A forced full sync reads
+     * every folder again.
+     */
+    private ScanCache openScanCache(Path workspacePath) throws IOException {
+        if (!model.isSyncScanCache()) {
+            return null;
+        }
+        if (model.isForceFullSync()) {
+            return ScanCache.create(model.getSyncCacheDirectory(), workspacePath, ignoreRules);
+        }
+        ScanCache scanCache = ScanCache.load(model.getSyncCacheDirectory(), workspacePath, ignoreRules);
+        if (scanCache.size() == 0) {
+            LogHelper.log("No usable scan cache in %s: the whole workspace is scanned.", true, scanCache.getFile());
+        }
+        return scanCache;
+    }
 
-                if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
-                    LogHelper.log("Upload process terminated: %d consecutive failures detected. %d out of %d scripts uploaded successfully.",
-                            true, MAX_CONSECUTIVE_FAILURES, currentIndex - totalFailures, totalScripts);
-                    return Result.FAILURE;
-                }
-            } else {
-                consecutiveFailures = 0;
+    private void saveScanCache(ScanCache scanCache, ScriptFolderScan scan) {
+        if (scanCache == null || !scan.isComplete()) {
+            return;
+        }
+        if (scanCache.getHits() > 0) {
+            LogHelper.log("Scan cache: %d of %d folder(s) unchanged since the last scan were not read again.", true,
+                    scanCache.getHits(), scan.getFoldersVisited());
+        }
+        try {
+            scanCache.save();
+        } catch (IOException e) {
+            LogHelper.log("Failed to save the scan cache %s: %s", true, scanCache.getFile(), e.getMessage());
+            LogHelper.logStackTrace(e);
+        }
+    }
+
+    private ZipFolderCompressor createCompressor(ZipStagingArea stagingArea) {
+        CompressionPolicy compressionPolicy = CompressionPolicy.of(model.getSyncCompressionLevel(),
+                model.getSyncStoredExtensions(), model.isSyncDeterministicZip());
+        int zipThreads = model.getSyncZipThreads() > 0
+                ? model.getSyncZipThreads()
+                : Runtime.getRuntime().availableProcessors();
+        return new ZipFolderCompressor(stagingArea, compressionPolicy, zipThreads,
+                model.getSyncParallelZipMinMb() * 1024L * 1024L, ignoreRules);
+    }
+
+    private void logCompressionStats(CompressionStats stats) {
+        if (stats.getStoredFiles() == 0) {
+            return;
+        }
+        LogHelper.log("Compression: %d file(s) deflated, %d file(s) (%d MB) stored without compression, "
+                        + "about %d ms of CPU time saved.", true,
+                stats.getDeflatedFiles(), stats.getStoredFiles(), stats.getStoredBytes() / (1024 * 1024),
+                stats.getEstimatedSavedCpuMillis());
+    }
+
+    /**
+     * @return the zip cache of the staging directory, or null when it is disabled or cannot be opened
+     */
+    private ZipCache openZipCache() {
+        if (model.getSyncZipCacheMb() == 0) {
+            return null;
+        }
+        Path cacheDirectory = model.getSyncStagingDirectory().resolve(ZIP_CACHE_DIRECTORY);
+        try {
+            ZipCache zipCache = ZipCache.open(cacheDirectory, model.getSyncZipCacheMb() * 1024L * 1024L);
+            LogHelper.log("Using zip cache %s (%d MB used out of %d MB).", true,
+                    cacheDirectory, zipCache.getSize() / (1024 * 1024), model.getSyncZipCacheMb());
+            return zipCache;
+        } catch (IOException e) {
+            LogHelper.log("Zip cache %s cannot be used: %s", true, cacheDirectory, e.getMessage());
+            LogHelper.logStackTrace(e);
+            return null;
+        }
+    }
+
+    private void recordInJournal(String key, String workerLabel) {
+        try {
+            journal.append(key, manifest.get(key));
+        } catch (IOException e) {
+            LogHelper.log("%sFailed to record the upload of %s in the sync journal %s: %s", true, workerLabel, key,
+                    journal.getFile(), e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the manifest, then deletes the journal of the uploads it now holds.
+     */
+    private void saveManifest() {
+        if (manifest == null) {
+            return;
+        }
+        try {
+            manifest.save();
+        } catch (IOException e) {
+            LogHelper.log("Failed to save sync manifest %s: %s", true, manifest.getFile(), e.getMessage());
+            LogHelper.logStackTrace(e);
+            return;
+        }
+        try {
+            journal.delete();
+        } catch (IOException e) {
+            LogHelper.log("Failed to delete sync journal %s: %s", true, journal.getFile(), e.getMessage());
+        }
+    }
+
+    private Result processScriptFolderUploads(PcRestProxy restProxy, ScriptFolderScan scan, ZipFolderCompressor compressor)
+            throws IOException {
+        UploadProgressTracker tracker = new UploadProgressTracker();
+
+        AdaptiveConcurrencyLimit concurrencyLimit = new AdaptiveConcurrencyLimit(model.getSyncParallelism(),
+                model.getSyncMinParallelism(), model.getSyncMaxParallelism());
+        int workers = concurrencyLimit.getMax();
+        int compressionThreads = model.getSyncCompressionThreads() > 0
+                ? model.getSyncCompressionThreads()
+                : Math.min(Runtime.getRuntime().availableProcessors(), workers);
+        LogHelper.log("Scanning workspace: compressing with %d thread(s), temporary zips limited to %d MB.", true,
+                compressionThreads, model.getSyncZipBudgetMb());
+
+        List<PcRestProxy> workerSessions = new CopyOnWriteArrayList<>();
+        ScriptUploadPipeline pipeline;
+        ZipCache zipCache = null;
+        long pipelineStart = System.currentTimeMillis();
+        try {
+            Iterator<ScriptFolder> folders = scan;
+            ScriptUploadPipeline.ScriptPlanner planner = this::planUpload;
+            if (model.isSyncReconcile()) {
+                LogHelper.log("Comparing the workspace with %d script(s) of the sync manifest.", true,
+                        snapshot.size());
+                SyncPlan plan = SyncPlan.build(scan, hasher, snapshot, model.isForceFullSync(), compressionThreads);
+                plan.report();
+                report.setPlanMillis(plan.getPlanningMillis());
+                reportMissingFolders(plan);
+                folders = plan.folders();
+                planner = plan::toUpload;
             }
+            pipeline = new ScriptUploadPipeline(compressor, planner, this::uploadScript, tracker,
+                    compressionThreads, model.getSyncZipBudgetMb() * 1024L * 1024L);
+            zipCache = openZipCache();
+            pipeline.setZipCache(zipCache);
+            pipeline.setConcurrencyLimit(concurrencyLimit);
+            pipeline.setReport(report);
+            pipelineStart = System.currentTimeMillis();
+            pipeline.run(folders, restProxy, workers, workerNumber -> {
+                PcRestProxy session = openWorkerSession(workerNumber);
+                if (session != null) {
+                    workerSessions.add(session);
+                }
+                return session;
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LogHelper.log("Upload process interrupted.", true);
+            return Result.ABORTED;
+        } finally {
+            closeWorkerSessions(workerSessions);
         }
 
-        // Determine final result based on failure rate
-        int successfulUploads = totalScripts - totalFailures;
-        double successRate = (double) successfulUploads / totalScripts;
+        logCompressionStats(compressor.getStats());
+        if (zipCache != null && zipCache.getHits() + zipCache.getMisses() > 0) {
+            LogHelper.log("Zip cache: %d script(s) not compressed again, %d compressed, cache size %d MB.", true,
+                    zipCache.getHits(), zipCache.getMisses(), zipCache.getSize() / (1024 * 1024));
+        }
+        int scriptsFound = pipeline.getScriptsFound();
+        report.setPipeline(System.currentTimeMillis() - pipelineStart, scriptsFound, pipeline.getScriptsUpToDate(),
+                scan.getFoldersVisited());
+        report.setScanMillis(scan.getDurationMillis());
+        report.setRetries(uploadRetries.get());
+        LogHelper.log("Workspace scan: %d script folder(s) found in %d folder(s), %d ms.", true,
+                scriptsFound, scan.getFoldersVisited(), scan.getDurationMillis());
+        if (scriptsFound == 0) {
+            LogHelper.log("No script folders found in workspace.", true);
+            return Result.SUCCESS;
+        }
+        if (!model.isForceFullSync()) {
+            LogHelper.log("Manifest %s: %d script(s) unchanged since last sync, %d to upload.", true,
+                    manifest.getFile(), pipeline.getScriptsUpToDate(), tracker.getTotalScripts());
+        }
+        final int totalScripts = tracker.getTotalScripts();
+        if (totalScripts == 0) {
+            LogHelper.log("All %d script(s) are up to date.", true, scriptsFound);
+            return Result.SUCCESS;
+        }
 
-        if (successRate >= 0.5) {
+        if (uploadRetries.get() > 0) {
+            LogHelper.log("%d upload attempt(s) failed with a transient error and were retried.", true,
+                    uploadRetries.get());
+        }
+
+        if (tracker.isAborted()) {
+            LogHelper.log("Upload process terminated: %d consecutive failures detected. %d out of %d scripts uploaded successfully.",
+                    true, UploadProgressTracker.MAX_CONSECUTIVE_FAILURES, tracker.getSuccessfulUploads(), totalScripts);
+            return Result.FAILURE;
+        }
+
+        // Determine final result based on failure rate
+        int successfulUploads = tracker.getSuccessfulUploads();
+        if (tracker.isSuccessRateReached()) {
             LogHelper.log("Upload process completed: %d out of %d scripts uploaded successfully.",
                     true, successfulUploads, totalScripts);
             return Result.SUCCESS;
@@ -108,35 +428,125 @@ public final class LreWorkspaceSyncTask {
         }
     }
 
-    private Result uploadFolder(PcRestProxy restProxy, ScriptFolder folder) {
-        Path zipPath = null;
+    /**
+     * Opens the session of an additional upload worker, the first worker using the already authenticated session.
+     *
+     * @return the session, or null when the worker cannot log in
+     */
+    private PcRestProxy openWorkerSession(int workerNumber) {
+        PcRestProxy session = createRestProxy();
+        if (session == null) {
+            return null;
+        }
         try {
-            zipPath = compressor.compressFolder(folder);
-            String subjectPath = LreSubjectPathBuilder.toSubjectPath(folder.getRelativePath());
-            String scriptName = folder.getFullPath().getFileName() == null
-                    ? folder.getRelativePath().toString()
-                    : folder.getFullPath().getFileName().toString();
-            LogHelper.log("Starting uploading script %s to path %s", true, scriptName, subjectPath);
-            int scriptId = restProxy.uploadScript(subjectPath, true, model.isRuntimeOnly(), true, zipPath.toString());
-            if (scriptId == 0) {
-                LogHelper.log("Failed to upload script folder: %s to path %s", true, folder.getRelativePath(), subjectPath);
-                return Result.FAILURE;
+            if (session.authenticate(model.getUsername(), model.getPassword())) {
+                return session;
             }
-            LogHelper.log("Script %s was successfully uploaded to path %s with ID = %d", true, scriptName, subjectPath, scriptId);
-            return Result.SUCCESS;
-        } catch (Exception e) {
-            LogHelper.log("Upload failed for %s: %s", true, folder.getRelativePath(), e.getMessage());
+            LogHelper.log("Login failed for upload worker %d.", true, workerNumber);
+        } catch (PcException | IOException e) {
+            LogHelper.log("Login failed for upload worker %d: %s", true, workerNumber, e.getMessage());
             LogHelper.logStackTrace(e);
-            return Result.FAILURE;
-        } finally {
-            if (zipPath != null) {
-                try {
-                    Files.deleteIfExists(zipPath);
-                } catch (IOException e) {
-                    LogHelper.log("Failed to delete temp zip: %s", true, zipPath);
+        }
+        return null;
+    }
+
+    private void closeWorkerSessions(List<PcRestProxy> sessions) {
+        // the session of the first worker belongs to execute() which logs it out
+        for (PcRestProxy session : sessions) {
+            try {
+                session.logout();
+            } catch (Exception e) {
+                LogHelper.log("Worker logout failed: %s", true, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Uploads a zipped script, retrying it on transient errors. Only the outcome of the last attempt is returned,
+     * so that the failure rules of the sync do not count the attempts that were retried, while each attempt that
+     * found the server overloaded is reported to the concurrency limit.
+     */
+    private Result uploadScript(PcRestProxy restProxy, CompressedScript script, String workerLabel,
+                                Runnable overloaded) {
+        ScriptSyncItem item = script.getItem();
+        ScriptFolder folder = item.getFolder();
+        String subjectPath = item.getSubjectPath();
+        String scriptName = item.getScriptName();
+        long start = System.currentTimeMillis();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                LogHelper.log("%sStarting uploading script %s to path %s%s", true, workerLabel, scriptName, subjectPath,
+                        attempt > 1 ? String.format(" (attempt %d)", attempt) : "");
+                long uploadStart = System.currentTimeMillis();
+                int scriptId = subjectFolders.upload(subjectPath, () -> restProxy.uploadScript(
+                        subjectPath, true, model.isRuntimeOnly(), true, script.getZipPath().toString()));
+                if (scriptId == 0) {
+                    overloaded.run();
+                    LogHelper.log("%sFailed to upload script folder: %s to path %s", true, workerLabel, folder.getRelativePath(), subjectPath);
+                    return recordUpload(item, Result.FAILURE, attempt, start, "no script ID returned");
+                }
+                LogHelper.log("%sScript %s was successfully uploaded to path %s with ID = %d (%d KB in %d ms)", true,
+                        workerLabel, scriptName, subjectPath, scriptId, (Files.size(script.getZipPath()) + 1023) / 1024,
+                        System.currentTimeMillis() - uploadStart);
+                if (item.getContentHash() != null) {
+                    manifest.update(item.getManifestKey(), item.getContentHash(), scriptId);
+                    recordInJournal(item.getManifestKey(), workerLabel);
+                }
+                return recordUpload(item, Result.SUCCESS, attempt, start, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LogHelper.log("%sUpload of %s interrupted.", true, workerLabel, folder.getRelativePath());
+                return recordUpload(item, Result.FAILURE, attempt, start, "interrupted");
+            } catch (Exception e) {
+                UploadRetryPolicy.Failure failure = UploadRetryPolicy.classify(e);
+                if (UploadRetryPolicy.isOverload(e)) {
+                    // each attempt, retried or not, so that the retries back off at a lower concurrency
+                    overloaded.run();
                 }
+                if (failure == UploadRetryPolicy.Failure.PERMANENT || attempt > retryPolicy.getMaxRetries()) {
+                    LogHelper.log("%sUpload failed for %s: %s", true, workerLabel, folder.getRelativePath(), e.getMessage());
+                    LogHelper.logStackTrace(e);
+                    return recordUpload(item, Result.FAILURE, attempt, start, e.getMessage());
+                }
+                if (!awaitRetry(restProxy, failure, attempt, item.getManifestKey(), e, workerLabel)) {
+                    return recordUpload(item, Result.FAILURE, attempt, start, "interrupted");
+                }
+            }
+        }
+    }
+
+    private Result recordUpload(ScriptSyncItem item, Result result, int attempts, long start, String error) {
+        report.uploaded(item, result, attempts, System.currentTimeMillis() - start, error);
+        return result;
+    }
+
+    /**
+     * Waits before retrying an upload, after logging in again when the session expired.
+     *
+     * @return false when interrupted
+     */
+    private boolean awaitRetry(PcRestProxy restProxy, UploadRetryPolicy.Failure failure, int attempt,
+                               String scriptKey, Exception error, String workerLabel) {
+        long delay = retryPolicy.delayMillis(attempt);
+        uploadRetries.incrementAndGet();
+        LogHelper.log("%sUpload of %s failed with a transient error, retry %d of %d in %d ms: %s", true, workerLabel,
+                scriptKey, attempt, retryPolicy.getMaxRetries(), delay, error.getMessage());
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LogHelper.log("%sUpload of %s interrupted.", true, workerLabel, scriptKey);
+            return false;
+        }
+        if (failure == UploadRetryPolicy.Failure.SESSION_EXPIRED) {
+            try {
+                boolean loggedIn = restProxy.authenticate(model.getUsername(), model.getPassword());
+                LogHelper.log("%sSession expired: %s", true, workerLabel, loggedIn ? "logged in again" : "login failed");
+            } catch (Exception e) {
+                LogHelper.log("%sSession expired, login failed: %s", true, workerLabel, e.getMessage());
             }
         }
+        return true;
     }
 
     private PcRestProxy createRestProxy() {
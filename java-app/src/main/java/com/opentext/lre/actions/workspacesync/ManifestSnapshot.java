@@ -0,0 +1,64 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A snapshot of the local sync manifest: script ID, uploaded content hash and upload time of the scripts uploaded
+ * by previous syncs of this workspace, by Subject path and script name. It is read once and kept in memory, so that
+ * comparing the workspace with it needs no lock on the manifest being updated by the uploads.
+ * <p>
+ * Nothing is read from LRE: the scripts deleted or edited in LRE, or uploaded from another agent, are not seen.
+ */
+final class ManifestSnapshot {
+    private final Map<String, SyncManifest.Entry> scripts;
+    private final Set<String> resumed;
+
+    private ManifestSnapshot(Map<String, SyncManifest.Entry> scripts, Set<String> resumed) {
+        this.scripts = Collections.unmodifiableMap(scripts);
+        this.resumed = Set.copyOf(resumed);
+    }
+
+    static ManifestSnapshot fromManifest(SyncManifest manifest) {
+        return fromManifest(manifest, Collections.emptySet());
+    }
+
+    /**
+     * @param resumed scripts uploaded by the interrupted sync being resumed, not uploaded again by a full sync
+     */
+    static ManifestSnapshot fromManifest(SyncManifest manifest, Set<String> resumed) {
+        return new ManifestSnapshot(manifest.snapshot(), resumed);
+    }
+
+    /**
+     * @return the Subject path and script name of every script in the manifest
+     */
+    Set<String> keys() {
+        return scripts.keySet();
+    }
+
+    int size() {
+        return scripts.size();
+    }
+
+    /**
+     * @return the script uploaded under this Subject path and script name, or null
+     */
+    SyncManifest.Entry get(String key) {
+        SyncManifest.Entry entry = scripts.get(key);
+        return entry != null && entry.getScriptId() > 0 ? entry : null;
+    }
+
+    /**
+     * @return whether the script was uploaded by the interrupted sync being resumed
+     */
+    boolean isResumed(String key) {
+        return resumed.contains(key);
+    }
+
+    boolean isUpToDate(String key, String contentHash) {
+        SyncManifest.Entry entry = get(key);
+        return entry != null && entry.getHash().equals(contentHash);
+    }
+}
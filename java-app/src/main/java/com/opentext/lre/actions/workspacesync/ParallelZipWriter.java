@@ -0,0 +1,318 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Zip writer deflating on several threads, the way pigz does: files are cut into blocks deflated independently,
+ * each block primed with the last 32 KB of the previous one and ended with a sync flush, so that the blocks of a
+ * file concatenate into a single deflate stream. Blocks are written in order as soon as they are ready, while
+ * the following ones are being deflated.
+ * <p>
+ * The archive has the layout {@link java.util.zip.ZipOutputStream} produces: deflated entries are followed by
+ * a data descriptor, stored entries carry their sizes and CRC in their local header. ZIP64 is not supported:
+ * the caller must keep archives under 4 GB and 65535 entries.
+ */
+final class ParallelZipWriter {
+    static final int BLOCK_SIZE = 1024 * 1024;
+    static final long MAX_ARCHIVE_SIZE = 0xFFFF_FFFFL;
+    static final int MAX_ENTRIES = 0xFFFF;
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+    private static final int FLAG_UTF8 = 0x800;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int VERSION_STORED = 10;
+    private static final int VERSION_DEFLATED = 20;
+
+    @FunctionalInterface
+    private interface PendingWrite {
+        void write() throws IOException, InterruptedException, ExecutionException;
+    }
+
+    private static final class Entry {
+        private final byte[] name;
+        private final int method;
+        private final int flags;
+        private long crc;
+        private long size;
+        private long compressedSize;
+        private long offset;
+
+        private Entry(String name, int method) {
+            this.name = name.getBytes(StandardCharsets.UTF_8);
+            this.method = method;
+            this.flags = FLAG_UTF8 | (method == METHOD_DEFLATED ? FLAG_DATA_DESCRIPTOR : 0);
+        }
+
+        private int version() {
+            return method == METHOD_DEFLATED ? VERSION_DEFLATED : VERSION_STORED;
+        }
+    }
+
+    private final OutputStream out;
+    private final ExecutorService pool;
+    private final int level;
+    private final int maxPendingWrites;
+    private final CompressionStats stats;
+    private final Deque<PendingWrite> pending = new ArrayDeque<>();
+    // blocks submitted and not written yet
+    private final List<Future<byte[]>> blocks = new ArrayList<>();
+    private final List<Entry> entries = new ArrayList<>();
+    private final int dosTime;
+    private final int dosDate;
+    private long written;
+
+    /**
+     * @param threads   number of threads of the pool, bounding the number of blocks held in memory
+     * @param entryTime modification time of all the entries
+     */
+    ParallelZipWriter(OutputStream out, ExecutorService pool, int threads, int level, LocalDateTime entryTime,
+                      CompressionStats stats) {
+        this.out = out;
+        this.pool = pool;
+        this.level = level;
+        this.maxPendingWrites = Math.max(2, threads * 2);
+        this.stats = stats;
+        LocalDateTime time = entryTime.getYear() < 1980 ? LocalDateTime.of(1980, 1, 1, 0, 0) : entryTime;
+        this.dosTime = (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() / 2);
+        this.dosDate = ((time.getYear() - 1980) << 9) | (time.getMonthValue() << 5) | time.getDayOfMonth();
+    }
+
+    void putDirectory(String name) throws IOException {
+        Entry entry = new Entry(name, METHOD_STORED);
+        enqueue(() -> writeLocalHeader(entry));
+    }
+
+    /**
+     * Stores a file without compression.
+     *
+     * @param crc CRC-32 of the file content, which the local header needs before the content
+     */
+    void putStored(String name, Path file, long size, long crc) throws IOException {
+        Entry entry = new Entry(name, METHOD_STORED);
+        entry.size = size;
+        entry.compressedSize = size;
+        entry.crc = crc;
+        enqueue(() -> {
+            writeLocalHeader(entry);
+            long copied;
+            try (InputStream in = Files.newInputStream(file)) {
+                copied = in.transferTo(out);
+            }
+            if (copied != size) {
+                throw new IOException("File changed while being zipped: " + file);
+            }
+            written += copied;
+        });
+    }
+
+    /**
+     * Deflates a file, its blocks being compressed on the pool.
+     */
+    void putDeflated(String name, Path file) throws IOException {
+        Entry entry = new Entry(name, METHOD_DEFLATED);
+        enqueue(() -> writeLocalHeader(entry));
+
+        CRC32 crc = new CRC32();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] block = in.readNBytes(BLOCK_SIZE);
+            byte[] dictionary = null;
+            while (true) {
+                byte[] next = block.length < BLOCK_SIZE ? new byte[0] : in.readNBytes(BLOCK_SIZE);
+                boolean last = next.length == 0;
+                crc.update(block);
+                entry.size += block.length;
+                Future<byte[]> deflated = submitBlock(block, dictionary, last);
+                enqueue(() -> {
+                    byte[] data = deflated.get();
+                    blocks.remove(deflated);
+                    out.write(data);
+                    written += data.length;
+                    entry.compressedSize += data.length;
+                });
+                if (last) {
+                    break;
+                }
+                dictionary = block.length > DICTIONARY_SIZE
+                        ? Arrays.copyOfRange(block, block.length - DICTIONARY_SIZE, block.length)
+                        : block;
+                block = next;
+            }
+        }
+        entry.crc = crc.getValue();
+        enqueue(() -> writeDataDescriptor(entry));
+    }
+
+    /**
+     * Writes the pending entries and the central directory. The output stream is left open.
+     */
+    void finish() throws IOException {
+        while (!pending.isEmpty()) {
+            writeNext();
+        }
+        long centralDirectoryOffset = written;
+        for (Entry entry : entries) {
+            writeCentralHeader(entry);
+        }
+        long centralDirectorySize = written - centralDirectoryOffset;
+        writeInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        writeShort(0);
+        writeShort(0);
+        writeShort(entries.size());
+        writeShort(entries.size());
+        writeInt(centralDirectorySize);
+        writeInt(centralDirectoryOffset);
+        writeShort(0);
+        out.flush();
+    }
+
+    /**
+     * Cancels the blocks still being deflated, after a failure.
+     */
+    void abort() {
+        for (Future<byte[]> block : blocks) {
+            block.cancel(true);
+        }
+        pending.clear();
+    }
+
+    private Future<byte[]> submitBlock(byte[] block, byte[] dictionary, boolean last) {
+        Future<byte[]> future = pool.submit(() -> deflateBlock(block, dictionary, last));
+        blocks.add(future);
+        return future;
+    }
+
+    private byte[] deflateBlock(byte[] block, byte[] dictionary, boolean last) {
+        long start = CompressionStats.cpuTimeNanos();
+        Deflater deflater = new Deflater(level, true);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(block.length / 2 + 64);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            if (dictionary != null) {
+                deflater.setDictionary(dictionary);
+            }
+            deflater.setInput(block);
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, length);
+                }
+            } else {
+                int length;
+                do {
+                    length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, length);
+                } while (length == buffer.length);
+            }
+        } finally {
+            deflater.end();
+        }
+        stats.recordDeflateTime(block.length, CompressionStats.cpuTimeNanos() - start);
+        return compressed.toByteArray();
+    }
+
+    private void enqueue(PendingWrite write) throws IOException {
+        pending.add(write);
+        while (pending.size() > maxPendingWrites) {
+            writeNext();
+        }
+    }
+
+    private void writeNext() throws IOException {
+        try {
+            pending.poll().write();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Zip compression interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Zip compression failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void writeLocalHeader(Entry entry) throws IOException {
+        entry.offset = written;
+        entries.add(entry);
+        boolean descriptor = (entry.flags & FLAG_DATA_DESCRIPTOR) != 0;
+        writeInt(LOCAL_HEADER_SIGNATURE);
+        writeShort(entry.version());
+        writeShort(entry.flags);
+        writeShort(entry.method);
+        writeShort(dosTime);
+        writeShort(dosDate);
+        writeInt(descriptor ? 0 : entry.crc);
+        writeInt(descriptor ? 0 : entry.compressedSize);
+        writeInt(descriptor ? 0 : entry.size);
+        writeShort(entry.name.length);
+        writeShort(0);
+        writeBytes(entry.name);
+    }
+
+    private void writeDataDescriptor(Entry entry) throws IOException {
+        writeInt(DATA_DESCRIPTOR_SIGNATURE);
+        writeInt(entry.crc);
+        writeInt(entry.compressedSize);
+        writeInt(entry.size);
+    }
+
+    private void writeCentralHeader(Entry entry) throws IOException {
+        writeInt(CENTRAL_HEADER_SIGNATURE);
+        writeShort(entry.version());
+        writeShort(entry.version());
+        writeShort(entry.flags);
+        writeShort(entry.method);
+        writeShort(dosTime);
+        writeShort(dosDate);
+        writeInt(entry.crc);
+        writeInt(entry.compressedSize);
+        writeInt(entry.size);
+        writeShort(entry.name.length);
+        writeShort(0);
+        writeShort(0);
+        writeShort(0);
+        writeShort(0);
+        writeInt(0);
+        writeInt(entry.offset);
+        writeBytes(entry.name);
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        written += 2;
+    }
+
+    private void writeInt(long value) throws IOException {
+        writeShort((int) (value & 0xffff));
+        writeShort((int) ((value >>> 16) & 0xffff));
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        out.write(bytes);
+        written += bytes.length;
+    }
+}
@@ -0,0 +1,83 @@
+package com.opentext.lre.actions.workspacesync;
+
+import com.opentext.lre.actions.common.helpers.constants.LreTestRunConstants;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Files of a script folder that LRE does not need to run the script: replay results, recording snapshots, logs
+ * and backups. When only runtime files are uploaded, they are dropped before zipping instead of being sent and
+ * thrown away by the server.
+ */
+final class RuntimeFileFilter {
+
+    enum ScriptType {
+        VUGEN(List.of("/result*/", "/data/", "*.idx", "*.bak", "*.ci", "*.sdf", "*.log",
+                "combined_*.c", "pre_cci.c", "mdrv_cmd.txt", "output.txt", "options.txt")),
+        DEVWEB(List.of("/logs/", "/results/", "*.log", "*.bak")),
+        JMETER(List.of("*.jtl", "*.log", "*.bak")),
+        GATLING(List.of("/target/", "/results/", "*.log", "*.bak")),
+        SELENIUM(List.of("/target/", "*.class", "*.log", "*.bak")),
+        UNKNOWN(List.of());
+
+        private final List<String> nonRuntimePatterns;
+
+        ScriptType(List<String> nonRuntimePatterns) {
+            this.nonRuntimePatterns = nonRuntimePatterns;
+        }
+
+        List<String> getNonRuntimePatterns() {
+            return nonRuntimePatterns;
+        }
+    }
+
+    private RuntimeFileFilter() {
+    }
+
+    /**
+     * @return rules excluding the non-runtime files of the script folder, relative to the folder
+     */
+    static SyncIgnoreRules rulesFor(Path scriptFolder) throws IOException {
+        return SyncIgnoreRules.parse(scriptFolder, detect(scriptFolder).getNonRuntimePatterns());
+    }
+
+    /**
+     * Detects the type of script from the files at the root of the folder, the way the workspace scanner does.
+     */
+    static ScriptType detect(Path scriptFolder) throws IOException {
+        boolean jmeter = false;
+        boolean gatling = false;
+        boolean selenium = false;
+        boolean devWebMain = false;
+        boolean devWebRts = false;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(scriptFolder, Files::isRegularFile)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                String lower = fileName.toLowerCase(Locale.ROOT);
+                if (lower.endsWith(LreTestRunConstants.USR_EXTENSION)) {
+                    return ScriptType.VUGEN;
+                }
+                jmeter |= lower.endsWith(LreTestRunConstants.JMX_EXTENSION);
+                gatling |= lower.endsWith(LreTestRunConstants.GATLING_EXTENSION);
+                selenium |= lower.endsWith(LreTestRunConstants.SELENIUM_EXTENSION);
+                devWebMain |= LreTestRunConstants.DEVWEB_MAIN_FILE.equalsIgnoreCase(fileName);
+                devWebRts |= LreTestRunConstants.DEVWEB_RTS_FILE.equalsIgnoreCase(fileName);
+            }
+        }
+        if (devWebMain && devWebRts) {
+            return ScriptType.DEVWEB;
+        }
+        if (jmeter) {
+            return ScriptType.JMETER;
+        }
+        if (gatling) {
+            return ScriptType.GATLING;
+        }
+        return selenium ? ScriptType.SELENIUM : ScriptType.UNKNOWN;
+    }
+}
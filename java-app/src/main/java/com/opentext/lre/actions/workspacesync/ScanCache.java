@@ -0,0 +1,183 @@
+package com.opentext.lre.actions.workspacesync;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Persisted result of the previous workspace scan: for each folder visited, its modification time, whether it is
+ * a script folder and its sub folders. A folder's modification time changes whenever a file or folder is added,
+ * removed or renamed in it, so a folder whose time did not change is not read again: its verdict and sub folders
+ * are taken from the cache, and only its sub folders are checked.
+ * <p>
+ * Folders modified shortly before the previous scan are read again, as a later change within the timestamp
+ * resolution of the file system would not be visible. The whole cache is ignored when it is missing or corrupt,
+ * or when the workspace or the exclude rules changed.
+ */
+public final class ScanCache {
+    public static final String FILE_NAME = ".lre_scan_cache.json";
+    private static final int VERSION = 1;
+    /** Folders modified less than this before the previous scan started are not trusted. */
+    static final long TIMESTAMP_RESOLUTION_MILLIS = 2000;
+
+    private final Path file;
+    private final String workspace;
+    private final String rulesHash;
+    private final long scanStart = System.currentTimeMillis();
+    private final Map<String, Folder> previous = new HashMap<>();
+    private final Map<String, Folder> current = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private long previousScanStart;
+
+    private ScanCache(Path file, Path workspaceRoot, SyncIgnoreRules ignoreRules) {
+        this.file = file;
+        this.workspace = workspaceRoot.toAbsolutePath().normalize().toString();
+        this.rulesHash = ScriptFolderHasher.toHex(ScriptFolderHasher.newDigest()
+                .digest(ignoreRules.getPatterns().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * @return an empty cache, saved in the given directory, for a full scan that does not trust the previous one
+     */
+    public static ScanCache create(Path directory, Path workspaceRoot, SyncIgnoreRules ignoreRules) {
+        return new ScanCache(directory.resolve(FILE_NAME), workspaceRoot, ignoreRules);
+    }
+
+    /**
+     * Loads the cache stored in the given directory. A missing or unreadable cache, or the cache of another
+     * workspace or of other exclude rules, gives an empty one.
+     */
+    public static ScanCache load(Path directory, Path workspaceRoot, SyncIgnoreRules ignoreRules) throws IOException {
+        ScanCache cache = new ScanCache(directory.resolve(FILE_NAME), workspaceRoot, ignoreRules);
+        if (!Files.isRegularFile(cache.file)) {
+            return cache;
+        }
+        try {
+            JSONObject json = new JSONObject(Files.readString(cache.file, StandardCharsets.UTF_8));
+            if (json.optInt("version", 0) != VERSION
+                    || !cache.workspace.equals(json.optString("workspace"))
+                    || !cache.rulesHash.equals(json.optString("rules"))) {
+                return cache;
+            }
+            cache.previousScanStart = json.getLong("scanStart");
+            JSONObject folders = json.getJSONObject("folders");
+            for (String key : folders.keySet()) {
+                JSONObject folder = folders.getJSONObject(key);
+                JSONArray subFolders = folder.getJSONArray("subFolders");
+                List<String> names = new ArrayList<>(subFolders.length());
+                for (int i = 0; i < subFolders.length(); i++) {
+                    names.add(subFolders.getString(i));
+                }
+                cache.previous.put(key, new Folder(folder.getLong("mtime"), folder.getBoolean("script"), names));
+            }
+        } catch (JSONException e) {
+            cache.previous.clear();
+        }
+        return cache;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the number of folders of the previous scan
+     */
+    public int size() {
+        return previous.size();
+    }
+
+    /**
+     * @return the number of folders not read again in this scan
+     */
+    public int getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @param relativePath path of the folder relative to the workspace, with '/' separators
+     * @return the folder as the previous scan saw it, or null when it must be read again
+     */
+    Folder lookup(String relativePath, long modifiedMillis) {
+        Folder folder = previous.get(relativePath);
+        if (folder == null || folder.modifiedMillis != modifiedMillis
+                || modifiedMillis >= previousScanStart - TIMESTAMP_RESOLUTION_MILLIS) {
+            return null;
+        }
+        hits.incrementAndGet();
+        current.put(relativePath, folder);
+        return folder;
+    }
+
+    /**
+     * Records a folder read by this scan.
+     */
+    void record(String relativePath, long modifiedMillis, boolean scriptFolder, List<String> subFolders) {
+        current.put(relativePath, new Folder(modifiedMillis, scriptFolder, List.copyOf(subFolders)));
+    }
+
+    /**
+     * Writes the folders of this scan, replacing the previous file atomically. Only a complete scan must be saved.
+     */
+    public void save() throws IOException {
+        JSONObject folders = new JSONObject();
+        for (Map.Entry<String, Folder> entry : current.entrySet()) {
+            folders.put(entry.getKey(), new JSONObject()
+                    .put("mtime", entry.getValue().modifiedMillis)
+                    .put("script", entry.getValue().scriptFolder)
+                    .put("subFolders", new JSONArray(entry.getValue().subFolders)));
+        }
+        JSONObject json = new JSONObject()
+                .put("version", VERSION)
+                .put("workspace", workspace)
+                .put("rules", rulesHash)
+                .put("scanStart", scanStart)
+                .put("folders", folders);
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, json.toString(), StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static final class Folder {
+        private final long modifiedMillis;
+        private final boolean scriptFolder;
+        private final List<String> subFolders;
+
+        private Folder(long modifiedMillis, boolean scriptFolder, List<String> subFolders) {
+            this.modifiedMillis = modifiedMillis;
+            this.scriptFolder = scriptFolder;
+            this.subFolders = Objects.requireNonNull(subFolders, "subFolders");
+        }
+
+        boolean isScriptFolder() {
+            return scriptFolder;
+        }
+
+        /**
+         * @return the names of the sub folders to scan, empty for a script folder
+         */
+        List<String> getSubFolders() {
+            return subFolders;
+        }
+    }
+}
@@ -28,6 +28,11 @@ public final class ScriptFolder {
         return relativePath;
     }
 
+    public String getScriptName() {
+        Path fileName = fullPath.getFileName();
+        return fileName == null ? relativePath.toString() : fileName.toString();
+    }
+
     public String getZipFileName() {
         Path fileName = fullPath.getFileName();
         String base = fileName == null ? "script" : fileName.toString();
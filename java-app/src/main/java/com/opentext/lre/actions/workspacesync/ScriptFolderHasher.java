@@ -0,0 +1,130 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Computes a content hash of a script folder: SHA-256 over the sorted relative file paths and their content.
+ * Timestamps are not part of the hash, so a fresh checkout of unchanged content keeps the same hash.
+ */
+public final class ScriptFolderHasher {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final SyncIgnoreRules ignoreRules;
+
+    public ScriptFolderHasher() {
+        this(SyncIgnoreRules.none());
+    }
+
+    /**
+     * @param ignoreRules excluded files are not part of the hash, so that changing them does not trigger an upload
+     */
+    public ScriptFolderHasher(SyncIgnoreRules ignoreRules) {
+        this.ignoreRules = Objects.requireNonNull(ignoreRules, "ignoreRules");
+    }
+
+    /**
+     * Content hash of a script folder with the total size of the files hashed, an estimate of its upload payload,
+     * and the time it took.
+     */
+    public static final class FolderDigest {
+        private final String hash;
+        private final long totalBytes;
+        private final long millis;
+
+        private FolderDigest(String hash, long totalBytes, long millis) {
+            this.hash = hash;
+            this.totalBytes = totalBytes;
+            this.millis = millis;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+    }
+
+    public String hash(ScriptFolder folder) throws IOException {
+        return digest(folder).getHash();
+    }
+
+    public FolderDigest digest(ScriptFolder folder) throws IOException {
+        Objects.requireNonNull(folder, "folder");
+        long start = System.currentTimeMillis();
+        Path baseDir = folder.getFullPath();
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        SyncIgnoreRules ignoreRules = this.ignoreRules.forScriptFolder(baseDir);
+
+        List<Path> files = new ArrayList<>();
+        long[] totalBytes = new long[1];
+        Files.walkFileTree(baseDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return ignoreRules.isExcluded(dir, true) ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (Files.isRegularFile(file) && !ignoreRules.isExcluded(file, false)) {
+                    files.add(file);
+                    totalBytes[0] += attrs.size();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        files.sort(Comparator.comparing(file -> toEntryName(baseDir, file)));
+
+        for (Path file : files) {
+            digest.update(toEntryName(baseDir, file).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            try (InputStream in = Files.newInputStream(file)) {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            digest.update((byte) 0);
+        }
+        return new FolderDigest(toHex(digest.digest()), totalBytes[0], System.currentTimeMillis() - start);
+    }
+
+    static String toEntryName(Path baseDir, Path file) {
+        return baseDir.relativize(file).toString().replace("\\", "/");
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,149 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A workspace scan running in the background. Script folders are returned as soon as they are found, in no
+ * particular order. A folder that cannot be read ends the scan: the iterator then throws an
+ * {@link UncheckedIOException} once the folders found before the failure have been returned.
+ * <p>
+ * The iterator is meant for a single consumer; callers sharing it between threads must synchronize.
+ */
+public final class ScriptFolderScan implements Iterator<ScriptFolder>, AutoCloseable {
+    private static final Object END_OF_SCAN = new Object();
+
+    private final BlockingQueue<Object> found = new LinkedBlockingQueue<>();
+    private final AtomicInteger foldersVisited = new AtomicInteger();
+    private final ForkJoinPool pool;
+    private final long start = System.currentTimeMillis();
+    private volatile long durationMillis = -1;
+    private volatile IOException failure;
+    private volatile boolean cancelled;
+    private volatile boolean completed;
+    private ScriptFolder next;
+    private boolean finished;
+
+    ScriptFolderScan(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    void folderVisited() {
+        foldersVisited.incrementAndGet();
+    }
+
+    void scriptFolderFound(ScriptFolder folder) {
+        found.add(folder);
+    }
+
+    synchronized void fail(IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+        cancelled = true;
+    }
+
+    void complete() {
+        durationMillis = System.currentTimeMillis() - start;
+        completed = !cancelled;
+        found.add(END_OF_SCAN);
+        pool.shutdown();
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return the number of folders read so far
+     */
+    public int getFoldersVisited() {
+        return foldersVisited.get();
+    }
+
+    /**
+     * @return the time the scan took until its last folder was read, or -1 while it is running
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * @return true once every folder of the workspace has been read, without failure or cancellation
+     */
+    public boolean isComplete() {
+        return completed && failure == null;
+    }
+
+    /**
+     * @return the error that ended the scan, or null
+     */
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Blocks until the next script folder is found or the scan completes.
+     */
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (!finished) {
+            Object item;
+            try {
+                item = found.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new UncheckedIOException(new InterruptedIOException("Workspace scan interrupted"));
+            }
+            if (item != END_OF_SCAN) {
+                next = (ScriptFolder) item;
+                return true;
+            }
+            finished = true;
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure.getMessage(), failure);
+        }
+        return false;
+    }
+
+    @Override
+    public ScriptFolder next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ScriptFolder folder = next;
+        next = null;
+        return folder;
+    }
+
+    public Stream<ScriptFolder> stream() {
+        Spliterator<ScriptFolder> spliterator = Spliterators.spliteratorUnknownSize(this,
+                Spliterator.NONNULL | Spliterator.DISTINCT);
+        return StreamSupport.stream(spliterator, false).onClose(this::close);
+    }
+
+    /**
+     * Stops the scan if it is still running.
+     */
+    @Override
+    public void close() {
+        cancelled = true;
+        pool.shutdownNow();
+    }
+}
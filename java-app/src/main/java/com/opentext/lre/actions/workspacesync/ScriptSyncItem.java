@@ -0,0 +1,70 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.util.Objects;
+
+/**
+ * A script folder scheduled by the sync, with what is known about it before its upload.
+ */
+final class ScriptSyncItem {
+    private final ScriptFolder folder;
+    private final String subjectPath;
+    private final String manifestKey;
+    private final String contentHash;
+    private final long payloadBytes;
+    private final long hashMillis;
+
+    ScriptSyncItem(ScriptFolder folder, String contentHash) {
+        this(folder, contentHash, -1, 0);
+    }
+
+    static ScriptSyncItem hashed(ScriptFolder folder, ScriptFolderHasher.FolderDigest digest) {
+        return new ScriptSyncItem(folder, digest.getHash(), digest.getTotalBytes(), digest.getMillis());
+    }
+
+    /**
+     * @param payloadBytes size of the files to upload, or -1 when unknown
+     * @param hashMillis   time taken to hash the folder
+     */
+    ScriptSyncItem(ScriptFolder folder, String contentHash, long payloadBytes, long hashMillis) {
+        this.folder = Objects.requireNonNull(folder, "folder");
+        this.subjectPath = LreSubjectPathBuilder.toSubjectPath(folder.getRelativePath());
+        this.manifestKey = SyncManifest.keyOf(folder);
+        this.contentHash = contentHash;
+        this.payloadBytes = payloadBytes;
+        this.hashMillis = hashMillis;
+    }
+
+    ScriptFolder getFolder() {
+        return folder;
+    }
+
+    String getScriptName() {
+        return folder.getScriptName();
+    }
+
+    String getSubjectPath() {
+        return subjectPath;
+    }
+
+    String getManifestKey() {
+        return manifestKey;
+    }
+
+    /**
+     * @return the content hash of the folder, or null when it was not computed
+     */
+    String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * @return the size of the files to upload, before compression, or -1 when it was not computed
+     */
+    long getPayloadBytes() {
+        return payloadBytes;
+    }
+
+    long getHashMillis() {
+        return hashMillis;
+    }
+}
@@ -0,0 +1,398 @@
+package com.opentext.lre.actions.workspacesync;
+
+import com.microfocus.adm.performancecenter.plugins.common.rest.PcRestProxy;
+import com.opentext.lre.actions.common.helpers.utils.LogHelper;
+import com.opentext.lre.actions.common.helpers.utils.Result;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Producer/consumer pipeline of the workspace sync: compression workers take script folders from the workspace
+ * scan while it is still running, skip the unchanged ones and zip the others into a bounded queue, while upload
+ * workers, one per authenticated session, upload the zips. The disk space of the zips waiting in the queue
+ * is capped by a byte budget.
+ * <p>
+ * Only the first upload worker is started with the pipeline. The other workers are started when the first script
+ * to upload is ready, and open their session when the concurrency limit first lets them upload, so that a sync
+ * with nothing to upload does not log in several times and idle workers do not hold a session.
+ */
+final class ScriptUploadPipeline {
+    private static final CompressedScript END_OF_QUEUE = CompressedScript.failed(null, null);
+
+    @FunctionalInterface
+    interface ScriptPlanner {
+        /**
+         * @return the script to upload, or null when the folder does not need to be uploaded
+         */
+        ScriptSyncItem plan(ScriptFolder folder) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface ScriptUploader {
+        /**
+         * @param overloaded to run when the upload fails with a timeout, a 5xx response or no script ID returned
+         */
+        Result upload(PcRestProxy session, CompressedScript script, String workerLabel, Runnable overloaded);
+    }
+
+    @FunctionalInterface
+    interface SessionOpener {
+        /**
+         * @return an authenticated session for the given 1-based worker number, or null when it cannot be opened
+         */
+        PcRestProxy open(int workerNumber);
+    }
+
+    private final ZipFolderCompressor compressor;
+    private final ScriptPlanner planner;
+    private final ScriptUploader uploader;
+    private final UploadProgressTracker tracker;
+    private final int compressionThreads;
+    private final ZipByteBudget budget;
+    private final AtomicInteger scriptsFound = new AtomicInteger();
+    private final AtomicInteger scriptsUpToDate = new AtomicInteger();
+    private final List<Future<?>> uploadWorkers = new ArrayList<>();
+    private ZipCache zipCache;
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+    private SyncReport report;
+    private boolean inputClosed;
+    private UncheckedIOException scanFailure;
+
+    ScriptUploadPipeline(ZipFolderCompressor compressor,
+                         ScriptPlanner planner,
+                         ScriptUploader uploader,
+                         UploadProgressTracker tracker,
+                         int compressionThreads,
+                         long zipBudgetBytes) {
+        this.compressor = compressor;
+        this.planner = planner;
+        this.uploader = uploader;
+        this.tracker = tracker;
+        this.compressionThreads = Math.max(1, compressionThreads);
+        this.budget = new ZipByteBudget(zipBudgetBytes);
+    }
+
+    /**
+     * Reuses the zips of the cache and stores the new ones into it.
+     */
+    void setZipCache(ZipCache zipCache) {
+        this.zipCache = zipCache;
+    }
+
+    /**
+     * Records the compression of each script into the report.
+     */
+    void setReport(SyncReport report) {
+        this.report = report;
+    }
+
+    /**
+     * Limits the number of uploads running at once, all the workers uploading at once by default.
+     */
+    void setConcurrencyLimit(AdaptiveConcurrencyLimit concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    /**
+     * @param folders       script folders to sync, typically a running {@link ScriptFolderScan}
+     * @param mainSession   session of the first upload worker
+     * @param maxWorkers    maximum number of upload workers
+     * @param sessionOpener opens the sessions of the other upload workers
+     * @throws IOException if the script folders could not all be listed; the scripts listed before were synced
+     */
+    void run(Iterator<ScriptFolder> folders, PcRestProxy mainSession, int maxWorkers, SessionOpener sessionOpener)
+            throws IOException, InterruptedException {
+        if (concurrencyLimit == null) {
+            concurrencyLimit = AdaptiveConcurrencyLimit.fixed(maxWorkers);
+        }
+        BlockingQueue<CompressedScript> ready = new ArrayBlockingQueue<>(Math.max(compressionThreads, maxWorkers) * 2);
+        ExecutorService executor = Executors.newFixedThreadPool(compressionThreads + maxWorkers);
+        try {
+            List<Future<?>> compressionWorkers = new ArrayList<>();
+            for (int i = 0; i < compressionThreads; i++) {
+                compressionWorkers.add(executor.submit(() -> {
+                    runCompressionWorker(folders, ready);
+                    return null;
+                }));
+            }
+            Runnable startOtherWorkers = () -> startUploadWorkers(executor, ready, maxWorkers, sessionOpener);
+            synchronized (uploadWorkers) {
+                uploadWorkers.add(executor.submit(() -> {
+                    runUploadWorker(mainSession, null, ready, workerLabel(1, maxWorkers), startOtherWorkers);
+                    return null;
+                }));
+            }
+
+            int startedWorkers;
+            try {
+                awaitAll(compressionWorkers);
+            } finally {
+                tracker.setTotalKnown();
+                synchronized (uploadWorkers) {
+                    inputClosed = true;
+                    startedWorkers = uploadWorkers.size();
+                }
+                for (int i = 0; i < startedWorkers; i++) {
+                    ready.put(END_OF_QUEUE);
+                }
+            }
+            if (tracker.getTotalScripts() > 0) {
+                LogHelper.log("Found %d script(s) to upload.", true, tracker.getTotalScripts());
+            }
+            List<Future<?>> workers;
+            synchronized (uploadWorkers) {
+                workers = new ArrayList<>(uploadWorkers);
+            }
+            awaitAll(workers);
+        } finally {
+            executor.shutdownNow();
+            // zips left behind by an interrupted pipeline
+            for (CompressedScript script : ready) {
+                script.discard();
+            }
+        }
+        if (scanFailure != null) {
+            throw scanFailure.getCause();
+        }
+    }
+
+    /**
+     * @return the number of script folders taken from the scan
+     */
+    int getScriptsFound() {
+        return scriptsFound.get();
+    }
+
+    /**
+     * @return the number of script folders that did not need to be uploaded
+     */
+    int getScriptsUpToDate() {
+        return scriptsUpToDate.get();
+    }
+
+    private void startUploadWorkers(ExecutorService executor,
+                                    BlockingQueue<CompressedScript> ready,
+                                    int maxWorkers,
+                                    SessionOpener sessionOpener) {
+        synchronized (uploadWorkers) {
+            if (inputClosed || maxWorkers < 2) {
+                return;
+            }
+            for (int i = 2; i <= maxWorkers; i++) {
+                final int workerNumber = i;
+                uploadWorkers.add(executor.submit(() -> {
+                    runUploadWorker(null, () -> sessionOpener.open(workerNumber), ready,
+                            workerLabel(workerNumber, maxWorkers), null);
+                    return null;
+                }));
+            }
+        }
+        if (concurrencyLimit.isAdaptive()) {
+            LogHelper.log("Uploading with %d parallel worker(s) to start with, adapted between %d and %d.", true,
+                    concurrencyLimit.getLimit(), concurrencyLimit.getMin(), concurrencyLimit.getMax());
+        } else {
+            LogHelper.log("Uploading with up to %d parallel worker(s).", true, maxWorkers);
+        }
+    }
+
+    private ScriptFolder nextFolder(Iterator<ScriptFolder> folders) {
+        synchronized (folders) {
+            if (scanFailure != null) {
+                return null;
+            }
+            try {
+                return folders.hasNext() ? folders.next() : null;
+            } catch (UncheckedIOException e) {
+                scanFailure = e;
+                return null;
+            }
+        }
+    }
+
+    private void runCompressionWorker(Iterator<ScriptFolder> folders, BlockingQueue<CompressedScript> ready)
+            throws InterruptedException {
+        ScriptFolder folder;
+        while (!tracker.isAborted() && (folder = nextFolder(folders)) != null) {
+            scriptsFound.incrementAndGet();
+            ScriptSyncItem item;
+            try {
+                item = planner.plan(folder);
+            } catch (IOException e) {
+                tracker.addScript();
+                ready.put(recorded(CompressedScript.failed(new ScriptSyncItem(folder, null), e), 0));
+                continue;
+            }
+            if (item == null) {
+                scriptsUpToDate.incrementAndGet();
+                continue;
+            }
+            tracker.addScript();
+            long start = System.currentTimeMillis();
+            CompressedScript script = compress(item);
+            ready.put(recorded(script, System.currentTimeMillis() - start));
+        }
+    }
+
+    private CompressedScript recorded(CompressedScript script, long compressMillis) {
+        if (report != null) {
+            report.compressed(script, compressMillis);
+        }
+        return script;
+    }
+
+    private CompressedScript compress(ScriptSyncItem item) throws InterruptedException {
+        String contentHash = item.getContentHash();
+        if (zipCache != null && contentHash != null) {
+            ZipCache.Lease cached = zipCache.acquire(contentHash, item.getFolder().getZipFileName());
+            if (cached != null) {
+                return CompressedScript.cached(item, cached, true);
+            }
+        }
+        long reserved = 0;
+        try {
+            ZipFolderCompressor.Listing listing = compressor.list(item.getFolder());
+            reserved = budget.acquire(listing.getTotalSize());
+            Path zipPath = compressor.compressFolder(listing);
+            if (zipCache != null && contentHash != null) {
+                ZipCache.Lease stored = storeInCache(contentHash, zipPath);
+                if (stored != null) {
+                    budget.release(reserved);
+                    return CompressedScript.cached(item, stored, false);
+                }
+            }
+            long zipSize = budget.adjust(reserved, Files.size(zipPath));
+            return CompressedScript.compressed(item, zipPath, zipSize);
+        } catch (IOException e) {
+            budget.release(reserved);
+            return CompressedScript.failed(item, e);
+        }
+    }
+
+    private ZipCache.Lease storeInCache(String contentHash, Path zipPath) {
+        try {
+            return zipCache.store(contentHash, zipPath);
+        } catch (IOException e) {
+            LogHelper.log("Failed to store %s in the zip cache: %s", true, zipPath.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * @param session       session of the worker, or null to open it with the opener before the first upload
+     */
+    private void runUploadWorker(PcRestProxy session,
+                                 Supplier<PcRestProxy> sessionOpener,
+                                 BlockingQueue<CompressedScript> ready,
+                                 String workerLabel,
+                                 Runnable onFirstScript) throws InterruptedException {
+        int uploaded = 0;
+        int failed = 0;
+        while (true) {
+            AdaptiveConcurrencyLimit.Permit permit = concurrencyLimit.acquire();
+            if (session == null) {
+                session = sessionOpener.get();
+                if (session == null) {
+                    concurrencyLimit.release(permit);
+                    return;
+                }
+            }
+            CompressedScript script;
+            try {
+                script = ready.take();
+            } catch (InterruptedException e) {
+                concurrencyLimit.release(permit);
+                throw e;
+            }
+            if (script == END_OF_QUEUE) {
+                concurrencyLimit.release(permit);
+                break;
+            }
+            boolean attempted = false;
+            long uploadedBytes = 0;
+            Result uploadResult = Result.FAILURE;
+            try {
+                if (tracker.isAborted()) {
+                    continue;
+                }
+                if (onFirstScript != null) {
+                    onFirstScript.run();
+                    onFirstScript = null;
+                }
+                logScriptNumber(workerLabel);
+                if (script.isCompressed()) {
+                    attempted = true;
+                    uploadedBytes = zipSizeOf(script);
+                    uploadResult = uploader.upload(session, script, workerLabel,
+                            () -> concurrencyLimit.onOverload(permit));
+                } else {
+                    LogHelper.log("%sFailed to prepare %s for upload: %s", true, workerLabel,
+                            script.getItem().getFolder().getRelativePath(), script.getError().getMessage());
+                    LogHelper.logStackTrace(script.getError());
+                }
+                if (uploadResult == Result.FAILURE) {
+                    failed++;
+                } else {
+                    uploaded++;
+                }
+                tracker.recordResult(uploadResult);
+            } finally {
+                script.discard();
+                budget.release(script.getZipSize());
+                if (attempted) {
+                    concurrencyLimit.release(permit, uploadedBytes, uploadResult != Result.FAILURE);
+                } else {
+                    concurrencyLimit.release(permit);
+                }
+            }
+        }
+        if (!workerLabel.isEmpty() && uploaded + failed > 0) {
+            LogHelper.log("%sFinished: %d script(s) uploaded, %d failed.", true, workerLabel, uploaded, failed);
+        }
+    }
+
+    private static long zipSizeOf(CompressedScript script) {
+        try {
+            return Files.size(script.getZipPath());
+        } catch (IOException e) {
+            return script.getZipSize();
+        }
+    }
+
+    private void logScriptNumber(String workerLabel) {
+        int scriptNumber = tracker.nextScriptNumber();
+        if (tracker.isTotalKnown()) {
+            LogHelper.log("%sScript #%d out of %d", true, workerLabel, scriptNumber, tracker.getTotalScripts());
+        } else {
+            LogHelper.log("%sScript #%d (workspace scan in progress)", true, workerLabel, scriptNumber);
+        }
+    }
+
+    private static String workerLabel(int workerNumber, int maxWorkers) {
+        return maxWorkers > 1 ? String.format("[Worker %d] ", workerNumber) : "";
+    }
+
+    private static void awaitAll(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                LogHelper.log("Sync worker failed: %s", true, e.getCause().getMessage());
+                LogHelper.logStackTrace(e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * The Subject folders of the LRE project known locally: the root, the folders of the scripts uploaded by previous
+ * syncs of this workspace, as recorded by its manifest, and the folders created by the uploads of this one. The
+ * folders of LRE itself are not read, so a folder missing here may well exist on the server.
+ * <p>
+ * This is only a guard against a race between the parallel uploads: uploading a script creates its missing Subject
+ * folders, so two parallel uploads into the same new folder could both try to create it. The first upload into a
+ * folder not known here runs alone: the uploads into the same folder wait for it, while the uploads into known
+ * folders or into other unknown folders go on. Uploads conflict when they share their top-most unknown folder.
+ * Nothing is created up front and no folder IDs are cached.
+ */
+final class SubjectFolders {
+    static final String ROOT = LreSubjectPathBuilder.toSubjectPath(null);
+    private static final char SEPARATOR = '\\';
+
+    @FunctionalInterface
+    interface FolderUpload {
+        /**
+         * @return the ID of the uploaded script, 0 when the upload failed
+         */
+        int upload() throws Exception;
+    }
+
+    private final Set<String> existing = ConcurrentHashMap.newKeySet();
+    // top-most missing folder -> released once the upload creating it completed
+    private final Map<String, CountDownLatch> creating = new ConcurrentHashMap<>();
+
+    SubjectFolders(Collection<String> existingFolders) {
+        existing.add(ROOT);
+        for (String folder : existingFolders) {
+            addWithParents(folder);
+        }
+    }
+
+    /**
+     * @return the folders of the scripts known from previous syncs
+     */
+    static SubjectFolders fromSnapshot(ManifestSnapshot snapshot) {
+        List<String> folders = new ArrayList<>();
+        for (String key : snapshot.keys()) {
+            if (snapshot.get(key) == null) {
+                continue;
+            }
+            int separator = key.lastIndexOf(SEPARATOR);
+            if (separator > 0) {
+                folders.add(key.substring(0, separator));
+            }
+        }
+        return new SubjectFolders(folders);
+    }
+
+    int size() {
+        return existing.size();
+    }
+
+    boolean exists(String subjectPath) {
+        return existing.contains(subjectPath);
+    }
+
+    /**
+     * @return the folders of these Subject paths not known from previous syncs, parents first
+     */
+    List<String> missingFolders(Collection<String> subjectPaths) {
+        Set<String> missing = new TreeSet<>();
+        for (String path : subjectPaths) {
+            for (String folder = path; folder != null && !existing.contains(folder); folder = parentOf(folder)) {
+                missing.add(folder);
+            }
+        }
+        // parents sort before their children
+        return new ArrayList<>(missing);
+    }
+
+    /**
+     * Runs the upload of a script into the Subject path, after the uploads creating the same missing folders.
+     *
+     * @return the result of the upload
+     */
+    int upload(String subjectPath, FolderUpload upload) throws Exception {
+        while (true) {
+            String topMissing = topMostMissing(subjectPath);
+            if (topMissing == null) {
+                return upload.upload();
+            }
+            CountDownLatch created = new CountDownLatch(1);
+            CountDownLatch other = creating.putIfAbsent(topMissing, created);
+            if (other != null) {
+                // created by another upload, or still missing when it failed: check again
+                other.await();
+                continue;
+            }
+            try {
+                int scriptId = upload.upload();
+                if (scriptId != 0) {
+                    addWithParents(subjectPath);
+                }
+                return scriptId;
+            } finally {
+                creating.remove(topMissing);
+                created.countDown();
+            }
+        }
+    }
+
+    private String topMostMissing(String subjectPath) {
+        String topMissing = null;
+        for (String folder = subjectPath; folder != null && !existing.contains(folder); folder = parentOf(folder)) {
+            topMissing = folder;
+        }
+        return topMissing;
+    }
+
+    private void addWithParents(String subjectPath) {
+        // stops at the first known folder, its parents being known as well
+        String folder = subjectPath;
+        while (folder != null && existing.add(folder)) {
+            folder = parentOf(folder);
+        }
+    }
+
+    private static String parentOf(String subjectPath) {
+        int separator = subjectPath.lastIndexOf(SEPARATOR);
+        return separator > 0 ? subjectPath.substring(0, separator) : null;
+    }
+}
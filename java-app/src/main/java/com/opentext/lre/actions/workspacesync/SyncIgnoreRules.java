@@ -0,0 +1,290 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Exclude rules of a workspace, in gitignore syntax, read from the {@value #FILE_NAME} file at the root of the
+ * workspace and from the configuration. Excluded folders are neither scanned nor zipped, excluded files are left
+ * out of the zips and of the content hashes.
+ * <p>
+ * Supported syntax: {@code #} comments, {@code !} to re-include, a trailing {@code /} to match folders only,
+ * a leading or inner {@code /} to anchor the pattern to the workspace root, {@code *}, {@code ?}, {@code [...]}
+ * and {@code **}. As with git, a file cannot be re-included when one of its parent folders is excluded.
+ * Patterns are compiled once; patterns without wildcards are matched on the file name without a regex.
+ * <p>
+ * When only runtime files are uploaded, the non-runtime files of each script folder are excluded as well,
+ * unless a rule of the workspace explicitly re-includes them.
+ */
+public final class SyncIgnoreRules {
+    public static final String FILE_NAME = ".lresyncignore";
+    // file names are case insensitive on Windows agents
+    private static final boolean IGNORE_CASE = File.separatorChar == '\\';
+    private static final SyncIgnoreRules NONE = new SyncIgnoreRules(null, Collections.emptyList(), false, null);
+
+    private static final class Rule {
+        private final String source;
+        private final boolean negated;
+        private final boolean directoryOnly;
+        // file name compared without a regex, or null
+        private final String literalName;
+        private final Pattern pattern;
+        // patterns without a slash match the file name, the other ones the path relative to the root
+        private final boolean anchored;
+
+        private Rule(String source, boolean negated, boolean directoryOnly, String literalName, Pattern pattern,
+                     boolean anchored) {
+            this.source = source;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+            this.literalName = literalName;
+            this.pattern = pattern;
+            this.anchored = anchored;
+        }
+
+        private boolean matches(String relativePath, String fileName, boolean directory) {
+            if (directoryOnly && !directory) {
+                return false;
+            }
+            if (literalName != null) {
+                return IGNORE_CASE ? literalName.equalsIgnoreCase(fileName) : literalName.equals(fileName);
+            }
+            return pattern.matcher(anchored ? relativePath : fileName).matches();
+        }
+    }
+
+    private final Path root;
+    private final List<Rule> rules;
+    private final boolean runtimeOnly;
+    // rules applied to the paths none of these rules match, or null
+    private final SyncIgnoreRules fallback;
+
+    private SyncIgnoreRules(Path root, List<Rule> rules, boolean runtimeOnly, SyncIgnoreRules fallback) {
+        this.root = root;
+        this.rules = rules;
+        this.runtimeOnly = runtimeOnly;
+        this.fallback = fallback;
+    }
+
+    /**
+     * @return rules excluding nothing
+     */
+    public static SyncIgnoreRules none() {
+        return NONE;
+    }
+
+    /**
+     * Reads the {@value #FILE_NAME} file of the workspace, if any, followed by the configured patterns, which
+     * therefore take precedence.
+     *
+     * @param configuredPatterns comma separated patterns, or null
+     */
+    public static SyncIgnoreRules load(Path workspaceRoot, String configuredPatterns) throws IOException {
+        List<String> lines = new ArrayList<>();
+        Path ignoreFile = workspaceRoot.resolve(FILE_NAME);
+        if (Files.isRegularFile(ignoreFile)) {
+            lines.addAll(Files.readAllLines(ignoreFile, StandardCharsets.UTF_8));
+        }
+        if (configuredPatterns != null) {
+            Arrays.stream(configuredPatterns.split(",")).map(String::trim).forEach(lines::add);
+        }
+        return parse(workspaceRoot, lines);
+    }
+
+    /**
+     * @param lines patterns in gitignore syntax, relative to the root
+     */
+    public static SyncIgnoreRules parse(Path root, List<String> lines) {
+        Objects.requireNonNull(root, "root");
+        List<Rule> rules = new ArrayList<>();
+        for (String line : lines) {
+            Rule rule = compile(line);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+        return rules.isEmpty() ? NONE
+                : new SyncIgnoreRules(root.toAbsolutePath().normalize(), List.copyOf(rules), false, null);
+    }
+
+    /**
+     * @param runtimeOnly when set, the non-runtime files of script folders are excluded too
+     */
+    public SyncIgnoreRules withRuntimeOnly(boolean runtimeOnly) {
+        return runtimeOnly == this.runtimeOnly ? this : new SyncIgnoreRules(root, rules, runtimeOnly, fallback);
+    }
+
+    public boolean isRuntimeOnly() {
+        return runtimeOnly;
+    }
+
+    /**
+     * @return the rules to apply inside the script folder, including its non-runtime files when only runtime
+     * files are uploaded
+     */
+    public SyncIgnoreRules forScriptFolder(Path scriptFolder) throws IOException {
+        if (!runtimeOnly) {
+            return this;
+        }
+        return new SyncIgnoreRules(root, rules, false, RuntimeFileFilter.rulesFor(scriptFolder));
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * @return the patterns of the rules, one per line, to tell whether the rules changed between two syncs
+     */
+    public String getPatterns() {
+        return rules.stream().map(rule -> rule.source).collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Matches a file or folder against the rules, the last matching rule deciding. Only the path itself is
+     * matched: its parent folders are expected to have been checked already, as folders are walked from the root.
+     *
+     * @return true if the file or folder must be left out of the sync
+     */
+    public boolean isExcluded(Path path, boolean directory) {
+        Boolean excluded = match(path, directory);
+        if (excluded != null) {
+            return excluded;
+        }
+        return fallback != null && fallback.isExcluded(path, directory);
+    }
+
+    /**
+     * @return whether the last matching rule excludes the path, or null when no rule matches it
+     */
+    private Boolean match(Path path, boolean directory) {
+        if (rules.isEmpty()) {
+            return null;
+        }
+        Path absolute = path.toAbsolutePath().normalize();
+        if (!absolute.startsWith(root) || absolute.equals(root)) {
+            return null;
+        }
+        String relativePath = root.relativize(absolute).toString().replace('\\', '/');
+        String fileName = absolute.getFileName().toString();
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            Rule rule = rules.get(i);
+            if (rule.matches(relativePath, fileName, directory)) {
+                return !rule.negated;
+            }
+        }
+        return null;
+    }
+
+    private static Rule compile(String line) {
+        String pattern = stripTrailingSpaces(line);
+        if (pattern.isEmpty() || pattern.startsWith("#")) {
+            return null;
+        }
+        boolean negated = pattern.startsWith("!");
+        if (negated) {
+            pattern = pattern.substring(1);
+        } else if (pattern.startsWith("\\#") || pattern.startsWith("\\!")) {
+            pattern = pattern.substring(1);
+        }
+        boolean directoryOnly = pattern.endsWith("/");
+        if (directoryOnly) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        boolean anchored = pattern.contains("/");
+        if (pattern.startsWith("/")) {
+            pattern = pattern.substring(1);
+        }
+        if (pattern.isEmpty()) {
+            return null;
+        }
+        if (!anchored && !hasWildcard(pattern)) {
+            return new Rule(line, negated, directoryOnly, pattern, null, false);
+        }
+        int flags = IGNORE_CASE ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0;
+        return new Rule(line, negated, directoryOnly, null, Pattern.compile(toRegex(pattern), flags), anchored);
+    }
+
+    private static String stripTrailingSpaces(String line) {
+        int end = line.length();
+        while (end > 0 && (line.charAt(end - 1) == ' ' || line.charAt(end - 1) == '\t' || line.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        // a trailing space escaped with a backslash is kept
+        if (end < line.length() && end > 0 && line.charAt(end - 1) == '\\') {
+            end++;
+        }
+        return line.substring(0, end);
+    }
+
+    private static boolean hasWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' && i + 1 < length && pattern.charAt(i + 1) == '*'
+                    && (i == 0 || pattern.charAt(i - 1) == '/')
+                    && (i + 2 == length || pattern.charAt(i + 2) == '/')) {
+                if (i + 2 == length) {
+                    // trailing "**": everything inside
+                    regex.append(".*");
+                } else {
+                    // "**/": zero or more folders
+                    regex.append("(?:.*/)?");
+                    i++;
+                }
+                i++;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if (c == '[') {
+                int end = pattern.indexOf(']', i + 2);
+                if (end < 0) {
+                    regex.append("\\[");
+                    continue;
+                }
+                String content = pattern.substring(i + 1, end);
+                if (content.startsWith("!")) {
+                    content = "^" + content.substring(1);
+                }
+                regex.append('[').append(content.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                i = end;
+            } else if (c == '\\' && i + 1 < length) {
+                regex.append(Pattern.quote(String.valueOf(pattern.charAt(++i))));
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return regex.toString();
+    }
+
+    @Override
+    public String toString() {
+        return rules.size() + " exclude rule(s)";
+    }
+}
@@ -0,0 +1,110 @@
+package com.opentext.lre.actions.workspacesync;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkpoint journal of the running sync: each successful upload is appended as one JSON line and forced to disk
+ * before the next one, so that a sync killed before saving its manifest still knows what it uploaded. The journal
+ * is deleted once the manifest holding its uploads is saved.
+ * <p>
+ * A line cut short by the crash is ignored when the journal is read.
+ */
+public final class SyncJournal implements Closeable {
+    public static final String FILE_NAME = ".lre_sync_journal.jsonl";
+
+    private final Path file;
+    private FileChannel channel;
+
+    private SyncJournal(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the journal stored in the given directory; the file is created by the first upload recorded
+     */
+    public static SyncJournal open(Path directory) {
+        return new SyncJournal(directory.resolve(FILE_NAME));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * @return the uploads recorded by an interrupted sync, by Subject path and script name, the last one winning
+     */
+    public Map<String, SyncManifest.Entry> read() throws IOException {
+        Map<String, SyncManifest.Entry> entries = new LinkedHashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return entries;
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                JSONObject json = new JSONObject(line);
+                entries.put(json.getString("key"), new SyncManifest.Entry(json.getString("hash"),
+                        json.getInt("scriptId"), json.optLong("uploadedAt", 0)));
+            } catch (JSONException e) {
+                // written partially when the sync was killed
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Records an upload and waits until it is on disk.
+     */
+    public synchronized void append(String key, SyncManifest.Entry entry) throws IOException {
+        JSONObject json = new JSONObject()
+                .put("key", key)
+                .put("hash", entry.getHash())
+                .put("scriptId", entry.getScriptId())
+                .put("uploadedAt", entry.getUploadedAt());
+        if (channel == null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            // a line cut short by a crash must not swallow the first one of this sync
+            if (channel.size() > 0) {
+                channel.write(ByteBuffer.wrap(new byte[]{'\n'}));
+            }
+        }
+        ByteBuffer line = ByteBuffer.wrap((json + "\n").getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Deletes the journal, once the manifest holding its uploads is saved or when it is not to be resumed.
+     */
+    public synchronized void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.opentext.lre.actions.workspacesync;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Persisted record of the scripts uploaded by previous syncs: maps the script location in LRE
+ * (Subject path and script name) to the content hash that was uploaded, the returned script ID and the time
+ * of the upload.
+ */
+public final class SyncManifest {
+    public static final String FILE_NAME = ".lre_sync_manifest.json";
+    private static final int VERSION = 1;
+
+    private final Path file;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private boolean dirty;
+
+    private SyncManifest(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Loads the manifest stored in the given directory. A missing or unreadable manifest gives an empty one.
+     */
+    public static SyncManifest load(Path directory) throws IOException {
+        SyncManifest manifest = new SyncManifest(directory.resolve(FILE_NAME));
+        if (!Files.isRegularFile(manifest.file)) {
+            return manifest;
+        }
+        try {
+            JSONObject json = new JSONObject(Files.readString(manifest.file, StandardCharsets.UTF_8));
+            if (json.optInt("version", 0) != VERSION) {
+                return manifest;
+            }
+            JSONObject scripts = json.optJSONObject("scripts");
+            if (scripts != null) {
+                for (String key : scripts.keySet()) {
+                    JSONObject entry = scripts.getJSONObject(key);
+                    manifest.entries.put(key, new Entry(entry.getString("hash"), entry.optInt("scriptId", 0),
+                            entry.optLong("uploadedAt", 0)));
+                }
+            }
+        } catch (JSONException e) {
+            manifest.entries.clear();
+            manifest.dirty = true;
+        }
+        return manifest;
+    }
+
+    public static String keyOf(ScriptFolder folder) {
+        return LreSubjectPathBuilder.toSubjectPath(folder.getRelativePath()) + "\\" + folder.getScriptName();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    public synchronized boolean isUpToDate(String key, String hash) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.scriptId > 0 && entry.hash.equals(hash);
+    }
+
+    public synchronized void update(String key, String hash, int scriptId) {
+        entries.put(key, new Entry(Objects.requireNonNull(hash, "hash"), scriptId, System.currentTimeMillis()));
+        dirty = true;
+    }
+
+    /**
+     * Puts back an upload recorded by the journal of an interrupted sync.
+     */
+    public synchronized void restore(String key, Entry entry) {
+        entries.put(key, Objects.requireNonNull(entry, "entry"));
+        dirty = true;
+    }
+
+    /**
+     * @return a copy of the entries, by Subject path and script name
+     */
+    public synchronized Map<String, Entry> snapshot() {
+        return new HashMap<>(entries);
+    }
+
+    /**
+     * Writes the manifest if it changed, replacing the previous file atomically.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty) {
+            return;
+        }
+        JSONObject scripts = new JSONObject();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            JSONObject script = new JSONObject()
+                    .put("hash", entry.getValue().hash)
+                    .put("scriptId", entry.getValue().scriptId);
+            if (entry.getValue().uploadedAt > 0) {
+                script.put("uploadedAt", entry.getValue().uploadedAt);
+            }
+            scripts.put(entry.getKey(), script);
+        }
+        JSONObject json = new JSONObject().put("version", VERSION).put("scripts", scripts);
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(temp, json.toString(2), StandardCharsets.UTF_8);
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        dirty = false;
+    }
+
+    public static final class Entry {
+        private final String hash;
+        private final int scriptId;
+        private final long uploadedAt;
+
+        Entry(String hash, int scriptId, long uploadedAt) {
+            this.hash = hash;
+            this.scriptId = scriptId;
+            this.uploadedAt = uploadedAt;
+        }
+
+        public String getHash() {
+            return hash;
+        }
+
+        public int getScriptId() {
+            return scriptId;
+        }
+
+        /**
+         * @return the time of the upload in milliseconds since the epoch, 0 when it is not known
+         */
+        public long getUploadedAt() {
+            return uploadedAt;
+        }
+    }
+}
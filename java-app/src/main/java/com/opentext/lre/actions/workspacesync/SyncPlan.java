@@ -0,0 +1,258 @@
+package com.opentext.lre.actions.workspacesync;
+
+import com.opentext.lre.actions.common.helpers.utils.LogHelper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * What a sync is going to do, decided before any upload: every script folder of the scan is hashed and compared
+ * with the snapshot of the local sync manifest, then classified as new, changed or up to date since the previous
+ * syncs.
+ * <p>
+ * The scripts to upload are scheduled largest first, by the size of their files found while hashing them, so that
+ * a big script does not start last and stretch the sync while the other workers are idle.
+ */
+final class SyncPlan {
+    static final int MAX_LISTED_SCRIPTS = 100;
+    private static final DateTimeFormatter UPLOAD_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    enum Action {
+        NEW("new"),
+        CHANGED("changed"),
+        FORCED("forced"),
+        UP_TO_DATE("up to date"),
+        FAILED("failed");
+
+        private final String label;
+
+        Action(String label) {
+            this.label = label;
+        }
+    }
+
+    static final class PlannedScript {
+        private final ScriptSyncItem item;
+        private final Action action;
+        private final SyncManifest.Entry uploaded;
+        private final IOException error;
+
+        private PlannedScript(ScriptSyncItem item, Action action, SyncManifest.Entry uploaded, IOException error) {
+            this.item = item;
+            this.action = action;
+            this.uploaded = uploaded;
+            this.error = error;
+        }
+
+        ScriptSyncItem getItem() {
+            return item;
+        }
+
+        Action getAction() {
+            return action;
+        }
+
+        boolean isUpload() {
+            return action != Action.UP_TO_DATE;
+        }
+    }
+
+    private final List<PlannedScript> scripts;
+    private final List<PlannedScript> schedule;
+    private final Map<ScriptFolder, PlannedScript> byFolder = new IdentityHashMap<>();
+    private final long planningMillis;
+
+    private SyncPlan(List<PlannedScript> scripts, long planningMillis) {
+        this.scripts = scripts;
+        this.planningMillis = planningMillis;
+        this.schedule = new ArrayList<>(scripts);
+        // longest processing time first; the up-to-date scripts only need to be counted
+        schedule.sort(Comparator.comparing((PlannedScript script) -> !script.isUpload())
+                .thenComparing(script -> -script.item.getPayloadBytes()));
+        for (PlannedScript script : scripts) {
+            byFolder.put(script.item.getFolder(), script);
+        }
+    }
+
+    /**
+     * Takes every folder of the scan and hashes them on several threads.
+     *
+     * @param forceFullSync when set, up-to-date scripts are uploaded as well, except the ones uploaded by the
+     *                      interrupted sync being resumed
+     * @throws IOException if the scan failed: nothing is uploaded from an incomplete plan
+     */
+    static SyncPlan build(Iterator<ScriptFolder> folders, ScriptFolderHasher hasher, ManifestSnapshot snapshot,
+                          boolean forceFullSync, int threads) throws IOException, InterruptedException {
+        long start = System.currentTimeMillis();
+        List<PlannedScript> scripts = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, threads); i++) {
+                workers.add(executor.submit(() -> {
+                    ScriptFolder folder;
+                    while ((folder = next(folders)) != null) {
+                        PlannedScript script = classify(folder, hasher, snapshot, forceFullSync);
+                        synchronized (scripts) {
+                            scripts.add(script);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IOException("Sync planning failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        scripts.sort(Comparator.comparing(script -> script.item.getManifestKey()));
+        return new SyncPlan(scripts, System.currentTimeMillis() - start);
+    }
+
+    private static ScriptFolder next(Iterator<ScriptFolder> folders) {
+        synchronized (folders) {
+            return folders.hasNext() ? folders.next() : null;
+        }
+    }
+
+    private static PlannedScript classify(ScriptFolder folder, ScriptFolderHasher hasher, ManifestSnapshot snapshot,
+                                          boolean forceFullSync) {
+        ScriptSyncItem item;
+        try {
+            item = ScriptSyncItem.hashed(folder, hasher.digest(folder));
+        } catch (IOException e) {
+            return new PlannedScript(new ScriptSyncItem(folder, null), Action.FAILED, null, e);
+        }
+        SyncManifest.Entry uploaded = snapshot.get(item.getManifestKey());
+        Action action;
+        if (uploaded == null) {
+            action = Action.NEW;
+        } else if (!uploaded.getHash().equals(item.getContentHash())) {
+            action = Action.CHANGED;
+        } else {
+            action = forceFullSync && !snapshot.isResumed(item.getManifestKey()) ? Action.FORCED : Action.UP_TO_DATE;
+        }
+        return new PlannedScript(item, action, uploaded, null);
+    }
+
+    List<PlannedScript> getScripts() {
+        return scripts;
+    }
+
+    /**
+     * @return the distinct Subject paths of the scripts to upload
+     */
+    Set<String> getSubjectPaths() {
+        Set<String> paths = new LinkedHashSet<>();
+        for (PlannedScript script : scripts) {
+            if (script.isUpload() && script.error == null) {
+                paths.add(script.item.getSubjectPath());
+            }
+        }
+        return paths;
+    }
+
+    long getPlanningMillis() {
+        return planningMillis;
+    }
+
+    int count(Action action) {
+        return (int) scripts.stream().filter(script -> script.action == action).count();
+    }
+
+    /**
+     * @return the scripts of the plan in the order they are to be synced: largest upload first
+     */
+    List<PlannedScript> getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * @return the script folders of the plan, in the order they are to be synced
+     */
+    Iterator<ScriptFolder> folders() {
+        return schedule.stream().map(script -> script.item.getFolder()).iterator();
+    }
+
+    /**
+     * Planner of the upload pipeline following this plan.
+     *
+     * @return the script to upload, or null when it is up to date
+     * @throws IOException if the folder could not be hashed
+     */
+    ScriptSyncItem toUpload(ScriptFolder folder) throws IOException {
+        PlannedScript script = byFolder.get(folder);
+        if (script == null) {
+            throw new IllegalArgumentException("Script folder not in the sync plan: " + folder.getFullPath());
+        }
+        if (script.error != null) {
+            throw script.error;
+        }
+        return script.isUpload() ? script.item : null;
+    }
+
+    void report() {
+        int uploads = (int) scripts.stream().filter(PlannedScript::isUpload).count();
+        LogHelper.log("Sync plan computed in %d ms: %d script folder(s), %d new, %d changed, %d up to date%s, %d to upload, largest first.",
+                true, planningMillis, scripts.size(), count(Action.NEW), count(Action.CHANGED),
+                count(Action.UP_TO_DATE) + count(Action.FORCED),
+                count(Action.FORCED) > 0 ? " (uploaded anyway, full sync forced)" : "", uploads);
+        int listed = 0;
+        for (PlannedScript script : schedule) {
+            if (!script.isUpload()) {
+                break;
+            }
+            if (listed++ == MAX_LISTED_SCRIPTS) {
+                LogHelper.log("  ... and %d more.", true, uploads - MAX_LISTED_SCRIPTS);
+                break;
+            }
+            LogHelper.log("  %-8s %s, %s%s", true, script.action.label, script.item.getManifestKey(),
+                    formatSize(script.item.getPayloadBytes()), describeUploaded(script));
+        }
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes < 0) {
+            return "size unknown";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%d KB", (bytes + 1023) / 1024);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    private static String describeUploaded(PlannedScript script) {
+        if (script.error != null) {
+            return ": " + script.error.getMessage();
+        }
+        if (script.uploaded == null) {
+            return "";
+        }
+        String uploadedAt = script.uploaded.getUploadedAt() > 0
+                ? ", uploaded " + UPLOAD_TIME_FORMAT.format(Instant.ofEpochMilli(script.uploaded.getUploadedAt()))
+                : "";
+        return " (script ID " + script.uploaded.getScriptId() + uploadedAt + ")";
+    }
+}
@@ -0,0 +1,236 @@
+package com.opentext.lre.actions.workspacesync;
+
+import com.opentext.lre.actions.common.helpers.utils.Result;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Machine-readable performance report of a sync, written as JSON next to its log so that the timings can be
+ * compared across builds: the duration of each phase, and for each script its hashing, compression and upload
+ * times, its size before and after compression and its upload attempts, with aggregate throughput and
+ * percentiles of the per-script times.
+ * <p>
+ * Sizes are in bytes and times in milliseconds. The compression ratio is the size of the files divided by the
+ * size of the zip; it is left out when either is unknown.
+ */
+final class SyncReport {
+    private static final int VERSION = 1;
+    private static final int[] PERCENTILES = {50, 90, 95, 99};
+
+    private static final class ScriptRecord {
+        private String result;
+        private boolean reusedZip;
+        private long payloadBytes = -1;
+        private long zipBytes = -1;
+        private long hashMillis = -1;
+        private long compressMillis = -1;
+        private long uploadMillis = -1;
+        private int attempts;
+        private String error;
+    }
+
+    private final long start = System.currentTimeMillis();
+    private final Map<String, ScriptRecord> scripts = new TreeMap<>();
+    private long scanMillis = -1;
+    private long planMillis = -1;
+    private long pipelineMillis = -1;
+    private int scriptsFound;
+    private int scriptsUpToDate;
+    private int foldersVisited;
+    private int retries;
+
+    /**
+     * Records a script ready for its upload, or that could not be prepared.
+     */
+    synchronized void compressed(CompressedScript script, long compressMillis) {
+        ScriptSyncItem item = script.getItem();
+        ScriptRecord record = record(item);
+        if (!script.isCompressed()) {
+            record.result = "FAILURE";
+            record.error = script.getError().getMessage();
+            return;
+        }
+        record.compressMillis = compressMillis;
+        record.reusedZip = script.isReusedFromCache();
+        try {
+            record.zipBytes = Files.size(script.getZipPath());
+        } catch (IOException e) {
+            record.zipBytes = script.getZipSize();
+        }
+    }
+
+    /**
+     * Records the outcome of the last upload attempt of a script.
+     */
+    synchronized void uploaded(ScriptSyncItem item, Result result, int attempts, long uploadMillis, String error) {
+        ScriptRecord record = record(item);
+        record.result = result.name();
+        record.attempts = attempts;
+        record.uploadMillis = uploadMillis;
+        record.error = error;
+    }
+
+    synchronized void setPlanMillis(long planMillis) {
+        this.planMillis = planMillis;
+    }
+
+    /**
+     * @param pipelineMillis time from the start of the upload pipeline to its last upload
+     */
+    synchronized void setPipeline(long pipelineMillis, int scriptsFound, int scriptsUpToDate, int foldersVisited) {
+        this.pipelineMillis = pipelineMillis;
+        this.scriptsFound = scriptsFound;
+        this.scriptsUpToDate = scriptsUpToDate;
+        this.foldersVisited = foldersVisited;
+    }
+
+    /**
+     * @param scanMillis time of the workspace scan, which overlaps the pipeline, -1 when it did not complete
+     */
+    synchronized void setScanMillis(long scanMillis) {
+        this.scanMillis = scanMillis;
+    }
+
+    synchronized void setRetries(int retries) {
+        this.retries = retries;
+    }
+
+    private ScriptRecord record(ScriptSyncItem item) {
+        ScriptRecord record = scripts.computeIfAbsent(item.getManifestKey(), key -> new ScriptRecord());
+        record.payloadBytes = item.getPayloadBytes();
+        if (item.getContentHash() != null) {
+            record.hashMillis = item.getHashMillis();
+        }
+        return record;
+    }
+
+    synchronized JSONObject toJson(Result result) {
+        long totalMillis = System.currentTimeMillis() - start;
+        List<ScriptRecord> uploaded = new ArrayList<>();
+        int failed = 0;
+        long payloadBytes = 0;
+        long zipBytes = 0;
+        JSONArray details = new JSONArray();
+        for (Map.Entry<String, ScriptRecord> entry : scripts.entrySet()) {
+            ScriptRecord record = entry.getValue();
+            if ("SUCCESS".equals(record.result)) {
+                uploaded.add(record);
+                payloadBytes += Math.max(0, record.payloadBytes);
+                zipBytes += Math.max(0, record.zipBytes);
+            } else {
+                failed++;
+            }
+            details.put(toJson(entry.getKey(), record));
+        }
+
+        JSONObject json = new JSONObject()
+                .put("version", VERSION)
+                .put("startedAt", Instant.ofEpochMilli(start).toString())
+                .put("result", result == null ? JSONObject.NULL : result.name())
+                .put("durations", new JSONObject()
+                        .put("totalMillis", totalMillis)
+                        .put("scanMillis", scanMillis)
+                        .put("planMillis", planMillis)
+                        .put("pipelineMillis", pipelineMillis))
+                .put("counts", new JSONObject()
+                        .put("foldersVisited", foldersVisited)
+                        .put("scriptsFound", scriptsFound)
+                        .put("upToDate", scriptsUpToDate)
+                        .put("uploaded", uploaded.size())
+                        .put("failed", failed)
+                        .put("retries", retries))
+                .put("bytes", new JSONObject()
+                        .put("payload", payloadBytes)
+                        .put("compressed", zipBytes)
+                        .put("compressionRatio", ratio(payloadBytes, zipBytes)));
+
+        double pipelineSeconds = pipelineMillis > 0 ? pipelineMillis / 1000.0 : 0;
+        json.put("throughput", new JSONObject()
+                .put("mbPerSecond", pipelineSeconds > 0 ? round(zipBytes / (1024.0 * 1024.0) / pipelineSeconds) : 0)
+                .put("scriptsPerMinute", pipelineSeconds > 0 ? round(uploaded.size() * 60 / pipelineSeconds) : 0));
+        json.put("percentiles", new JSONObject()
+                .put("hashMillis", percentiles(uploaded, record -> record.hashMillis))
+                .put("compressMillis", percentiles(uploaded, record -> record.compressMillis))
+                .put("uploadMillis", percentiles(uploaded, record -> record.uploadMillis)));
+        json.put("scripts", details);
+        return json;
+    }
+
+    /**
+     * Writes the report, replacing any previous file.
+     */
+    void write(Path file, Result result) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, toJson(result).toString(2), StandardCharsets.UTF_8);
+    }
+
+    private static JSONObject toJson(String key, ScriptRecord record) {
+        JSONObject json = new JSONObject()
+                .put("script", key)
+                .put("result", record.result == null ? JSONObject.NULL : record.result)
+                .put("hashMillis", record.hashMillis)
+                .put("compressMillis", record.compressMillis)
+                .put("uploadMillis", record.uploadMillis)
+                .put("attempts", record.attempts)
+                .put("retries", Math.max(0, record.attempts - 1))
+                .put("payloadBytes", record.payloadBytes)
+                .put("zipBytes", record.zipBytes)
+                .put("reusedZip", record.reusedZip);
+        Object ratio = ratio(record.payloadBytes, record.zipBytes);
+        if (ratio != JSONObject.NULL) {
+            json.put("compressionRatio", ratio);
+        }
+        if (record.error != null) {
+            json.put("error", record.error);
+        }
+        return json;
+    }
+
+    private static Object ratio(long payloadBytes, long zipBytes) {
+        return payloadBytes > 0 && zipBytes > 0 ? round((double) payloadBytes / zipBytes) : JSONObject.NULL;
+    }
+
+    private static JSONObject percentiles(List<ScriptRecord> records, ToLongFunction<ScriptRecord> value) {
+        List<Long> values = new ArrayList<>();
+        for (ScriptRecord record : records) {
+            long v = value.applyAsLong(record);
+            if (v >= 0) {
+                values.add(v);
+            }
+        }
+        JSONObject json = new JSONObject();
+        if (values.isEmpty()) {
+            return json;
+        }
+        Collections.sort(values);
+        for (int percentile : PERCENTILES) {
+            json.put("p" + percentile, percentile(values, percentile));
+        }
+        return json.put("max", values.get(values.size() - 1));
+    }
+
+    /**
+     * @param sortedValues values in ascending order, not empty
+     * @return the nearest-rank percentile
+     */
+    static long percentile(List<Long> sortedValues, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.size());
+        return sortedValues.get(Math.max(0, rank - 1));
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,92 @@
+package com.opentext.lre.actions.workspacesync;
+
+import com.opentext.lre.actions.common.helpers.utils.Result;
+
+/**
+ * Thread-safe bookkeeping of script uploads, shared by all upload workers.
+ * Applies the consecutive-failure rule across workers, in the order uploads complete.
+ */
+final class UploadProgressTracker {
+    static final int MAX_CONSECUTIVE_FAILURES = 5;
+    static final double MIN_SUCCESS_RATE = 0.5;
+
+    private int totalScripts;
+    private boolean totalKnown;
+    private int startedUploads;
+    private int successfulUploads;
+    private int failedUploads;
+    private int consecutiveFailures;
+    private boolean aborted;
+
+    UploadProgressTracker(int totalScripts) {
+        this.totalScripts = totalScripts;
+        this.totalKnown = true;
+    }
+
+    /**
+     * Creates a tracker whose scripts are added while the workspace is being scanned.
+     */
+    UploadProgressTracker() {
+    }
+
+    synchronized void addScript() {
+        totalScripts++;
+    }
+
+    /**
+     * Marks the end of the scan: no more scripts will be added.
+     */
+    synchronized void setTotalKnown() {
+        totalKnown = true;
+    }
+
+    synchronized boolean isTotalKnown() {
+        return totalKnown;
+    }
+
+    synchronized int getTotalScripts() {
+        return totalScripts;
+    }
+
+    /**
+     * @return the 1-based number of the upload being started
+     */
+    synchronized int nextScriptNumber() {
+        return ++startedUploads;
+    }
+
+    /**
+     * Records the outcome of an upload.
+     *
+     * @return true if the upload process must be terminated
+     */
+    synchronized boolean recordResult(Result uploadResult) {
+        if (uploadResult == Result.FAILURE) {
+            failedUploads++;
+            consecutiveFailures++;
+            if (consecutiveFailures >= MAX_CONSECUTIVE_FAILURES) {
+                aborted = true;
+            }
+        } else {
+            successfulUploads++;
+            consecutiveFailures = 0;
+        }
+        return aborted;
+    }
+
+    synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    synchronized int getSuccessfulUploads() {
+        return successfulUploads;
+    }
+
+    synchronized int getFailedUploads() {
+        return failedUploads;
+    }
+
+    synchronized boolean isSuccessRateReached() {
+        return totalScripts == 0 || (double) successfulUploads / totalScripts >= MIN_SUCCESS_RATE;
+    }
+}
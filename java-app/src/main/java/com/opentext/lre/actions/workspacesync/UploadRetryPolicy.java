@@ -0,0 +1,103 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Decides whether a failed upload is attempted again, and when. Only transient errors are retried: connection
+ * resets and refusals, socket timeouts, 429, 502, 503 and 504 responses, and expired sessions, which are logged in
+ * again first. Any other error, an interrupted upload included, fails the upload at once.
+ * <p>
+ * Retries wait with exponential backoff and jitter: half of the doubled delay, plus a random part of the other
+ * half, so that the workers failing together on a busy server do not all come back at the same time.
+ */
+final class UploadRetryPolicy {
+    static final long MAX_DELAY_MILLIS = 60_000;
+    /** A status code is only read after one of these words, never from a script name or a workspace path. */
+    private static final String STATUS = "\\b(http|status code|status|error)[ :=#]{1,3}";
+    private static final Pattern TRANSIENT_STATUS = Pattern.compile(
+            STATUS + "(429|502|503|504)\\b|too many requests|bad gateway|service unavailable|gateway time-?out"
+                    + "|connection reset|connection refused|broken pipe|\\b(read|connect|connection) timed out\\b");
+    private static final Pattern SERVER_ERROR = Pattern.compile(
+            STATUS + "5\\d\\d\\b|internal server error");
+    private static final Pattern EXPIRED_SESSION = Pattern.compile(
+            STATUS + "401\\b|^401\\b|^unauthori[sz]ed\\b|\\b401 unauthori[sz]ed\\b|session (has )?expired"
+                    + "|session is not valid|invalid session|not authenticated|not logged in");
+
+    enum Failure {
+        TRANSIENT,
+        SESSION_EXPIRED,
+        PERMANENT
+    }
+
+    private final int maxRetries;
+    private final long baseDelayMillis;
+
+    /**
+     * @param maxRetries      attempts after the first one, 0 to never retry
+     * @param baseDelayMillis delay before the first retry, doubled for each following one
+     */
+    UploadRetryPolicy(int maxRetries, long baseDelayMillis) {
+        this.maxRetries = Math.max(0, maxRetries);
+        this.baseDelayMillis = Math.max(0, baseDelayMillis);
+    }
+
+    int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * @param retry 1 for the first retry
+     * @return the time to wait before the retry, in milliseconds
+     */
+    long delayMillis(int retry) {
+        long delay = baseDelayMillis << Math.min(retry - 1, 20);
+        delay = Math.min(MAX_DELAY_MILLIS, delay);
+        long half = delay / 2;
+        return half + (half > 0 ? ThreadLocalRandom.current().nextLong(half + 1) : 0);
+    }
+
+    /**
+     * Classifies an error from its type and message, and those of its causes.
+     */
+    static Failure classify(Throwable error) {
+        boolean transientError = false;
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            String message = cause.getMessage() == null ? "" : cause.getMessage().toLowerCase(Locale.ROOT);
+            if (EXPIRED_SESSION.matcher(message).find()) {
+                return Failure.SESSION_EXPIRED;
+            }
+            if (cause instanceof SocketTimeoutException
+                    || cause instanceof ConnectException
+                    || cause instanceof NoRouteToHostException
+                    || cause instanceof SocketException
+                    || "ConnectTimeoutException".equals(cause.getClass().getSimpleName())
+                    || "NoHttpResponseException".equals(cause.getClass().getSimpleName())
+                    || TRANSIENT_STATUS.matcher(message).find()) {
+                transientError = true;
+            }
+        }
+        return transientError ? Failure.TRANSIENT : Failure.PERMANENT;
+    }
+
+    /**
+     * @return whether the error shows the server overloaded: a transient error or any 5xx response
+     */
+    static boolean isOverload(Throwable error) {
+        if (classify(error) == Failure.TRANSIENT) {
+            return true;
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            String message = cause.getMessage() == null ? "" : cause.getMessage().toLowerCase(Locale.ROOT);
+            if (SERVER_ERROR.matcher(message).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
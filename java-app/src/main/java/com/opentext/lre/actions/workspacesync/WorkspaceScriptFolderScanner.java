@@ -3,14 +3,24 @@ package com.opentext.lre.actions.workspacesync;
 import com.opentext.lre.actions.common.helpers.constants.LreTestRunConstants;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 public final class WorkspaceScriptFolderScanner {
 
@@ -21,18 +31,285 @@ public final class WorkspaceScriptFolderScanner {
             LreTestRunConstants.SELENIUM_EXTENSION
     );
 
+    private final int parallelism;
+
+    public WorkspaceScriptFolderScanner() {
+        this(0);
+    }
+
+    /**
+     * @param parallelism number of threads reading folders, 0 for the number of available processors
+     */
+    public WorkspaceScriptFolderScanner(int parallelism) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
     public List<ScriptFolder> findScriptFolders(Path workspaceRoot) throws IOException {
+        return findScriptFolders(workspaceRoot, SyncIgnoreRules.none());
+    }
+
+    public List<ScriptFolder> findScriptFolders(Path workspaceRoot, SyncIgnoreRules ignoreRules) throws IOException {
         List<ScriptFolder> result = new ArrayList<>();
-        scanFolder(workspaceRoot, workspaceRoot, result);
+        try (ScriptFolderScan scan = scan(workspaceRoot, ignoreRules)) {
+            scan.forEachRemaining(result::add);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
         return result;
     }
 
-    private void scanFolder(Path folder, Path workspaceRoot, List<ScriptFolder> result) throws IOException {
+    /**
+     * Starts scanning the workspace in the background, folders being read in parallel.
+     * Script folders are available from the returned scan as soon as they are found.
+     */
+    public ScriptFolderScan scan(Path workspaceRoot) {
+        return scan(workspaceRoot, SyncIgnoreRules.none());
+    }
+
+    /**
+     * Starts scanning the workspace in the background, excluded folders and files being skipped.
+     */
+    public ScriptFolderScan scan(Path workspaceRoot, SyncIgnoreRules ignoreRules) {
+        return scan(workspaceRoot, ignoreRules, null);
+    }
+
+    /**
+     * Starts scanning the workspace in the background, folders unchanged since the scan recorded in the cache
+     * not being read again.
+     *
+     * @param scanCache cache of the previous scan, updated with this one, or null
+     */
+    public ScriptFolderScan scan(Path workspaceRoot, SyncIgnoreRules ignoreRules, ScanCache scanCache) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ScriptFolderScan scan = new ScriptFolderScan(pool);
+        pool.execute(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                try {
+                    new ScanTask(workspaceRoot, workspaceRoot, ignoreRules, scanCache, scan).invoke();
+                } catch (RuntimeException e) {
+                    scan.fail(new IOException("Workspace scan failed: " + e.getMessage(), e));
+                } finally {
+                    scan.complete();
+                }
+            }
+        });
+        return scan;
+    }
+
+    /**
+     * Starts looking for the script folders enclosing the changed paths, without walking the workspace. A changed
+     * path gives the highest script folder among its parent folders, the one a full scan would find. Excluded
+     * paths are ignored.
+     *
+     * @param changedPaths paths relative to the workspace, with '/' separators
+     */
+    public ScriptFolderScan scanChanged(Path workspaceRoot, Collection<String> changedPaths, SyncIgnoreRules ignoreRules) {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        ScriptFolderScan scan = new ScriptFolderScan(pool);
+        // folders already read, whether they are script folders or not
+        Map<Path, Boolean> verdicts = new ConcurrentHashMap<>();
+        Set<Path> found = ConcurrentHashMap.newKeySet();
+        pool.execute(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                try {
+                    List<ChangedPathTask> tasks = new ArrayList<>(changedPaths.size());
+                    for (String changedPath : changedPaths) {
+                        tasks.add(new ChangedPathTask(changedPath, workspaceRoot, ignoreRules, verdicts, found, scan));
+                    }
+                    invokeAll(tasks);
+                } catch (RuntimeException e) {
+                    scan.fail(new IOException("Workspace scan failed: " + e.getMessage(), e));
+                } finally {
+                    scan.complete();
+                }
+            }
+        });
+        return scan;
+    }
+
+    private final class ChangedPathTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final String changedPath;
+        private final Path workspaceRoot;
+        private final SyncIgnoreRules ignoreRules;
+        private final Map<Path, Boolean> verdicts;
+        private final Set<Path> found;
+        private final ScriptFolderScan scan;
+
+        private ChangedPathTask(String changedPath, Path workspaceRoot, SyncIgnoreRules ignoreRules,
+                                Map<Path, Boolean> verdicts, Set<Path> found, ScriptFolderScan scan) {
+            this.changedPath = changedPath;
+            this.workspaceRoot = workspaceRoot;
+            this.ignoreRules = ignoreRules;
+            this.verdicts = verdicts;
+            this.found = found;
+            this.scan = scan;
+        }
 
-        if (!Files.isDirectory(folder, LinkOption.NOFOLLOW_LINKS)) {
-            return;
+        @Override
+        protected void compute() {
+            if (scan.isCancelled()) {
+                return;
+            }
+            try {
+                Path scriptFolder = findEnclosingScriptFolder(changedPath, workspaceRoot, ignoreRules, verdicts, scan);
+                if (scriptFolder != null && found.add(scriptFolder)) {
+                    scan.scriptFolderFound(new ScriptFolder(scriptFolder, workspaceRoot));
+                }
+            } catch (IOException e) {
+                scan.fail(e);
+            }
         }
+    }
 
+    /**
+     * Reads the parent folders of a changed path from the workspace root down, up to the first script folder.
+     *
+     * @return the script folder, or null when the path is excluded or not in a script folder
+     */
+    private Path findEnclosingScriptFolder(String changedPath, Path workspaceRoot, SyncIgnoreRules ignoreRules,
+                                           Map<Path, Boolean> verdicts, ScriptFolderScan scan) throws IOException {
+        Path changed = workspaceRoot.resolve(changedPath);
+        if (ignoreRules.isExcluded(changed, Files.isDirectory(changed, LinkOption.NOFOLLOW_LINKS))) {
+            return null;
+        }
+        String[] names = changedPath.split("/");
+        Path folder = workspaceRoot;
+        for (int i = 0; i <= names.length; i++) {
+            if (i > 0) {
+                folder = folder.resolve(names[i - 1]);
+                if (ignoreRules.isExcluded(folder, true)) {
+                    return null;
+                }
+            }
+            Boolean scriptFolder = verdicts.get(folder);
+            if (scriptFolder == null) {
+                if (!Files.isDirectory(folder, LinkOption.NOFOLLOW_LINKS)) {
+                    return null;
+                }
+                scriptFolder = readFolder(folder, ignoreRules).scriptFolder;
+                if (verdicts.putIfAbsent(folder, scriptFolder) == null) {
+                    scan.folderVisited();
+                }
+            }
+            if (scriptFolder) {
+                return folder;
+            }
+        }
+        return null;
+    }
+
+    private final class ScanTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Path folder;
+        private final Path workspaceRoot;
+        private final SyncIgnoreRules ignoreRules;
+        private final ScanCache scanCache;
+        private final ScriptFolderScan scan;
+
+        private ScanTask(Path folder, Path workspaceRoot, SyncIgnoreRules ignoreRules, ScanCache scanCache,
+                         ScriptFolderScan scan) {
+            this.folder = folder;
+            this.workspaceRoot = workspaceRoot;
+            this.ignoreRules = ignoreRules;
+            this.scanCache = scanCache;
+            this.scan = scan;
+        }
+
+        @Override
+        protected void compute() {
+            if (scan.isCancelled()) {
+                return;
+            }
+            List<Path> subFolders;
+            try {
+                subFolders = scanFolder(folder, workspaceRoot, ignoreRules, scanCache, scan::scriptFolderFound);
+                scan.folderVisited();
+            } catch (IOException e) {
+                scan.fail(e);
+                return;
+            }
+            List<ScanTask> subTasks = new ArrayList<>(subFolders.size());
+            for (Path subFolder : subFolders) {
+                subTasks.add(new ScanTask(subFolder, workspaceRoot, ignoreRules, scanCache, scan));
+            }
+            invokeAll(subTasks);
+        }
+    }
+
+    /**
+     * Reads one folder: reports it if it is a script folder, otherwise returns its sub folders to scan.
+     * Excluded files do not make a script folder, excluded folders are not scanned.
+     */
+    private List<Path> scanFolder(Path folder, Path workspaceRoot, SyncIgnoreRules ignoreRules, ScanCache scanCache,
+                                  Consumer<ScriptFolder> result) throws IOException {
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(folder, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return Collections.emptyList();
+        }
+        if (!attributes.isDirectory()) {
+            return Collections.emptyList();
+        }
+
+        String cacheKey = null;
+        long modifiedMillis = attributes.lastModifiedTime().toMillis();
+        if (scanCache != null) {
+            cacheKey = workspaceRoot.relativize(folder).toString().replace('\\', '/');
+            ScanCache.Folder cached = scanCache.lookup(cacheKey, modifiedMillis);
+            if (cached != null) {
+                if (cached.isScriptFolder()) {
+                    result.accept(new ScriptFolder(folder, workspaceRoot));
+                    return Collections.emptyList();
+                }
+                List<Path> subFolders = new ArrayList<>(cached.getSubFolders().size());
+                for (String name : cached.getSubFolders()) {
+                    subFolders.add(folder.resolve(name));
+                }
+                return subFolders;
+            }
+        }
+
+        FolderListing listing = readFolder(folder, ignoreRules);
+
+        if (listing.scriptFolder) {
+            if (scanCache != null) {
+                scanCache.record(cacheKey, modifiedMillis, true, Collections.emptyList());
+            }
+            result.accept(new ScriptFolder(folder, workspaceRoot));
+            return Collections.emptyList(); // 🔥 prune subtree
+        }
+
+        if (scanCache != null) {
+            List<String> names = new ArrayList<>(listing.subFolders.size());
+            for (Path subFolder : listing.subFolders) {
+                names.add(subFolder.getFileName().toString());
+            }
+            scanCache.record(cacheKey, modifiedMillis, false, names);
+        }
+
+        // Recurse only if this folder is not a script folder
+        return listing.subFolders;
+    }
+
+    private static final class FolderListing {
+        private final boolean scriptFolder;
+        private final List<Path> subFolders;
+
+        private FolderListing(boolean scriptFolder, List<Path> subFolders) {
+            this.scriptFolder = scriptFolder;
+            this.subFolders = subFolders;
+        }
+    }
+
+    /**
+     * Lists a folder: tells whether it is a script folder from its files, and returns its sub folders.
+     */
+    private FolderListing readFolder(Path folder, SyncIgnoreRules ignoreRules) throws IOException {
         boolean containsExtensionScript = false;
         boolean hasDevWebMain = false;
         boolean hasDevWebRts = false;
@@ -42,7 +319,12 @@ public final class WorkspaceScriptFolderScanner {
         try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder)) {
             for (Path child : stream) {
 
-                if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                boolean directory = Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS);
+                if (ignoreRules.isExcluded(child, directory)) {
+                    continue;
+                }
+
+                if (directory) {
                     subFolders.add(child);
                     continue;
                 }
@@ -65,15 +347,7 @@ public final class WorkspaceScriptFolderScanner {
 
         boolean isDevWebScript = hasDevWebMain && hasDevWebRts;
 
-        if (containsExtensionScript || isDevWebScript) {
-            result.add(new ScriptFolder(folder, workspaceRoot));
-            return; // 🔥 prune subtree
-        }
-
-        // Recurse only if this folder is not a script folder
-        for (Path subFolder : subFolders) {
-            scanFolder(subFolder, workspaceRoot, result);
-        }
+        return new FolderListing(containsExtensionScript || isDevWebScript, subFolders);
     }
 
     private boolean isScriptExtension(String fileName) {
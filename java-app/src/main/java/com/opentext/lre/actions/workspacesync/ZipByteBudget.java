@@ -0,0 +1,54 @@
+package com.opentext.lre.actions.workspacesync;
+
+/**
+ * Caps the disk space used by temporary zips waiting for their upload.
+ * A single zip larger than the budget is still admitted when no other zip is held, so the pipeline cannot stall.
+ */
+final class ZipByteBudget {
+    private final long capacity;
+    private long used;
+
+    ZipByteBudget(long capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    /**
+     * Blocks until the requested bytes fit in the budget.
+     *
+     * @return the reserved bytes, to be released or adjusted later
+     */
+    synchronized long acquire(long bytes) throws InterruptedException {
+        long request = Math.max(0, bytes);
+        while (used > 0 && used + request > capacity) {
+            wait();
+        }
+        used += request;
+        return request;
+    }
+
+    /**
+     * Replaces a reservation by the actual size once it is known.
+     *
+     * @return the new reservation
+     */
+    synchronized long adjust(long reserved, long actual) {
+        used += actual - reserved;
+        if (actual < reserved) {
+            notifyAll();
+        }
+        return actual;
+    }
+
+    synchronized void release(long bytes) {
+        used = Math.max(0, used - bytes);
+        notifyAll();
+    }
+
+    synchronized long getUsed() {
+        return used;
+    }
+
+    long getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,314 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Content-addressed cache of script zips, kept between syncs on the same agent so that a script folder whose
+ * content was already zipped is not compressed again. Zips are stored as {@code <content hash>/<script>.zip}.
+ * <p>
+ * The total size of the cache is capped: the least recently used zips are evicted first. The last use of a zip
+ * is its modification time, so the order survives between syncs. Zips leased to an upload are never evicted.
+ * <p>
+ * The cache may be shared by several syncs running on the same agent. Each lease holds a shared lock on its zip,
+ * and the cache is locked as a whole while zips are leased, stored or evicted, so that a sync never evicts or
+ * replaces a zip that another one is uploading.
+ */
+public final class ZipCache {
+    private static final String LOCK_FILE = ".lock";
+
+    private final Path directory;
+    private final long capacityBytes;
+    // access order: the eldest entry is the least recently used
+    private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Path, Integer> leases = new HashMap<>();
+    // leased zip -> channel holding its shared lock
+    private final Map<Path, FileChannel> leaseLocks = new HashMap<>();
+    private long size;
+    private int hits;
+    private int misses;
+
+    private ZipCache(Path directory, long capacityBytes) {
+        this.directory = directory;
+        this.capacityBytes = capacityBytes;
+    }
+
+    /**
+     * Opens the cache stored in the directory, creating it if needed.
+     */
+    public static ZipCache open(Path directory, long capacityBytes) throws IOException {
+        Objects.requireNonNull(directory, "directory");
+        Files.createDirectories(directory);
+        ZipCache cache = new ZipCache(directory, capacityBytes);
+        cache.load();
+        return cache;
+    }
+
+    private void load() throws IOException {
+        Map<Path, FileTime> lastUses = new HashMap<>();
+        try (DirectoryStream<Path> hashDirectories = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path hashDirectory : hashDirectories) {
+                try (DirectoryStream<Path> zips = Files.newDirectoryStream(hashDirectory, "*.zip")) {
+                    for (Path zip : zips) {
+                        lastUses.put(zip, Files.getLastModifiedTime(zip));
+                    }
+                }
+            }
+        }
+        lastUses.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .forEach(entry -> {
+                    long zipSize = sizeOf(entry.getKey());
+                    entries.put(entry.getKey(), zipSize);
+                    size += zipSize;
+                });
+        try (FileChannel cacheLock = lockCache()) {
+            evict();
+        }
+    }
+
+    private static long sizeOf(Path zip) {
+        try {
+            return Files.size(zip);
+        } catch (IOException e) {
+            // evicted by another sync meanwhile
+            return 0;
+        }
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return a lease on the cached zip of the content, or null when it is not cached or cannot be locked
+     */
+    public synchronized Lease acquire(String contentHash, String zipFileName) {
+        Path zip = entryPath(contentHash, zipFileName);
+        try (FileChannel cacheLock = lockCache()) {
+            if (entries.get(zip) != null && Files.isRegularFile(zip)) {
+                Lease lease = lease(zip);
+                hits++;
+                touch(zip);
+                return lease;
+            }
+        } catch (IOException e) {
+            // compressed again, as when not cached
+        }
+        Long removed = entries.remove(zip);
+        if (removed != null) {
+            size -= removed;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Moves a freshly compressed zip into the cache. When the cache already holds a zip of the same content, for
+     * instance stored by another worker or another sync meanwhile, that zip is kept, as it may be leased to an
+     * upload, and the new one is deleted.
+     *
+     * @return a lease on the cached zip, or null when the zip does not fit in the cache and was left in place
+     */
+    public synchronized Lease store(String contentHash, Path zip) throws IOException {
+        long zipSize = Files.size(zip);
+        if (zipSize > capacityBytes) {
+            return null;
+        }
+        Path target = entryPath(contentHash, zip.getFileName().toString());
+        try (FileChannel cacheLock = lockCache()) {
+            Files.createDirectories(target.getParent());
+            Lease lease;
+            if (Files.isRegularFile(target)) {
+                lease = lease(target);
+                Files.delete(zip);
+                zipSize = Files.size(target);
+            } else {
+                try {
+                    Files.move(zip, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(zip, target);
+                }
+                try {
+                    lease = lease(target);
+                } catch (IOException e) {
+                    // uploaded from the staging area instead
+                    Files.move(target, zip);
+                    throw e;
+                }
+            }
+            Long previousSize = entries.put(target, zipSize);
+            size += zipSize - (previousSize == null ? 0 : previousSize);
+            touch(target);
+            evict();
+            return lease;
+        }
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getHits() {
+        return hits;
+    }
+
+    public synchronized int getMisses() {
+        return misses;
+    }
+
+    private Path entryPath(String contentHash, String zipFileName) {
+        return directory.resolve(contentHash).resolve(zipFileName);
+    }
+
+    /**
+     * Locks the whole cache against the other syncs of the agent, until the returned channel is closed.
+     */
+    private FileChannel lockCache() throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        try {
+            channel.lock();
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Leases a zip, taking a shared lock on it for the first lease. Called with the cache locked.
+     */
+    private Lease lease(Path zip) throws IOException {
+        if (!leaseLocks.containsKey(zip)) {
+            FileChannel channel = FileChannel.open(zip, StandardOpenOption.READ);
+            try {
+                channel.lock(0, Long.MAX_VALUE, true);
+            } catch (OverlappingFileLockException e) {
+                // already locked by another cache of this JVM
+                channel.close();
+                channel = null;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+            leaseLocks.put(zip, channel);
+        }
+        leases.merge(zip, 1, Integer::sum);
+        return new Lease(zip);
+    }
+
+    private synchronized void release(Path zip) {
+        leases.computeIfPresent(zip, (path, count) -> count > 1 ? count - 1 : null);
+        if (!leases.containsKey(zip)) {
+            FileChannel channel = leaseLocks.remove(zip);
+            try {
+                if (channel != null) {
+                    // releases the shared lock
+                    channel.close();
+                }
+            } catch (IOException e) {
+                // the lock is released with the channel anyway
+            }
+        }
+        try (FileChannel cacheLock = lockCache()) {
+            evict();
+        } catch (IOException e) {
+            // evicted by the next store or sync
+        }
+    }
+
+    /**
+     * @return whether another sync holds a lease on the zip. Called with the cache locked.
+     */
+    private static boolean isLeasedElsewhere(Path zip) {
+        try (FileChannel channel = FileChannel.open(zip, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            // leased by another cache of this JVM
+            return true;
+        } catch (IOException e) {
+            // already deleted, or left to the deletion below
+            return false;
+        }
+    }
+
+    private void touch(Path zip) {
+        try {
+            Files.setLastModifiedTime(zip, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // only the eviction order across syncs is affected
+        }
+    }
+
+    /**
+     * Called with the cache locked.
+     */
+    private void evict() {
+        Iterator<Map.Entry<Path, Long>> iterator = entries.entrySet().iterator();
+        while (size > capacityBytes && iterator.hasNext()) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            Path zip = entry.getKey();
+            if (leases.containsKey(zip) || isLeasedElsewhere(zip)) {
+                continue;
+            }
+            try {
+                Files.deleteIfExists(zip);
+                Files.deleteIfExists(zip.getParent());
+            } catch (IOException e) {
+                // the hash directory still holds other zips, or the zip is locked: keep it in the size
+                if (Files.exists(zip)) {
+                    continue;
+                }
+            }
+            size -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Keeps a cached zip from being evicted until it is closed.
+     */
+    public final class Lease implements AutoCloseable {
+        private final Path zipPath;
+        private boolean closed;
+
+        private Lease(Path zipPath) {
+            this.zipPath = zipPath;
+        }
+
+        public Path getZipPath() {
+            return zipPath;
+        }
+
+        @Override
+        public void close() {
+            synchronized (ZipCache.this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                release(zipPath);
+            }
+        }
+    }
+}
@@ -1,49 +1,319 @@
 package com.opentext.lre.actions.workspacesync;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
-public final class ZipFolderCompressor {
+/**
+ * Zips script folders. The zips are written to a staging area outside the workspace. Files are deflated or stored
+ * according to the compression policy. Large folders can be deflated on several threads by a
+ * {@link ParallelZipWriter}.
+ */
+public final class ZipFolderCompressor implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Timestamp of the entries of deterministic zips: the earliest date a zip can hold. */
+    static final LocalDateTime DETERMINISTIC_TIME = LocalDateTime.of(1980, 1, 1, 0, 0);
+
+    private final ZipStagingArea stagingArea;
+    private final CompressionPolicy policy;
+    private final int zipThreads;
+    private final long parallelZipMinBytes;
+    private final SyncIgnoreRules ignoreRules;
+    private final CompressionStats stats = new CompressionStats();
+    private ExecutorService zipPool;
+
+    public ZipFolderCompressor(ZipStagingArea stagingArea) {
+        this(stagingArea, CompressionPolicy.defaults());
+    }
+
+    public ZipFolderCompressor(ZipStagingArea stagingArea, CompressionPolicy policy) {
+        this(stagingArea, policy, 1, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param zipThreads          number of threads deflating the blocks of a large folder, 1 to zip on one thread
+     * @param parallelZipMinBytes folders smaller than this are zipped on one thread
+     */
+    public ZipFolderCompressor(ZipStagingArea stagingArea, CompressionPolicy policy, int zipThreads, long parallelZipMinBytes) {
+        this(stagingArea, policy, zipThreads, parallelZipMinBytes, SyncIgnoreRules.none());
+    }
+
+    /**
+     * @param ignoreRules excluded files and folders are left out of the zips
+     */
+    public ZipFolderCompressor(ZipStagingArea stagingArea, CompressionPolicy policy, int zipThreads, long parallelZipMinBytes,
+                               SyncIgnoreRules ignoreRules) {
+        this.ignoreRules = Objects.requireNonNull(ignoreRules, "ignoreRules");
+        this.stagingArea = Objects.requireNonNull(stagingArea, "stagingArea");
+        this.policy = Objects.requireNonNull(policy, "policy");
+        this.zipThreads = Math.max(1, zipThreads);
+        this.parallelZipMinBytes = parallelZipMinBytes;
+    }
+
+    public CompressionStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Zips the folder into the staging area.
+     *
+     * @return the zip, to be deleted with {@link ZipStagingArea#delete(Path)}
+     */
     public Path compressFolder(ScriptFolder folder) throws IOException {
+        return compressFolder(list(folder));
+    }
+
+    /**
+     * Zips the listed files into the staging area.
+     *
+     * @return the zip, to be deleted with {@link ZipStagingArea#delete(Path)}
+     */
+    public Path compressFolder(Listing listing) throws IOException {
+        Objects.requireNonNull(listing, "listing");
+        Path zipPath = stagingArea.newZipPath(listing.folder);
+        try (OutputStream outputStream = Files.newOutputStream(zipPath)) {
+            write(listing, outputStream);
+        } catch (IOException e) {
+            ZipStagingArea.delete(zipPath);
+            throw e;
+        }
+        return zipPath;
+    }
+
+    /**
+     * Lists the files of the folder that its zip holds, with the exclude rules and the runtime-only filter applied,
+     * so that its size can be estimated and the folder zipped from a single walk.
+     */
+    public Listing list(ScriptFolder folder) throws IOException {
         Objects.requireNonNull(folder, "folder");
-        Path baseDir = folder.getFullPath();
-        Path zipPath = baseDir.getParent().resolve(folder.getZipFileName());
-
-        try (OutputStream outputStream = Files.newOutputStream(zipPath);
-             ZipOutputStream zipStream = new ZipOutputStream(outputStream)) {
-            Files.walkFileTree(baseDir, new SimpleFileVisitor<>() {
-                @Override
-                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                    Path relative = baseDir.relativize(dir);
-                    if (!relative.toString().isEmpty()) {
-                        ZipEntry entry = new ZipEntry(relative.toString().replace("\\", "/") + "/");
-                        zipStream.putNextEntry(entry);
-                        zipStream.closeEntry();
-                    }
+        return new Listing(folder, listEntries(folder.getFullPath()));
+    }
+
+    private void write(Listing listing, OutputStream outputStream) throws IOException {
+        List<FolderEntry> entries = new ArrayList<>(listing.entries);
+        if (policy.isDeterministic()) {
+            entries.sort(Comparator.comparing(entry -> entry.name));
+        }
+        OutputStream target = new BufferedOutputStream(outputStream);
+        if (isParallelZipWorthIt(entries)) {
+            writeParallel(entries, target);
+        } else {
+            writeSequential(entries, target);
+        }
+    }
+
+    private List<FolderEntry> listEntries(Path baseDir) throws IOException {
+        SyncIgnoreRules ignoreRules = this.ignoreRules.forScriptFolder(baseDir);
+        List<FolderEntry> entries = new ArrayList<>();
+        Files.walkFileTree(baseDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (ignoreRules.isExcluded(dir, true)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                Path relative = baseDir.relativize(dir);
+                if (!relative.toString().isEmpty()) {
+                    entries.add(new FolderEntry(relative.toString().replace("\\", "/") + "/", dir, true, 0));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (ignoreRules.isExcluded(file, false)) {
                     return FileVisitResult.CONTINUE;
                 }
+                Path relative = baseDir.relativize(file);
+                entries.add(new FolderEntry(relative.toString().replace("\\", "/"), file, false, attrs.size()));
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return entries;
+    }
+
+    private boolean isParallelZipWorthIt(List<FolderEntry> entries) {
+        // deterministic zips must not depend on the number of threads of the agent
+        if ((zipThreads < 2 && !policy.isDeterministic()) || entries.size() >= ParallelZipWriter.MAX_ENTRIES) {
+            return false;
+        }
+        long totalSize = entries.stream().mapToLong(entry -> entry.size).sum();
+        // ZIP64 archives are left to ZipOutputStream
+        return totalSize >= parallelZipMinBytes && totalSize < ParallelZipWriter.MAX_ARCHIVE_SIZE / 2;
+    }
 
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    Path relative = baseDir.relativize(file);
-                    ZipEntry entry = new ZipEntry(relative.toString().replace("\\", "/"));
+    private void writeSequential(List<FolderEntry> entries, OutputStream target) throws IOException {
+        try (ZipOutputStream zipStream = new ZipOutputStream(target)) {
+            zipStream.setLevel(policy.getLevel());
+            for (FolderEntry folderEntry : entries) {
+                ZipEntry entry = new ZipEntry(folderEntry.name);
+                if (policy.isDeterministic()) {
+                    entry.setTimeLocal(DETERMINISTIC_TIME);
+                }
+                if (folderEntry.directory) {
                     zipStream.putNextEntry(entry);
-                    Files.copy(file, zipStream);
                     zipStream.closeEntry();
-                    return FileVisitResult.CONTINUE;
+                } else if (isStored(folderEntry.path, folderEntry.size)) {
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(folderEntry.size);
+                    entry.setCompressedSize(folderEntry.size);
+                    entry.setCrc(crc32(folderEntry.path));
+                    zipStream.putNextEntry(entry);
+                    Files.copy(folderEntry.path, zipStream);
+                    zipStream.closeEntry();
+                    stats.recordStored(folderEntry.size);
+                } else {
+                    long start = CompressionStats.cpuTimeNanos();
+                    zipStream.putNextEntry(entry);
+                    Files.copy(folderEntry.path, zipStream);
+                    zipStream.closeEntry();
+                    stats.recordDeflated(folderEntry.size, CompressionStats.cpuTimeNanos() - start);
                 }
+            }
+        }
+    }
+
+    private void writeParallel(List<FolderEntry> entries, OutputStream target) throws IOException {
+        LocalDateTime entryTime = policy.isDeterministic() ? DETERMINISTIC_TIME : LocalDateTime.now();
+        ParallelZipWriter writer = new ParallelZipWriter(target, zipPool(), zipThreads, policy.getLevel(), entryTime, stats);
+        boolean finished = false;
+        try {
+            for (FolderEntry folderEntry : entries) {
+                if (folderEntry.directory) {
+                    writer.putDirectory(folderEntry.name);
+                } else if (isStored(folderEntry.path, folderEntry.size)) {
+                    writer.putStored(folderEntry.name, folderEntry.path, folderEntry.size, crc32(folderEntry.path));
+                    stats.recordStored(folderEntry.size);
+                } else {
+                    writer.putDeflated(folderEntry.name, folderEntry.path);
+                    stats.recordDeflatedFile();
+                }
+            }
+            writer.finish();
+            target.flush();
+            finished = true;
+        } finally {
+            if (!finished) {
+                writer.abort();
+            }
+        }
+    }
+
+    private synchronized ExecutorService zipPool() {
+        if (zipPool == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            zipPool = Executors.newFixedThreadPool(zipThreads, runnable -> {
+                Thread thread = new Thread(runnable, "lre-sync-zip-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
             });
         }
+        return zipPool;
+    }
 
-        return zipPath;
+    /**
+     * Stops the threads of the parallel zip writer.
+     */
+    @Override
+    public synchronized void close() {
+        if (zipPool != null) {
+            zipPool.shutdownNow();
+            zipPool = null;
+        }
+    }
+
+    private boolean isStored(Path file, long size) throws IOException {
+        if (policy.isStored(file.getFileName().toString())) {
+            return true;
+        }
+        return policy.needsTrial(size) && isPoorlyCompressible(file);
     }
-}
 
+    /**
+     * Deflates the beginning of the file to find out whether deflating it is worth it.
+     */
+    private boolean isPoorlyCompressible(Path file) throws IOException {
+        byte[] sample;
+        try (InputStream in = Files.newInputStream(file)) {
+            sample = in.readNBytes(CompressionPolicy.TRIAL_SAMPLE_SIZE);
+        }
+        long start = CompressionStats.cpuTimeNanos();
+        Deflater deflater = new Deflater(policy.getLevel(), true);
+        int compressedSize = 0;
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!deflater.finished()) {
+                compressedSize += deflater.deflate(buffer);
+            }
+        } finally {
+            deflater.end();
+        }
+        stats.recordDeflateTime(sample.length, CompressionStats.cpuTimeNanos() - start);
+        return policy.isPoorlyCompressible(sample.length, compressedSize);
+    }
+
+    private static long crc32(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Files of a script folder to zip.
+     */
+    public static final class Listing {
+        private final ScriptFolder folder;
+        private final List<FolderEntry> entries;
+
+        private Listing(ScriptFolder folder, List<FolderEntry> entries) {
+            this.folder = folder;
+            this.entries = entries;
+        }
+
+        /**
+         * @return the sum of the sizes of the listed files, an upper bound of the zip size in practice
+         */
+        public long getTotalSize() {
+            return entries.stream().mapToLong(entry -> entry.size).sum();
+        }
+    }
+
+    private static final class FolderEntry {
+        private final String name;
+        private final Path path;
+        private final boolean directory;
+        private final long size;
+
+        private FolderEntry(String name, Path path, boolean directory, long size) {
+            this.name = name;
+            this.path = path;
+            this.directory = directory;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.opentext.lre.actions.workspacesync;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+
+/**
+ * Private directory where script zips are staged between their compression and their upload, outside the
+ * workspace. Each zip is staged alone in its own sub directory so that it keeps the name of its script folder.
+ * <p>
+ * The directory is removed when the staging area is closed or the JVM exits. It holds a lock file for its whole
+ * life, so that the directories left behind by a killed process can be told apart from those of a running sync
+ * and removed by the next one.
+ */
+public final class ZipStagingArea implements AutoCloseable {
+    static final String DIRECTORY_PREFIX = "lre-sync-";
+    private static final String LOCK_FILE = ".lock";
+    private static final long UNLOCKED_GRACE_PERIOD_MS = 60 * 60 * 1000L;
+
+    private final Path directory;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final Thread shutdownHook;
+
+    private ZipStagingArea(Path directory, FileChannel lockChannel, FileLock lock) {
+        this.directory = directory;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+        this.shutdownHook = new Thread(this::deleteDirectory, "lre-sync-staging-cleanup");
+    }
+
+    /**
+     * Creates a staging area in the system temporary directory.
+     */
+    public static ZipStagingArea create() throws IOException {
+        return create(Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    /**
+     * Creates a staging area in the given directory, after removing the staging areas abandoned there.
+     */
+    public static ZipStagingArea create(Path parentDirectory) throws IOException {
+        Objects.requireNonNull(parentDirectory, "parentDirectory");
+        Files.createDirectories(parentDirectory);
+        deleteAbandoned(parentDirectory);
+
+        Path directory = Files.createTempDirectory(parentDirectory, DIRECTORY_PREFIX);
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock = lockChannel.lock();
+        ZipStagingArea stagingArea = new ZipStagingArea(directory, lockChannel, lock);
+        Runtime.getRuntime().addShutdownHook(stagingArea.shutdownHook);
+        return stagingArea;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return a path, in a new empty sub directory, where the zip of the script folder can be written
+     */
+    public Path newZipPath(ScriptFolder folder) throws IOException {
+        Path zipDirectory = Files.createTempDirectory(directory, "zip-");
+        return zipDirectory.resolve(folder.getZipFileName());
+    }
+
+    /**
+     * Deletes a zip staged by {@link #newZipPath(ScriptFolder)} and its sub directory.
+     */
+    public static void delete(Path zipPath) throws IOException {
+        Files.deleteIfExists(zipPath);
+        Path zipDirectory = zipPath.getParent();
+        if (zipDirectory != null && zipDirectory.getFileName().toString().startsWith("zip-")) {
+            Files.deleteIfExists(zipDirectory);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            Runtime.getRuntime().removeShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // the JVM is shutting down, the hook takes care of the cleanup
+            return;
+        }
+        deleteDirectory();
+    }
+
+    private synchronized void deleteDirectory() {
+        try {
+            if (lock.isValid()) {
+                lock.release();
+            }
+            lockChannel.close();
+            deleteRecursively(directory);
+        } catch (IOException e) {
+            // best effort: the next sync removes the abandoned directory
+        }
+    }
+
+    private static void deleteAbandoned(Path parentDirectory) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(parentDirectory, DIRECTORY_PREFIX + "*")) {
+            for (Path candidate : stream) {
+                if (Files.isDirectory(candidate) && !isInUse(candidate)) {
+                    deleteRecursively(candidate);
+                }
+            }
+        } catch (IOException e) {
+            // best effort: abandoned directories only waste disk space
+        }
+    }
+
+    private static boolean isInUse(Path stagingDirectory) {
+        Path lockFile = stagingDirectory.resolve(LOCK_FILE);
+        if (!Files.exists(lockFile)) {
+            // possibly being created by another sync
+            try {
+                long age = System.currentTimeMillis() - Files.getLastModifiedTime(stagingDirectory).toMillis();
+                return age < UNLOCKED_GRACE_PERIOD_MS;
+            } catch (IOException e) {
+                return true;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            if (lock == null) {
+                return true;
+            }
+            lock.release();
+            return false;
+        } catch (OverlappingFileLockException e) {
+            // locked by this JVM
+            return true;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    private static void deleteRecursively(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.deleteIfExists(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package com.opentext.lre.actions.runtest;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PostRunAction;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+public class LreRunHandleTest extends TestCase {
+    public void testWrittenHandleIsReadBack() throws Exception {
+        Path file = Files.createTempDirectory("lre-ws").resolve("LreResult").resolve(LreRunHandle.DEFAULT_FILE_NAME);
+        new LreRunHandle(42, "7", "My test", "3", "USE_ID", PostRunAction.COLLATE_AND_ANALYZE,
+                "server/?tenant=abc", "domain", "project", 1700000000000L, 90).write(file);
+
+        LreRunHandle handle = LreRunHandle.read(file);
+
+        assertEquals(42, handle.getRunId());
+        assertEquals("7", handle.getTestId());
+        assertEquals("My test", handle.getTestName());
+        assertEquals("3", handle.getTrendReportId());
+        assertEquals("USE_ID", handle.getAddRunToTrendReport());
+        assertEquals(PostRunAction.COLLATE_AND_ANALYZE, handle.getPostRunAction());
+        assertEquals(1700000000000L, handle.getStartedAt());
+        assertEquals(90, handle.getTimeslotMinutes());
+        assertTrue(handle.belongsTo(MockLreTestRunModel.existingTest("server?tenant=abc", "PROJECT")));
+        assertFalse(handle.belongsTo(MockLreTestRunModel.existingTest("server?tenant=abc", "other")));
+        assertEquals(90, LreTestRunClient.timeslotMinutes(MockLreTestRunModel.existingTest("server", "project")));
+    }
+
+    public void testMissingOrInvalidHandleIsReported() throws Exception {
+        Path directory = Files.createTempDirectory("lre-ws");
+        try {
+            LreRunHandle.read(directory.resolve(LreRunHandle.DEFAULT_FILE_NAME));
+            fail("missing handle read");
+        } catch (IOException expected) {
+        }
+        Path file = Files.writeString(directory.resolve(LreRunHandle.DEFAULT_FILE_NAME), "{\"runId\":");
+        try {
+            LreRunHandle.read(file);
+            fail("invalid handle read");
+        } catch (IOException expected) {
+        }
+    }
+
+    public void testFailedWriteLeavesNoTemporaryFile() throws Exception {
+        Path directory = Files.createTempDirectory("lre-ws");
+        // a folder in place of the handle cannot be replaced
+        Path file = Files.createDirectories(directory.resolve(LreRunHandle.DEFAULT_FILE_NAME));
+        Files.writeString(file.resolve("other"), "other");
+        try {
+            new LreRunHandle(42, "7", "My test", "", "", PostRunAction.DO_NOTHING, "server", "domain", "project",
+                    1700000000000L, 90).write(file);
+            fail("handle written over a folder");
+        } catch (IOException expected) {
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+}
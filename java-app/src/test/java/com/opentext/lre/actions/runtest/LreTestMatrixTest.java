@@ -0,0 +1,14 @@
+package com.opentext.lre.actions.runtest;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Paths;
+
+public class LreTestMatrixTest extends TestCase {
+    public void testRunHandleFilesAreNumbered() {
+        LreTestRunModel model = MockLreTestRunModel.existingTest("server", "project");
+        assertEquals(Paths.get("LreResult", "lre_run_handle_2.json"), LreTestMatrix.runHandleFile(model, 2));
+        model.setRunHandleFile("handles/run");
+        assertEquals(Paths.get("handles", "run_3"), LreTestMatrix.runHandleFile(model, 3));
+    }
+}
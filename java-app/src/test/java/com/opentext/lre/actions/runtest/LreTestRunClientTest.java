@@ -0,0 +1,237 @@
+package com.opentext.lre.actions.runtest;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcException;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcRunResponse;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcTest;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcTestInstance;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcTestInstances;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcTestSet;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcTestSets;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.Timeslot;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.TimeslotDuration;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.Timeslots;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.pcsubentities.test.Test;
+import com.microfocus.adm.performancecenter.plugins.common.rest.PcRestProxy;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class LreTestRunClientTest extends TestCase {
+    private static final int RUN_ID = 11;
+    private static final int CREATED_INSTANCE_ID = 9;
+
+    /** Answers the lookups made before starting a run, after all of them were sent when lookups is set. */
+    private static final class LookupProxy extends PcRestProxy {
+        private final Set<String> looked = ConcurrentHashMap.newKeySet();
+        private CyclicBarrier lookups;
+        private int timeslotInstanceId = -1;
+        private int testInstanceId = -1;
+        private PcException testFailure;
+        private PcException trendReportFailure;
+        private long trendReportMillis;
+        private Set<String> lookedBeforeCreation;
+        private int startedInstanceId;
+
+        private LookupProxy() throws PcException {
+            super("http", "server", false, "domain", "project", "", "", "");
+        }
+
+        private void lookup() throws IOException {
+            if (lookups == null) {
+                return;
+            }
+            try {
+                lookups.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+                throw new IOException("The lookups were not sent together.", e);
+            }
+        }
+
+        @Override
+        public Test getTest(int id) throws PcException, IOException {
+            lookup();
+            if (testFailure != null) {
+                throw testFailure;
+            }
+            looked.add("test");
+            return new Test() {
+                @Override
+                public String getID() {
+                    return String.valueOf(id);
+                }
+            };
+        }
+
+        @Override
+        public Timeslots GetOpenTimeslotsByTestId(int id) throws PcException, IOException {
+            lookup();
+            looked.add("timeslot");
+            List<Timeslot> timeslots = timeslotInstanceId < 0
+                    ? Collections.emptyList() : Collections.singletonList(new Timeslot() {
+                @Override
+                public int getID() {
+                    return 21;
+                }
+
+                @Override
+                public int getLoadTestInstanceID() {
+                    return timeslotInstanceId;
+                }
+
+                @Override
+                public String getPostRunAction() {
+                    return "CollateAnalyze";
+                }
+            });
+            return new Timeslots() {
+                @Override
+                public List<Timeslot> getTimeslotsList() {
+                    return timeslots;
+                }
+            };
+        }
+
+        @Override
+        public PcTestInstances getTestInstancesByTestId(int id) throws PcException, IOException {
+            lookup();
+            looked.add("test instances");
+            if (testInstanceId < 0) {
+                return null;
+            }
+            PcTestInstance instance = new PcTestInstance() {
+                @Override
+                public int getInstanceId() {
+                    return testInstanceId;
+                }
+            };
+            return new PcTestInstances() {
+                @Override
+                public List<PcTestInstance> getTestInstancesList() {
+                    return Collections.singletonList(instance);
+                }
+            };
+        }
+
+        @Override
+        public PcTest getTestData(int id) throws PcException, IOException {
+            lookup();
+            try {
+                Thread.sleep(trendReportMillis);
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            if (trendReportFailure != null) {
+                throw trendReportFailure;
+            }
+            looked.add("trend report");
+            return new PcTest() {
+                @Override
+                public int getTrendReportId() {
+                    return 5;
+                }
+            };
+        }
+
+        @Override
+        public PcTestSets GetAllTestSets() throws PcException, IOException {
+            PcTestSet testSet = new PcTestSet() {
+                @Override
+                public int getTestSetID() {
+                    return 3;
+                }
+            };
+            return new PcTestSets() {
+                @Override
+                public List<PcTestSet> getPcTestSetsList() {
+                    return Collections.singletonList(testSet);
+                }
+            };
+        }
+
+        @Override
+        public int createTestInstance(int testId, int testSetId) throws PcException, IOException {
+            lookedBeforeCreation = Set.copyOf(looked);
+            return CREATED_INSTANCE_ID;
+        }
+
+        @Override
+        public PcRunResponse startRun(int testId, int testInstanceId, TimeslotDuration duration, String postRunAction,
+                                      boolean vudsMode, int timeslotId) throws PcException, IOException {
+            startedInstanceId = testInstanceId;
+            return new PcRunResponse() {
+                @Override
+                public int getID() {
+                    return RUN_ID;
+                }
+            };
+        }
+    }
+
+    private static LreTestRunClient createClient(LookupProxy proxy) {
+        LreTestRunModel model = MockLreTestRunModel.existingTest("server", "project", true);
+        model.setAddRunToTrendReport("ASSOCIATED");
+        model.setTrendReportId("");
+        return new LreTestRunClient(model, proxy);
+    }
+
+    public void testLookupsAreSentTogether() throws Exception {
+        LookupProxy proxy = new LookupProxy();
+        proxy.lookups = new CyclicBarrier(4);
+        proxy.testInstanceId = 7;
+
+        assertEquals(RUN_ID, createClient(proxy).startRun());
+        assertEquals(Set.of("test", "timeslot", "test instances", "trend report"), proxy.looked);
+        assertEquals(7, proxy.startedInstanceId);
+    }
+
+    public void testInstanceOfTheTimeslotIsUsed() throws Exception {
+        LookupProxy proxy = new LookupProxy();
+        proxy.timeslotInstanceId = 8;
+        proxy.testInstanceId = 7;
+
+        assertEquals(RUN_ID, createClient(proxy).startRun());
+        assertEquals(8, proxy.startedInstanceId);
+        assertNull(proxy.lookedBeforeCreation);
+    }
+
+    public void testInstanceIsCreatedAfterEveryLookup() throws Exception {
+        LookupProxy proxy = new LookupProxy();
+        proxy.trendReportMillis = 200;
+
+        assertEquals(RUN_ID, createClient(proxy).startRun());
+        assertEquals(CREATED_INSTANCE_ID, proxy.startedInstanceId);
+        assertEquals(Set.of("test", "timeslot", "test instances", "trend report"), proxy.lookedBeforeCreation);
+    }
+
+    public void testTestLookupFailureFailsTheStart() throws Exception {
+        LookupProxy proxy = new LookupProxy();
+        proxy.testFailure = new PcException("No such test");
+        try {
+            createClient(proxy).startRun();
+            fail("The start should have failed");
+        } catch (PcException e) {
+            assertSame(proxy.testFailure, e);
+        }
+        assertNull(proxy.lookedBeforeCreation);
+    }
+
+    public void testTrendReportLookupFailureFailsTheStart() throws Exception {
+        LookupProxy proxy = new LookupProxy();
+        proxy.trendReportFailure = new PcException("No trend report");
+        try {
+            createClient(proxy).startRun();
+            fail("The start should have failed");
+        } catch (PcException e) {
+            assertSame(proxy.trendReportFailure, e);
+        }
+        assertNull(proxy.lookedBeforeCreation);
+    }
+}
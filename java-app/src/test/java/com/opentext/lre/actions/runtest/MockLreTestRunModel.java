@@ -68,4 +68,19 @@ public class MockLreTestRunModel  extends LreTestRunModel {
                 workspace);
     }
 
+    /**
+     * @return a model running the existing test 1 with its AUTO test instance in a 1 hour 30 minutes timeslot
+     */
+    public static MockLreTestRunModel existingTest(String serverAndPort, String project) {
+        return existingTest(serverAndPort, project, false);
+    }
+
+    /**
+     * @param searchTimeslot whether an opened timeslot of the test is searched before starting the run
+     */
+    public static MockLreTestRunModel existingTest(String serverAndPort, String project, boolean searchTimeslot) {
+        return new MockLreTestRunModel(serverAndPort, "user", "pass", "domain", project, "EXISTING_TEST", "1", "",
+                "AUTO", "", "1", "30", PostRunAction.COLLATE_AND_ANALYZE, false, "desc", "", "", false, "", "",
+                "", "NO_RETRY", "0", "0", "0", false, searchTimeslot, false, false, "out", "ws");
+    }
 }
@@ -0,0 +1,137 @@
+package com.opentext.lre.actions.runtest;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcException;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PcRunResponse;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.PostRunAction;
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.RunState;
+import com.microfocus.adm.performancecenter.plugins.common.rest.PcRestProxy;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class RunStateMonitorTest extends TestCase {
+    private static final class Response extends PcRunResponse {
+        private final int id;
+        private final RunState state;
+
+        private Response(int id, RunState state) {
+            this.id = id;
+            this.state = state;
+        }
+
+        @Override
+        public int getID() {
+            return id;
+        }
+
+        @Override
+        public String getRunState() {
+            return state.value();
+        }
+    }
+
+    /** Goes through the states of each run, one per poll, then stays in the last one. */
+    private static final class ScriptedProxy extends PcRestProxy {
+        private final Map<Integer, Deque<RunState>> states = new HashMap<>();
+        private final List<Integer> stopped = new ArrayList<>();
+        private int polls;
+
+        private ScriptedProxy() throws PcException {
+            super("http", "server", false, "domain", "project", "", "", "");
+        }
+
+        private void script(int runId, RunState... runStates) {
+            states.put(runId, new ArrayDeque<>(Arrays.asList(runStates)));
+        }
+
+        @Override
+        public synchronized PcRunResponse getRunData(int runId) throws PcException, IOException {
+            polls++;
+            Deque<RunState> run = states.get(runId);
+            return new Response(runId, run.size() > 1 ? run.poll() : run.peek());
+        }
+
+        @Override
+        public synchronized boolean stopRun(int runId, String stopMode) throws PcException, IOException {
+            stopped.add(runId);
+            return true;
+        }
+    }
+
+    private static LreTestRunModel createModel() {
+        return MockLreTestRunModel.existingTest("server", "project");
+    }
+
+    public void testRunsAreWatchedUntilComplete() throws Exception {
+        ScriptedProxy proxy = new ScriptedProxy();
+        proxy.script(1, RunState.INITIALIZING, RunState.RUNNING, RunState.FINISHED);
+        proxy.script(2, RunState.RUNNING, RunState.RUN_FAILURE);
+        RunState completion = LreTestRunClient.completionState(PostRunAction.COLLATE_AND_ANALYZE);
+
+        CompletableFuture<PcRunResponse> first;
+        CompletableFuture<PcRunResponse> second;
+        try (RunStateMonitor monitor = new RunStateMonitor(new LreTestRunClient(createModel(), proxy))) {
+            first = monitor.watch(1, completion, new RunStatePollScheduler(10, 10, 0));
+            second = monitor.watch(2, completion, new RunStatePollScheduler(10, 10, 0));
+
+            assertEquals(RunState.FINISHED.value(), first.get(10, TimeUnit.SECONDS).getRunState());
+            assertEquals(RunState.RUN_FAILURE.value(), second.get(10, TimeUnit.SECONDS).getRunState());
+        }
+        assertEquals(5, proxy.polls);
+    }
+
+    public void testFailingPollFailsOnlyItsRun() throws Exception {
+        ScriptedProxy proxy = new ScriptedProxy();
+        proxy.script(2, RunState.RUNNING, RunState.FINISHED);
+
+        CompletableFuture<PcRunResponse> failing;
+        CompletableFuture<PcRunResponse> other;
+        try (RunStateMonitor monitor = new RunStateMonitor(new LreTestRunClient(createModel(), proxy))) {
+            // run 1 is not scripted: polling it throws
+            failing = monitor.watch(1, RunState.FINISHED, new RunStatePollScheduler(10, 10, 0));
+            other = monitor.watch(2, RunState.FINISHED, new RunStatePollScheduler(10, 10, 0));
+
+            assertEquals(RunState.FINISHED.value(), other.get(10, TimeUnit.SECONDS).getRunState());
+        }
+        try {
+            failing.get();
+            fail("The run should have failed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof NullPointerException);
+        }
+    }
+
+    public void testClosingCancelsWatchedRuns() throws Exception {
+        ScriptedProxy proxy = new ScriptedProxy();
+        proxy.script(1, RunState.RUNNING);
+        CompletableFuture<PcRunResponse> run;
+        try (RunStateMonitor monitor = new RunStateMonitor(new LreTestRunClient(createModel(), proxy))) {
+            run = monitor.watch(1, RunState.FINISHED, new RunStatePollScheduler(60000, 60000, 0));
+        }
+        // a run still going on is not taken for a complete one
+        assertTrue(run.isCancelled());
+    }
+
+    public void testRunsStillWatchedAreStopped() throws Exception {
+        ScriptedProxy proxy = new ScriptedProxy();
+        proxy.script(1, RunState.FINISHED);
+        proxy.script(2, RunState.RUNNING);
+        try (RunStateMonitor monitor = new RunStateMonitor(new LreTestRunClient(createModel(), proxy))) {
+            monitor.watch(1, RunState.FINISHED, new RunStatePollScheduler(10, 10, 0)).get(10, TimeUnit.SECONDS);
+            monitor.watch(2, RunState.FINISHED, new RunStatePollScheduler(60000, 60000, 0));
+            monitor.stopRuns();
+        }
+        assertEquals(Collections.singletonList(2), proxy.stopped);
+    }
+}
@@ -0,0 +1,43 @@
+package com.opentext.lre.actions.runtest;
+
+import com.microfocus.adm.performancecenter.plugins.common.pcentities.RunState;
+import junit.framework.TestCase;
+
+public class RunStatePollSchedulerTest extends TestCase {
+    private static final long HOUR = 60 * 60 * 1000;
+
+    public void testUnchangedStateBacksOffUntilTheMaximum() {
+        RunStatePollScheduler scheduler = new RunStatePollScheduler(1000, 8000, 0, 0);
+
+        assertEquals(1000, scheduler.onPoll(RunState.INITIALIZING, 0));
+        assertEquals(2000, scheduler.onPoll(RunState.INITIALIZING, 1000));
+        assertEquals(4000, scheduler.onPoll(RunState.INITIALIZING, 3000));
+        assertEquals(8000, scheduler.onPoll(RunState.INITIALIZING, 7000));
+        assertEquals(8000, scheduler.onPoll(RunState.INITIALIZING, 15000));
+        // the next state often follows quickly
+        assertEquals(1000, scheduler.onPoll(RunState.COLLATING_RESULTS, 23000));
+
+        assertEquals(6, scheduler.getPollCount());
+        assertEquals(1, scheduler.getStateChanges());
+    }
+
+    public void testRunningIsPolledByTheRemainingTimeslot() {
+        RunStatePollScheduler scheduler = new RunStatePollScheduler(1000, 10 * 60 * 1000, 2 * HOUR, 0);
+
+        // a tenth of the two hours left, capped
+        assertEquals(10 * 60 * 1000, scheduler.onPoll(RunState.RUNNING, 0));
+        assertEquals(6 * 60 * 1000, scheduler.onPoll(RunState.RUNNING, HOUR));
+        assertEquals(30 * 1000, scheduler.onPoll(RunState.RUNNING, 2 * HOUR - 5 * 60 * 1000));
+        // past the end of the timeslot: backs off as an unchanged state
+        assertEquals(8000, scheduler.onPoll(RunState.RUNNING, 3 * HOUR));
+        assertEquals(16000, scheduler.onPoll(RunState.RUNNING, 3 * HOUR + 8000));
+    }
+
+    public void testFixedInterval() {
+        RunStatePollScheduler scheduler = RunStatePollScheduler.fixed(5000);
+
+        assertEquals(5000, scheduler.onPoll(RunState.INITIALIZING));
+        assertEquals(5000, scheduler.onPoll(RunState.INITIALIZING));
+        assertEquals(5000, scheduler.onPoll(RunState.RUNNING));
+    }
+}
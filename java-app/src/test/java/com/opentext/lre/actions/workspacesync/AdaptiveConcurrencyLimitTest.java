@@ -0,0 +1,53 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+public class AdaptiveConcurrencyLimitTest extends TestCase {
+    public void testOverloadHalvesLimitOnceDownToMinimum() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 3, 8);
+        AdaptiveConcurrencyLimit.Permit first = limit.acquire();
+        AdaptiveConcurrencyLimit.Permit second = limit.acquire();
+
+        limit.onOverload(first);
+        limit.release(first, 0, false);
+        assertEquals(4, limit.getLimit());
+        // started before the decrease: its overload is part of the same congestion
+        limit.onOverload(second);
+        limit.release(second, 0, false);
+        assertEquals(4, limit.getLimit());
+
+        AdaptiveConcurrencyLimit.Permit third = limit.acquire();
+        limit.onOverload(third);
+        limit.release(third, 0, false);
+        assertEquals(3, limit.getLimit());
+    }
+
+    public void testFailureWithoutOverloadKeepsLimit() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 3, 8);
+
+        limit.release(limit.acquire(), 0, false);
+        assertEquals(8, limit.getLimit());
+    }
+
+    public void testLimitRaisedAfterWindowOfSuccessfulUploads() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 3);
+        AdaptiveConcurrencyLimit.Permit first = limit.acquire();
+        AdaptiveConcurrencyLimit.Permit second = limit.acquire();
+
+        limit.release(first, 1000, true);
+        assertEquals(2, limit.getLimit());
+        Thread.sleep(5);
+        limit.release(second, 1000, true);
+        assertEquals(3, limit.getLimit());
+    }
+
+    public void testFixedLimitIsNotTuned() throws Exception {
+        AdaptiveConcurrencyLimit limit = AdaptiveConcurrencyLimit.fixed(2);
+
+        assertFalse(limit.isAdaptive());
+        limit.release(limit.acquire(), 0, false);
+        limit.release(limit.acquire(), 1000, true);
+        limit.release(limit.acquire(), 1000, true);
+        assertEquals(2, limit.getLimit());
+    }
+}
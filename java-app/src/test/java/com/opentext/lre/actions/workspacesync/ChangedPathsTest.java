@@ -0,0 +1,29 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ChangedPathsTest extends TestCase {
+    public void testOptionIsNotTakenForBaseRevision() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        try {
+            ChangedPaths.fromGitDiff(workspace, "--output=changes.txt");
+            fail("The base revision should have been rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("is not a revision"));
+        }
+        try (var files = Files.list(workspace)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    public void testPathsOutsideOfWorkspaceAreIgnored() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        assertEquals(List.of("scripts/a/Action.c", "b"),
+                ChangedPaths.normalize(workspace, List.of("scripts/a/Action.c", " b ", "../other/c", "", ".")));
+    }
+}
@@ -0,0 +1,35 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+public class CompressionPolicyTest extends TestCase {
+    public void testStoresAlreadyCompressedFormats() {
+        CompressionPolicy policy = CompressionPolicy.defaults();
+
+        assertTrue(policy.isStored("lib/driver.JAR"));
+        assertTrue(policy.isStored("images/logo.png"));
+        assertFalse(policy.isStored("Action.c"));
+        assertFalse(policy.isStored("README"));
+    }
+
+    public void testAdditionalExtensionsAndLevel() {
+        CompressionPolicy policy = CompressionPolicy.of(12, " .bin, DAT ,,");
+
+        assertEquals(9, policy.getLevel());
+        assertTrue(policy.isStored("data.bin"));
+        assertTrue(policy.isStored("params.dat"));
+        assertTrue(policy.isStored("archive.zip"));
+    }
+
+    public void testLevelZeroStoresEverything() {
+        assertTrue(CompressionPolicy.of(0, "").isStored("Action.c"));
+    }
+
+    public void testPoorTrialRatio() {
+        CompressionPolicy policy = CompressionPolicy.defaults();
+
+        assertTrue(policy.isPoorlyCompressible(1000, 950));
+        assertFalse(policy.isPoorlyCompressible(1000, 300));
+        assertFalse(policy.needsTrial(100));
+    }
+}
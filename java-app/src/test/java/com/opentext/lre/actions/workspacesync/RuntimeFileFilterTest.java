@@ -0,0 +1,59 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
+
+public class RuntimeFileFilterTest extends TestCase {
+    public void testDetectsScriptType() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path vugen = Files.createDirectories(workspace.resolve("vugen"));
+        Files.writeString(vugen.resolve("test.usr"), "dummy");
+        Path devWeb = Files.createDirectories(workspace.resolve("devweb"));
+        Files.writeString(devWeb.resolve("main.js"), "dummy");
+        Files.writeString(devWeb.resolve("rts.yml"), "dummy");
+        Path jmeter = Files.createDirectories(workspace.resolve("jmeter"));
+        Files.writeString(jmeter.resolve("test.jmx"), "dummy");
+
+        assertEquals(RuntimeFileFilter.ScriptType.VUGEN, RuntimeFileFilter.detect(vugen));
+        assertEquals(RuntimeFileFilter.ScriptType.DEVWEB, RuntimeFileFilter.detect(devWeb));
+        assertEquals(RuntimeFileFilter.ScriptType.JMETER, RuntimeFileFilter.detect(jmeter));
+        assertEquals(RuntimeFileFilter.ScriptType.UNKNOWN, RuntimeFileFilter.detect(workspace));
+    }
+
+    public void testRuntimeOnlyZipDropsNonRuntimeFiles() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path script = Files.createDirectories(workspace.resolve("script"));
+        Files.writeString(script.resolve("test.usr"), "dummy");
+        Files.writeString(script.resolve("Action.c"), "Action() { return 0; }");
+        Files.writeString(script.resolve("Action.c.bak"), "old");
+        Files.writeString(script.resolve("test.idx"), "index");
+        Files.createDirectories(script.resolve("result1"));
+        Files.writeString(script.resolve("result1").resolve("output.txt"), "result");
+        Files.createDirectories(script.resolve("data"));
+        Files.writeString(script.resolve("data").resolve("snapshot.inf"), "snapshot");
+        Files.writeString(script.resolve("data").resolve("params.dat"), "value");
+        SyncIgnoreRules rules = SyncIgnoreRules.parse(workspace, List.of("!data/"))
+                .withRuntimeOnly(true);
+
+        try (ZipStagingArea stagingArea = ZipStagingArea.create(Files.createTempDirectory("lre-staging"));
+             ZipFolderCompressor compressor = new ZipFolderCompressor(stagingArea, CompressionPolicy.defaults(),
+                     1, Long.MAX_VALUE, rules);
+             ZipFolderCompressor full = new ZipFolderCompressor(stagingArea, CompressionPolicy.defaults(),
+                     1, Long.MAX_VALUE, SyncIgnoreRules.none().withRuntimeOnly(true))) {
+            try (ZipFile zipFile = new ZipFile(compressor.compressFolder(new ScriptFolder(script, workspace)).toFile())) {
+                Set<String> names = zipFile.stream().map(entry -> entry.getName()).collect(Collectors.toSet());
+                assertEquals(Set.of("test.usr", "Action.c", "data/", "data/snapshot.inf", "data/params.dat"), names);
+            }
+            try (ZipFile zipFile = new ZipFile(full.compressFolder(new ScriptFolder(script, workspace)).toFile())) {
+                Set<String> names = zipFile.stream().map(entry -> entry.getName()).collect(Collectors.toSet());
+                assertEquals(Set.of("test.usr", "Action.c"), names);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ScanCacheTest extends TestCase {
+    public void testUnchangedFoldersAreNotReadAgain() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path cacheDir = Files.createTempDirectory("lre-cache");
+        Files.writeString(Files.createDirectories(workspace.resolve("a").resolve("script1")).resolve("test.usr"), "dummy");
+        Files.writeString(Files.createDirectories(workspace.resolve("b").resolve("c").resolve("script2")).resolve("test.jmx"), "dummy");
+        setFoldersModifiedAnHourAgo(workspace);
+
+        assertEquals(Set.of("script1", "script2"), scan(workspace, cacheDir, SyncIgnoreRules.none(), 0));
+
+        // every folder is taken from the cache: the workspace root, a, b, b/c and the two script folders
+        assertEquals(Set.of("script1", "script2"), scan(workspace, cacheDir, SyncIgnoreRules.none(), 6));
+
+        // b is read again as a folder was added to it
+        Files.writeString(Files.createDirectories(workspace.resolve("b").resolve("script3")).resolve("test.scala"), "dummy");
+        assertEquals(Set.of("script1", "script2", "script3"), scan(workspace, cacheDir, SyncIgnoreRules.none(), 5));
+    }
+
+    public void testCacheOfOtherRulesOrCorruptCacheIsIgnored() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path cacheDir = Files.createTempDirectory("lre-cache");
+        Files.writeString(Files.createDirectories(workspace.resolve("a").resolve("script1")).resolve("test.usr"), "dummy");
+        setFoldersModifiedAnHourAgo(workspace);
+        scan(workspace, cacheDir, SyncIgnoreRules.none(), 0);
+
+        SyncIgnoreRules rules = SyncIgnoreRules.parse(workspace, List.of("a/"));
+        assertEquals(0, ScanCache.load(cacheDir, workspace, rules).size());
+        assertEquals(3, ScanCache.load(cacheDir, workspace, SyncIgnoreRules.none()).size());
+
+        Files.writeString(cacheDir.resolve(ScanCache.FILE_NAME), "{ not json");
+        assertEquals(0, ScanCache.load(cacheDir, workspace, SyncIgnoreRules.none()).size());
+    }
+
+    private static Set<String> scan(Path workspace, Path cacheDir, SyncIgnoreRules rules, int expectedHits) throws Exception {
+        ScanCache scanCache = ScanCache.load(cacheDir, workspace, rules);
+        Set<String> names;
+        try (ScriptFolderScan scan = new WorkspaceScriptFolderScanner(2).scan(workspace, rules, scanCache)) {
+            names = scan.stream().map(ScriptFolder::getScriptName).collect(Collectors.toSet());
+            assertTrue(scan.isComplete());
+        }
+        assertEquals(expectedHits, scanCache.getHits());
+        scanCache.save();
+        return names;
+    }
+
+    private static void setFoldersModifiedAnHourAgo(Path workspace) throws Exception {
+        FileTime anHourAgo = FileTime.fromMillis(System.currentTimeMillis() - 3600_000);
+        try (Stream<Path> walk = Files.walk(workspace)) {
+            for (Path folder : walk.filter(Files::isDirectory).collect(Collectors.toList())) {
+                Files.setLastModifiedTime(folder, anHourAgo);
+            }
+        }
+    }
+}
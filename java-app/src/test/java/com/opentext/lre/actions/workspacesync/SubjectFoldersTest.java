@@ -0,0 +1,52 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SubjectFoldersTest extends TestCase {
+    public void testMissingFoldersAreListedParentsFirst() {
+        SubjectFolders folders = new SubjectFolders(List.of("Subject\\a\\b"));
+
+        assertTrue(folders.exists("Subject\\a"));
+        assertEquals(List.of("Subject\\a\\c", "Subject\\x", "Subject\\x\\y", "Subject\\x\\y\\z"),
+                folders.missingFolders(List.of("Subject\\x\\y\\z", "Subject\\a\\b", "Subject\\a\\c", "Subject\\x")));
+    }
+
+    public void testUploadsIntoSameMissingFolderWaitForTheFirstOne() throws Exception {
+        SubjectFolders folders = new SubjectFolders(List.of());
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<Integer> first = executor.submit(() -> folders.upload("Subject\\new\\a", () -> {
+                running.incrementAndGet();
+                firstStarted.countDown();
+                releaseFirst.await();
+                running.decrementAndGet();
+                return 1;
+            }));
+            assertTrue(firstStarted.await(10, TimeUnit.SECONDS));
+            // another missing folder is created in parallel
+            assertEquals(2, folders.upload("Subject\\other", () -> 2));
+            Future<Integer> second = executor.submit(() -> folders.upload("Subject\\new\\b",
+                    () -> running.get() == 0 ? 3 : -1));
+
+            Thread.sleep(100);
+            assertFalse(second.isDone());
+            releaseFirst.countDown();
+            assertEquals(1, (int) first.get(10, TimeUnit.SECONDS));
+            assertEquals(3, (int) second.get(10, TimeUnit.SECONDS));
+            assertTrue(folders.exists("Subject\\new\\a"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
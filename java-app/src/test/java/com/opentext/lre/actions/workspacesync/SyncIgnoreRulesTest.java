@@ -0,0 +1,80 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
+
+public class SyncIgnoreRulesTest extends TestCase {
+    private final Path root = Paths.get("workspace").toAbsolutePath();
+
+    public void testNamePatternsMatchAtAnyDepth() {
+        SyncIgnoreRules rules = SyncIgnoreRules.parse(root, List.of("# comment", "", "node_modules/", "*.bak"));
+
+        assertEquals(2, rules.size());
+        assertTrue(rules.isExcluded(root.resolve("node_modules"), true));
+        assertTrue(rules.isExcluded(root.resolve("a/b/node_modules"), true));
+        assertFalse(rules.isExcluded(root.resolve("a/node_modules"), false));
+        assertTrue(rules.isExcluded(root.resolve("a/script/old.bak"), false));
+        assertFalse(rules.isExcluded(root.resolve("a/script/old.bak.txt"), false));
+    }
+
+    public void testSlashAnchorsPatternToRoot() {
+        SyncIgnoreRules rules = SyncIgnoreRules.parse(root, List.of("/build", "docs/*.md", "**/result?/", "a/**/tmp"));
+
+        assertTrue(rules.isExcluded(root.resolve("build"), true));
+        assertFalse(rules.isExcluded(root.resolve("a/build"), true));
+        assertTrue(rules.isExcluded(root.resolve("docs/readme.md"), false));
+        assertFalse(rules.isExcluded(root.resolve("docs/sub/readme.md"), false));
+        assertTrue(rules.isExcluded(root.resolve("x/y/result1"), true));
+        assertTrue(rules.isExcluded(root.resolve("a/tmp"), true));
+        assertTrue(rules.isExcluded(root.resolve("a/b/c/tmp"), false));
+        assertFalse(rules.isExcluded(root.resolve("b/tmp"), false));
+    }
+
+    public void testLastMatchingRuleWins() {
+        SyncIgnoreRules rules = SyncIgnoreRules.parse(root, List.of("*.log", "!keep.log", "log[0-9].txt"));
+
+        assertTrue(rules.isExcluded(root.resolve("s/output.log"), false));
+        assertFalse(rules.isExcluded(root.resolve("s/keep.log"), false));
+        assertTrue(rules.isExcluded(root.resolve("s/log1.txt"), false));
+        assertFalse(rules.isExcluded(root.resolve("s/logs.txt"), false));
+        assertFalse(SyncIgnoreRules.none().isExcluded(root.resolve("s/output.log"), false));
+    }
+
+    public void testRulesApplyToScanAndZip() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Files.writeString(workspace.resolve(SyncIgnoreRules.FILE_NAME), "result*/\n*.bak\n");
+        Path script = Files.createDirectories(workspace.resolve("script"));
+        Files.writeString(script.resolve("test.usr"), "dummy");
+        Files.writeString(script.resolve("action.c.bak"), "old");
+        Files.createDirectories(script.resolve("result1"));
+        Files.writeString(script.resolve("result1").resolve("output.txt"), "result");
+        Path ignored = Files.createDirectories(workspace.resolve("node_modules").resolve("package"));
+        Files.writeString(ignored.resolve("test.jmx"), "dummy");
+
+        SyncIgnoreRules rules = SyncIgnoreRules.load(workspace, " node_modules/ ");
+        List<ScriptFolder> folders = new WorkspaceScriptFolderScanner(2).findScriptFolders(workspace, rules);
+        assertEquals(1, folders.size());
+        assertEquals("script", folders.get(0).getScriptName());
+
+        try (ZipStagingArea stagingArea = ZipStagingArea.create(Files.createTempDirectory("lre-staging"));
+             ZipFolderCompressor compressor = new ZipFolderCompressor(stagingArea, CompressionPolicy.defaults(),
+                     1, Long.MAX_VALUE, rules)) {
+            Path zip = compressor.compressFolder(folders.get(0));
+            try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+                Set<String> names = zipFile.stream().map(entry -> entry.getName()).collect(Collectors.toSet());
+                assertEquals(Set.of("test.usr"), names);
+            }
+        }
+
+        String hash = new ScriptFolderHasher(rules).hash(folders.get(0));
+        Files.writeString(script.resolve("action.c.bak"), "changed");
+        assertEquals(hash, new ScriptFolderHasher(rules).hash(folders.get(0)));
+    }
+}
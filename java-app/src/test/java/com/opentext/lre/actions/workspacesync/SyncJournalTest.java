@@ -0,0 +1,54 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class SyncJournalTest extends TestCase {
+    public void testUploadsSurviveCutShortLine() throws Exception {
+        Path directory = Files.createTempDirectory("lre-cache");
+        try (SyncJournal journal = SyncJournal.open(directory)) {
+            journal.append("Subject\\a\\s1", new SyncManifest.Entry("h1", 11, 1000));
+            journal.append("Subject\\a\\s2", new SyncManifest.Entry("h2", 12, 2000));
+        }
+        // killed while writing the next line
+        Files.writeString(directory.resolve(SyncJournal.FILE_NAME), "{\"key\":\"Subject\\\\a\\\\s3\",\"ha",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        SyncJournal resumed = SyncJournal.open(directory);
+        resumed.append("Subject\\a\\s1", new SyncManifest.Entry("h1b", 13, 3000));
+        Map<String, SyncManifest.Entry> entries = resumed.read();
+
+        assertEquals(2, entries.size());
+        assertEquals("h1b", entries.get("Subject\\a\\s1").getHash());
+        assertEquals(13, entries.get("Subject\\a\\s1").getScriptId());
+        assertEquals(12, entries.get("Subject\\a\\s2").getScriptId());
+
+        resumed.delete();
+        assertFalse(Files.exists(resumed.getFile()));
+        assertTrue(resumed.read().isEmpty());
+    }
+
+    public void testResumedScriptsAreNotForcedAgain() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path folder = Files.createDirectories(workspace.resolve("script"));
+        Files.writeString(folder.resolve("test.usr"), "script");
+        ScriptFolder scriptFolder = new ScriptFolder(folder, workspace);
+        ScriptFolderHasher hasher = new ScriptFolderHasher();
+        SyncManifest manifest = SyncManifest.load(Files.createTempDirectory("lre-cache"));
+        String key = SyncManifest.keyOf(scriptFolder);
+        manifest.restore(key, new SyncManifest.Entry(hasher.hash(scriptFolder), 5, 1000));
+
+        SyncPlan plan = SyncPlan.build(List.of(scriptFolder).iterator(), hasher,
+                ManifestSnapshot.fromManifest(manifest, Set.of(key)), true, 1);
+
+        assertEquals(1, plan.count(SyncPlan.Action.UP_TO_DATE));
+        assertNull(plan.toUpload(scriptFolder));
+    }
+}
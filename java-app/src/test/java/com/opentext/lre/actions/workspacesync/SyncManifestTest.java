@@ -0,0 +1,54 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+public class SyncManifestTest extends TestCase {
+    public void testSaveAndLoadRoundTrip() throws Exception {
+        Path cacheDir = Files.createTempDirectory("lre-cache");
+        SyncManifest manifest = SyncManifest.load(cacheDir);
+        manifest.update("Subject\\a\\script", "abc", 12);
+        manifest.save();
+
+        SyncManifest reloaded = SyncManifest.load(cacheDir);
+        assertTrue(reloaded.isUpToDate("Subject\\a\\script", "abc"));
+        assertFalse(reloaded.isUpToDate("Subject\\a\\script", "def"));
+        assertFalse(reloaded.isUpToDate("Subject\\b\\script", "abc"));
+        assertEquals(12, reloaded.get("Subject\\a\\script").getScriptId());
+    }
+
+    public void testCorruptManifestIsIgnored() throws Exception {
+        Path cacheDir = Files.createTempDirectory("lre-cache");
+        Files.writeString(cacheDir.resolve(SyncManifest.FILE_NAME), "{ not json");
+
+        SyncManifest manifest = SyncManifest.load(cacheDir);
+
+        assertEquals(0, manifest.size());
+    }
+
+    public void testKeyContainsSubjectPathAndScriptName() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path scriptRoot = Files.createDirectories(workspace.resolve("a").resolve("script"));
+
+        assertEquals("Subject\\a\\script", SyncManifest.keyOf(new ScriptFolder(scriptRoot, workspace)));
+    }
+
+    public void testHashDependsOnContentOnly() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path scriptRoot = Files.createDirectories(workspace.resolve("script"));
+        Path usr = scriptRoot.resolve("test.usr");
+        Files.writeString(usr, "dummy");
+        ScriptFolder folder = new ScriptFolder(scriptRoot, workspace);
+        ScriptFolderHasher hasher = new ScriptFolderHasher();
+
+        String original = hasher.hash(folder);
+        Files.setLastModifiedTime(usr, FileTime.fromMillis(0));
+        assertEquals(original, hasher.hash(folder));
+
+        Files.writeString(usr, "changed");
+        assertFalse(original.equals(hasher.hash(folder)));
+    }
+}
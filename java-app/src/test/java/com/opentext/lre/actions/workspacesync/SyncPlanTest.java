@@ -0,0 +1,75 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SyncPlanTest extends TestCase {
+    public void testClassifiesScriptsAgainstCatalog() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        ScriptFolder unchanged = scriptFolder(workspace, "unchanged");
+        ScriptFolder changed = scriptFolder(workspace, "changed");
+        ScriptFolder added = scriptFolder(workspace, "added");
+        ScriptFolderHasher hasher = new ScriptFolderHasher();
+        SyncManifest manifest = SyncManifest.load(Files.createTempDirectory("lre-cache"));
+        manifest.update(SyncManifest.keyOf(unchanged), hasher.hash(unchanged), 1);
+        manifest.update(SyncManifest.keyOf(changed), "previous", 2);
+        ManifestSnapshot snapshot = ManifestSnapshot.fromManifest(manifest);
+        // updates after the snapshot was taken do not change it
+        manifest.update(SyncManifest.keyOf(added), hasher.hash(added), 3);
+
+        SyncPlan plan = SyncPlan.build(List.of(unchanged, changed, added).iterator(), hasher, snapshot, false, 2);
+
+        assertEquals(3, plan.getScripts().size());
+        assertEquals(1, plan.count(SyncPlan.Action.NEW));
+        assertEquals(1, plan.count(SyncPlan.Action.CHANGED));
+        assertEquals(1, plan.count(SyncPlan.Action.UP_TO_DATE));
+        assertNull(plan.toUpload(unchanged));
+        assertEquals(SyncManifest.keyOf(changed), plan.toUpload(changed).getManifestKey());
+        assertNotNull(plan.toUpload(added).getContentHash());
+    }
+
+    public void testForcedSyncUploadsUpToDateScripts() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        ScriptFolder folder = scriptFolder(workspace, "script");
+        ScriptFolderHasher hasher = new ScriptFolderHasher();
+        SyncManifest manifest = SyncManifest.load(Files.createTempDirectory("lre-cache"));
+        manifest.update(SyncManifest.keyOf(folder), hasher.hash(folder), 1);
+
+        SyncPlan plan = SyncPlan.build(List.of(folder).iterator(), hasher,
+                ManifestSnapshot.fromManifest(manifest), true, 1);
+
+        assertEquals(1, plan.count(SyncPlan.Action.FORCED));
+        assertNotNull(plan.toUpload(folder));
+    }
+
+    public void testLargestScriptsAreScheduledFirst() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        ScriptFolder small = scriptFolder(workspace, "a-small");
+        ScriptFolder large = scriptFolder(workspace, "b-large");
+        Files.write(large.getFullPath().resolve("data.bin"), new byte[50000]);
+        ScriptFolder medium = scriptFolder(workspace, "c-medium");
+        Files.write(medium.getFullPath().resolve("data.bin"), new byte[20000]);
+        ScriptFolder upToDate = scriptFolder(workspace, "d-up-to-date");
+        ScriptFolderHasher hasher = new ScriptFolderHasher();
+        SyncManifest manifest = SyncManifest.load(Files.createTempDirectory("lre-cache"));
+        manifest.update(SyncManifest.keyOf(upToDate), hasher.hash(upToDate), 1);
+
+        SyncPlan plan = SyncPlan.build(List.of(upToDate, small, large, medium).iterator(), hasher,
+                ManifestSnapshot.fromManifest(manifest), false, 2);
+
+        List<ScriptFolder> order = new ArrayList<>();
+        plan.folders().forEachRemaining(order::add);
+        assertEquals(List.of(large, medium, small, upToDate), order);
+        assertEquals(50000 + "b-large".length(), plan.toUpload(large).getPayloadBytes());
+    }
+
+    private static ScriptFolder scriptFolder(Path workspace, String name) throws Exception {
+        Path folder = Files.createDirectories(workspace.resolve(name));
+        Files.writeString(folder.resolve("test.usr"), name);
+        return new ScriptFolder(folder, workspace);
+    }
+}
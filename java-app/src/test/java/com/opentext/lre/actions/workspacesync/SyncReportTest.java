@@ -0,0 +1,46 @@
+package com.opentext.lre.actions.workspacesync;
+
+import com.opentext.lre.actions.common.helpers.utils.Result;
+import junit.framework.TestCase;
+import org.json.JSONObject;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class SyncReportTest extends TestCase {
+    public void testNearestRankPercentiles() {
+        List<Long> values = List.of(10L, 20L, 30L, 40L, 50L, 60L, 70L, 80L, 90L, 100L);
+
+        assertEquals(50, SyncReport.percentile(values, 50));
+        assertEquals(90, SyncReport.percentile(values, 90));
+        assertEquals(100, SyncReport.percentile(values, 99));
+        assertEquals(7, SyncReport.percentile(List.of(7L), 50));
+    }
+
+    public void testAggregatesUploadedScripts() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path folder = Files.createDirectories(workspace.resolve("script"));
+        Path zip = Files.write(workspace.resolve("script.zip"), new byte[250]);
+        ScriptSyncItem item = new ScriptSyncItem(new ScriptFolder(folder, workspace), "hash", 1000, 12);
+        SyncReport report = new SyncReport();
+
+        report.compressed(CompressedScript.compressed(item, zip, 250), 30);
+        report.uploaded(item, Result.SUCCESS, 2, 400, null);
+        report.setPipeline(1000, 3, 2, 5);
+        report.setScanMillis(150);
+        report.setRetries(1);
+        JSONObject json = report.toJson(Result.SUCCESS);
+
+        assertEquals(150, json.getJSONObject("durations").getLong("scanMillis"));
+        assertEquals(1, json.getJSONObject("counts").getInt("uploaded"));
+        assertEquals(4.0, json.getJSONObject("bytes").getDouble("compressionRatio"), 0.001);
+        assertEquals(60.0, json.getJSONObject("throughput").getDouble("scriptsPerMinute"), 0.001);
+        assertEquals(400, json.getJSONObject("percentiles").getJSONObject("uploadMillis").getLong("p50"));
+        JSONObject script = json.getJSONArray("scripts").getJSONObject(0);
+        assertEquals(1, script.getInt("retries"));
+        assertEquals(12, script.getLong("hashMillis"));
+        assertEquals(30, script.getLong("compressMillis"));
+        assertEquals(250, script.getLong("zipBytes"));
+    }
+}
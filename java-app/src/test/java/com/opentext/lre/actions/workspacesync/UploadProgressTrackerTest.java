@@ -0,0 +1,42 @@
+package com.opentext.lre.actions.workspacesync;
+
+import com.opentext.lre.actions.common.helpers.utils.Result;
+import junit.framework.TestCase;
+
+public class UploadProgressTrackerTest extends TestCase {
+    public void testAbortsAfterConsecutiveFailures() {
+        UploadProgressTracker tracker = new UploadProgressTracker(10);
+        for (int i = 1; i < UploadProgressTracker.MAX_CONSECUTIVE_FAILURES; i++) {
+            assertFalse(tracker.recordResult(Result.FAILURE));
+        }
+        assertTrue(tracker.recordResult(Result.FAILURE));
+        assertTrue(tracker.isAborted());
+    }
+
+    public void testSuccessResetsConsecutiveFailures() {
+        UploadProgressTracker tracker = new UploadProgressTracker(10);
+        for (int i = 1; i < UploadProgressTracker.MAX_CONSECUTIVE_FAILURES; i++) {
+            tracker.recordResult(Result.FAILURE);
+        }
+        tracker.recordResult(Result.SUCCESS);
+        assertFalse(tracker.recordResult(Result.FAILURE));
+        assertEquals(1, tracker.getSuccessfulUploads());
+        assertEquals(UploadProgressTracker.MAX_CONSECUTIVE_FAILURES, tracker.getFailedUploads());
+    }
+
+    public void testSuccessRate() {
+        UploadProgressTracker tracker = new UploadProgressTracker(4);
+        tracker.recordResult(Result.SUCCESS);
+        tracker.recordResult(Result.FAILURE);
+        assertFalse(tracker.isSuccessRateReached());
+        tracker.recordResult(Result.SUCCESS);
+        assertTrue(tracker.isSuccessRateReached());
+    }
+
+    public void testScriptNumbersAreSequential() {
+        UploadProgressTracker tracker = new UploadProgressTracker(3);
+        assertEquals(1, tracker.nextScriptNumber());
+        assertEquals(2, tracker.nextScriptNumber());
+        assertEquals(3, tracker.nextScriptNumber());
+    }
+}
@@ -0,0 +1,62 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+
+public class UploadRetryPolicyTest extends TestCase {
+    public void testClassifiesErrors() {
+        assertEquals(UploadRetryPolicy.Failure.TRANSIENT,
+                UploadRetryPolicy.classify(new SocketTimeoutException("Read timed out")));
+        assertEquals(UploadRetryPolicy.Failure.TRANSIENT,
+                UploadRetryPolicy.classify(new IOException("upload failed", new SocketException("Connection reset"))));
+        assertEquals(UploadRetryPolicy.Failure.TRANSIENT,
+                UploadRetryPolicy.classify(new Exception("Error 503: Service Unavailable")));
+        assertEquals(UploadRetryPolicy.Failure.SESSION_EXPIRED,
+                UploadRetryPolicy.classify(new Exception("HTTP 401 Unauthorized")));
+        assertEquals(UploadRetryPolicy.Failure.PERMANENT,
+                UploadRetryPolicy.classify(new Exception("Error 400: the script is not valid")));
+        assertEquals(UploadRetryPolicy.Failure.PERMANENT, UploadRetryPolicy.classify(new NullPointerException()));
+        assertEquals(UploadRetryPolicy.Failure.PERMANENT,
+                UploadRetryPolicy.classify(new InterruptedIOException("Upload interrupted")));
+    }
+
+    public void testStatusCodesAreNotReadFromPaths() {
+        Exception lockedScript = new Exception("C:\\workspace\\504\\timeout_check.zip: the script is locked");
+        assertEquals(UploadRetryPolicy.Failure.PERMANENT, UploadRetryPolicy.classify(lockedScript));
+        assertFalse(UploadRetryPolicy.isOverload(lockedScript));
+        assertEquals(UploadRetryPolicy.Failure.PERMANENT,
+                UploadRetryPolicy.classify(new Exception("Subject\\401\\Unauthorized users: the script is not valid")));
+        assertFalse(UploadRetryPolicy.isOverload(new Exception("C:\\workspace\\error\\500\\script.zip not found")));
+        assertEquals(UploadRetryPolicy.Failure.TRANSIENT,
+                UploadRetryPolicy.classify(new Exception("Status code: 429, too busy")));
+        assertEquals(UploadRetryPolicy.Failure.SESSION_EXPIRED,
+                UploadRetryPolicy.classify(new Exception("Unauthorized")));
+    }
+
+    public void testOverloadIsTransientErrorOrServerError() {
+        assertTrue(UploadRetryPolicy.isOverload(new SocketTimeoutException("Read timed out")));
+        assertTrue(UploadRetryPolicy.isOverload(new Exception("Error 503: Service Unavailable")));
+        assertTrue(UploadRetryPolicy.isOverload(new IOException("upload failed", new Exception("HTTP 500"))));
+        assertFalse(UploadRetryPolicy.isOverload(new Exception("Error 400: the script is not valid")));
+        assertFalse(UploadRetryPolicy.isOverload(new Exception("HTTP 403 Forbidden")));
+        assertFalse(UploadRetryPolicy.isOverload(new NullPointerException()));
+    }
+
+    public void testDelayGrowsExponentiallyWithJitter() {
+        UploadRetryPolicy policy = new UploadRetryPolicy(10, 1000);
+
+        for (int i = 0; i < 20; i++) {
+            long first = policy.delayMillis(1);
+            assertTrue(first >= 500 && first <= 1000);
+            long third = policy.delayMillis(3);
+            assertTrue(third >= 2000 && third <= 4000);
+            long capped = policy.delayMillis(10);
+            assertTrue(capped >= UploadRetryPolicy.MAX_DELAY_MILLIS / 2 && capped <= UploadRetryPolicy.MAX_DELAY_MILLIS);
+        }
+        assertEquals(0, new UploadRetryPolicy(1, 0).delayMillis(1));
+    }
+}
@@ -5,6 +5,8 @@ import junit.framework.TestCase;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class WorkspaceScriptFolderScannerTest extends TestCase {
     public void testStopsAtScriptFolder() throws Exception {
@@ -71,4 +73,59 @@ public class WorkspaceScriptFolderScannerTest extends TestCase {
 
         assertEquals(2, folders.size());
     }
+
+    public void testParallelScanStreamsAllScriptFolders() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        for (int group = 0; group < 5; group++) {
+            for (int script = 0; script < 10; script++) {
+                Path scriptRoot = Files.createDirectories(workspace.resolve("g" + group).resolve("s" + script));
+                Files.writeString(scriptRoot.resolve("test.usr"), "dummy");
+                Files.createDirectories(scriptRoot.resolve("nested"));
+                Files.writeString(scriptRoot.resolve("nested").resolve("other.jmx"), "dummy");
+            }
+        }
+
+        WorkspaceScriptFolderScanner scanner = new WorkspaceScriptFolderScanner(4);
+        Set<Path> folders;
+        try (ScriptFolderScan scan = scanner.scan(workspace)) {
+            folders = scan.stream().map(ScriptFolder::getFullPath).collect(Collectors.toSet());
+            assertNull(scan.getFailure());
+        }
+
+        assertEquals(50, folders.size());
+        assertTrue(folders.contains(workspace.resolve("g3").resolve("s7")));
+    }
+
+    public void testScanOfMissingWorkspaceFindsNothing() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws").resolve("missing");
+
+        WorkspaceScriptFolderScanner scanner = new WorkspaceScriptFolderScanner(2);
+        try (ScriptFolderScan scan = scanner.scan(workspace)) {
+            assertFalse(scan.hasNext());
+        }
+    }
+
+    public void testScanChangedFindsEnclosingScriptFolders() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path first = Files.createDirectories(workspace.resolve("a").resolve("first"));
+        Files.writeString(first.resolve("test.usr"), "dummy");
+        Files.createDirectories(first.resolve("c").resolve("nested"));
+        Files.writeString(first.resolve("c").resolve("nested").resolve("nested.jmx"), "dummy");
+        Path second = Files.createDirectories(workspace.resolve("b").resolve("second"));
+        Files.writeString(second.resolve("test.jmx"), "dummy");
+        Path unchanged = Files.createDirectories(workspace.resolve("unchanged"));
+        Files.writeString(unchanged.resolve("test.usr"), "dummy");
+        SyncIgnoreRules rules = SyncIgnoreRules.parse(workspace, List.of("*.bak"));
+
+        List<String> changedPaths = ChangedPaths.normalize(workspace, List.of(
+                "a/first/Action.c", "a/first/c/nested/nested.jmx", workspace.resolve("b/second/deleted.txt").toString(),
+                "unchanged/Action.c.bak", "README.md", "removed/script/test.usr", "../outside.txt"));
+        Set<String> found;
+        try (ScriptFolderScan scan = new WorkspaceScriptFolderScanner(2).scanChanged(workspace, changedPaths, rules)) {
+            found = scan.stream().map(ScriptFolder::getScriptName).collect(Collectors.toSet());
+        }
+
+        assertEquals(6, changedPaths.size());
+        assertEquals(Set.of("first", "second"), found);
+    }
 }
@@ -0,0 +1,45 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ZipByteBudgetTest extends TestCase {
+    public void testAcquireBlocksUntilReleased() throws Exception {
+        ZipByteBudget budget = new ZipByteBudget(100);
+        long first = budget.acquire(80);
+        CountDownLatch acquired = new CountDownLatch(1);
+
+        Thread waiter = new Thread(() -> {
+            try {
+                budget.acquire(50);
+                acquired.countDown();
+            } catch (InterruptedException ignored) {
+            }
+        });
+        waiter.start();
+
+        assertFalse(acquired.await(200, TimeUnit.MILLISECONDS));
+        budget.release(first);
+        assertTrue(acquired.await(5, TimeUnit.SECONDS));
+        assertEquals(50, budget.getUsed());
+    }
+
+    public void testOversizedRequestIsAdmittedWhenBudgetIsEmpty() throws Exception {
+        ZipByteBudget budget = new ZipByteBudget(100);
+
+        assertEquals(500, budget.acquire(500));
+        assertEquals(500, budget.getUsed());
+    }
+
+    public void testAdjustReplacesReservation() throws Exception {
+        ZipByteBudget budget = new ZipByteBudget(100);
+        long reserved = budget.acquire(90);
+
+        long actual = budget.adjust(reserved, 30);
+
+        assertEquals(30, actual);
+        assertEquals(30, budget.getUsed());
+    }
+}
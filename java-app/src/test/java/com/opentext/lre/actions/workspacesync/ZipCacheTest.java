@@ -0,0 +1,104 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+
+public class ZipCacheTest extends TestCase {
+    public void testStoredZipIsReused() throws Exception {
+        Path staging = Files.createTempDirectory("lre-staging");
+        ZipCache cache = ZipCache.open(Files.createTempDirectory("lre-zip-cache"), 1000);
+
+        ZipCache.Lease stored = cache.store("hash1", zip(staging, "script.zip", 100));
+        assertFalse(Files.exists(staging.resolve("script.zip")));
+        stored.close();
+
+        ZipCache reopened = ZipCache.open(cache.getDirectory(), 1000);
+        try (ZipCache.Lease lease = reopened.acquire("hash1", "script.zip")) {
+            assertNotNull(lease);
+            assertEquals(100, Files.size(lease.getZipPath()));
+        }
+        assertNull(reopened.acquire("hash1", "other.zip"));
+        assertEquals(1, reopened.getHits());
+        assertEquals(1, reopened.getMisses());
+    }
+
+    public void testLeastRecentlyUsedZipIsEvicted() throws Exception {
+        Path staging = Files.createTempDirectory("lre-staging");
+        ZipCache cache = ZipCache.open(Files.createTempDirectory("lre-zip-cache"), 250);
+
+        cache.store("hash1", zip(staging, "a.zip", 100)).close();
+        cache.store("hash2", zip(staging, "b.zip", 100)).close();
+        cache.acquire("hash1", "a.zip").close();
+        cache.store("hash3", zip(staging, "c.zip", 100)).close();
+
+        assertEquals(200, cache.getSize());
+        assertNull(cache.acquire("hash2", "b.zip"));
+        assertNotNull(cache.acquire("hash1", "a.zip"));
+        assertNotNull(cache.acquire("hash3", "c.zip"));
+    }
+
+    public void testLeasedZipIsNotEvicted() throws Exception {
+        Path staging = Files.createTempDirectory("lre-staging");
+        ZipCache cache = ZipCache.open(Files.createTempDirectory("lre-zip-cache"), 150);
+
+        ZipCache.Lease leased = cache.store("hash1", zip(staging, "a.zip", 100));
+        ZipCache.Lease newest = cache.store("hash2", zip(staging, "b.zip", 100));
+        newest.close();
+
+        assertTrue(Files.exists(leased.getZipPath()));
+        assertFalse(Files.exists(newest.getZipPath()));
+        assertEquals(100, cache.getSize());
+        leased.close();
+    }
+
+    public void testZipLeasedByAnotherSyncIsNotEvicted() throws Exception {
+        Path staging = Files.createTempDirectory("lre-staging");
+        Path directory = Files.createTempDirectory("lre-zip-cache");
+        ZipCache first = ZipCache.open(directory, 1000);
+        ZipCache.Lease leased = first.store("hash1", zip(staging, "a.zip", 100));
+
+        // a.zip is the least recently used zip of the second cache
+        ZipCache second = ZipCache.open(directory, 150);
+        second.store("hash2", zip(staging, "b.zip", 100)).close();
+        ZipCache.Lease reused = second.acquire("hash1", "a.zip");
+        assertNotNull(reused);
+        reused.close();
+
+        assertTrue(Files.exists(leased.getZipPath()));
+        leased.close();
+    }
+
+    public void testLeasedZipIsNotReplaced() throws Exception {
+        Path staging = Files.createTempDirectory("lre-staging");
+        ZipCache cache = ZipCache.open(Files.createTempDirectory("lre-zip-cache"), 1000);
+
+        ZipCache.Lease leased = cache.store("hash1", zip(staging, "a.zip", 100));
+        Object leasedFile = Files.readAttributes(leased.getZipPath(), BasicFileAttributes.class).fileKey();
+        Path duplicate = zip(staging, "a.zip", 120);
+        try (ZipCache.Lease stored = cache.store("hash1", duplicate)) {
+            assertEquals(leased.getZipPath(), stored.getZipPath());
+        }
+
+        assertFalse(Files.exists(duplicate));
+        assertEquals(100, Files.size(leased.getZipPath()));
+        assertEquals(leasedFile, Files.readAttributes(leased.getZipPath(), BasicFileAttributes.class).fileKey());
+        assertEquals(100, cache.getSize());
+        leased.close();
+    }
+
+    public void testZipLargerThanCacheIsNotStored() throws Exception {
+        Path staging = Files.createTempDirectory("lre-staging");
+        ZipCache cache = ZipCache.open(Files.createTempDirectory("lre-zip-cache"), 50);
+
+        Path zip = zip(staging, "a.zip", 100);
+        assertNull(cache.store("hash1", zip));
+        assertTrue(Files.exists(zip));
+    }
+
+    private static Path zip(Path directory, String name, int size) throws Exception {
+        return Files.write(directory.resolve(name), new byte[size]);
+    }
+}
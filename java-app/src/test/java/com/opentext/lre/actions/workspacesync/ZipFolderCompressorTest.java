@@ -0,0 +1,155 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+public class ZipFolderCompressorTest extends TestCase {
+    public void testCompressesToStagingArea() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path scriptRoot = Files.createDirectories(workspace.resolve("script"));
+        Files.writeString(scriptRoot.resolve("test.usr"), "dummy");
+        Files.createDirectories(scriptRoot.resolve("data"));
+        Files.writeString(scriptRoot.resolve("data").resolve("params.dat"), "value");
+
+        Path staging = Files.createTempDirectory("lre-staging");
+        Set<String> entries = new HashSet<>();
+        try (ZipStagingArea stagingArea = ZipStagingArea.create(staging)) {
+            Path zip = new ZipFolderCompressor(stagingArea).compressFolder(new ScriptFolder(scriptRoot, workspace));
+            assertTrue(zip.startsWith(staging));
+            try (ZipInputStream zipStream = new ZipInputStream(Files.newInputStream(zip))) {
+                ZipEntry entry;
+                while ((entry = zipStream.getNextEntry()) != null) {
+                    entries.add(entry.getName());
+                }
+            }
+        }
+
+        assertEquals(Set.of("test.usr", "data/", "data/params.dat"), entries);
+        try (var files = Files.list(workspace)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    public void testStoresIncompressibleFiles() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path scriptRoot = Files.createDirectories(workspace.resolve("script"));
+        Files.writeString(scriptRoot.resolve("test.usr"), "dummy ".repeat(10000));
+        Files.write(scriptRoot.resolve("lib.jar"), new byte[1000]);
+        byte[] random = new byte[100 * 1024];
+        new Random(42).nextBytes(random);
+        Files.write(scriptRoot.resolve("recording.bin"), random);
+
+        try (ZipStagingArea stagingArea = ZipStagingArea.create(Files.createTempDirectory("lre-staging"))) {
+            ZipFolderCompressor compressor = new ZipFolderCompressor(stagingArea);
+            Path zip = compressor.compressFolder(new ScriptFolder(scriptRoot, workspace));
+
+            try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+                assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("test.usr").getMethod());
+                assertEquals(ZipEntry.STORED, zipFile.getEntry("lib.jar").getMethod());
+                assertEquals(ZipEntry.STORED, zipFile.getEntry("recording.bin").getMethod());
+                assertEquals(random.length, zipFile.getInputStream(zipFile.getEntry("recording.bin")).readAllBytes().length);
+            }
+            assertEquals(1, compressor.getStats().getDeflatedFiles());
+            assertEquals(2, compressor.getStats().getStoredFiles());
+            assertEquals(1000 + random.length, compressor.getStats().getStoredBytes());
+        }
+    }
+
+    public void testParallelZipMatchesFolderContent() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path scriptRoot = Files.createDirectories(workspace.resolve("script"));
+        Files.writeString(scriptRoot.resolve("test.usr"), "dummy");
+        Files.write(scriptRoot.resolve("empty.txt"), new byte[0]);
+        Files.write(scriptRoot.resolve("lib.jar"), new byte[5000]);
+        byte[] large = new byte[ParallelZipWriter.BLOCK_SIZE * 3 + 12345];
+        Random random = new Random(7);
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte) ('a' + random.nextInt(4));
+        }
+        Files.createDirectories(scriptRoot.resolve("data"));
+        Files.write(scriptRoot.resolve("data").resolve("large.dat"), large);
+
+        Path zip;
+        try (ZipStagingArea stagingArea = ZipStagingArea.create(Files.createTempDirectory("lre-staging"));
+             ZipFolderCompressor compressor = new ZipFolderCompressor(stagingArea, CompressionPolicy.defaults(), 4, 1)) {
+            zip = compressor.compressFolder(new ScriptFolder(scriptRoot, workspace));
+
+            try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+                assertEquals(5, zipFile.size());
+                assertEquals(ZipEntry.STORED, zipFile.getEntry("lib.jar").getMethod());
+                assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("data/large.dat").getMethod());
+                assertTrue(Arrays.equals(large, zipFile.getInputStream(zipFile.getEntry("data/large.dat")).readAllBytes()));
+                assertEquals("dummy", new String(zipFile.getInputStream(zipFile.getEntry("test.usr")).readAllBytes()));
+                assertEquals(0, zipFile.getInputStream(zipFile.getEntry("empty.txt")).readAllBytes().length);
+            }
+            try (ZipInputStream zipStream = new ZipInputStream(Files.newInputStream(zip))) {
+                int entries = 0;
+                while (zipStream.getNextEntry() != null) {
+                    zipStream.readAllBytes();
+                    entries++;
+                }
+                assertEquals(5, entries);
+            }
+        }
+    }
+
+    public void testDeterministicZipIgnoresTimestampsAndThreads() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path first = Files.createDirectories(workspace.resolve("first"));
+        Path second = Files.createDirectories(workspace.resolve("second"));
+        byte[] large = new byte[ParallelZipWriter.BLOCK_SIZE + 100];
+        Arrays.fill(large, (byte) 'x');
+        for (Path scriptRoot : new Path[] {first, second}) {
+            Files.createDirectories(scriptRoot.resolve("data"));
+            Files.writeString(scriptRoot.resolve("test.usr"), "dummy");
+            Files.write(scriptRoot.resolve("data").resolve("large.dat"), large);
+        }
+        Files.setLastModifiedTime(second.resolve("test.usr"), FileTime.fromMillis(0));
+
+        CompressionPolicy policy = new CompressionPolicy(CompressionPolicy.DEFAULT_LEVEL, Set.of(), true);
+        try (ZipStagingArea stagingArea = ZipStagingArea.create(Files.createTempDirectory("lre-staging"));
+             ZipFolderCompressor sequential = new ZipFolderCompressor(stagingArea, policy, 1, 1);
+             ZipFolderCompressor parallel = new ZipFolderCompressor(stagingArea, policy, 4, 1)) {
+            Path firstZip = sequential.compressFolder(new ScriptFolder(first, workspace));
+            Path secondZip = parallel.compressFolder(new ScriptFolder(second, workspace));
+
+            byte[] firstHash = ScriptFolderHasher.newDigest().digest(Files.readAllBytes(firstZip));
+            byte[] secondHash = ScriptFolderHasher.newDigest().digest(Files.readAllBytes(secondZip));
+            assertTrue(Arrays.equals(firstHash, secondHash));
+        }
+    }
+
+    public void testListingSizeLeavesOutExcludedFiles() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path script = Files.createDirectories(workspace.resolve("script"));
+        Files.writeString(script.resolve("test.usr"), "dummy");
+        Files.writeString(script.resolve("Action.c"), "action");
+        Files.createDirectories(script.resolve("result1"));
+        Files.write(script.resolve("result1").resolve("output.txt"), new byte[1000]);
+        Files.createDirectories(script.resolve("logs"));
+        Files.write(script.resolve("logs").resolve("replay.log"), new byte[1000]);
+        SyncIgnoreRules rules = SyncIgnoreRules.parse(workspace, List.of("logs/")).withRuntimeOnly(true);
+
+        try (ZipStagingArea stagingArea = ZipStagingArea.create(Files.createTempDirectory("lre-staging"));
+             ZipFolderCompressor compressor = new ZipFolderCompressor(stagingArea, CompressionPolicy.defaults(),
+                     1, Long.MAX_VALUE, rules)) {
+            ZipFolderCompressor.Listing listing = compressor.list(new ScriptFolder(script, workspace));
+
+            assertEquals(11, listing.getTotalSize());
+            try (ZipFile zipFile = new ZipFile(compressor.compressFolder(listing).toFile())) {
+                assertEquals(2, zipFile.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.opentext.lre.actions.workspacesync;
+
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class ZipStagingAreaTest extends TestCase {
+    public void testZipsAreStagedOutsideWorkspaceAndRemoved() throws Exception {
+        Path workspace = Files.createTempDirectory("lre-ws");
+        Path scriptRoot = Files.createDirectories(workspace.resolve("group").resolve("script"));
+        Files.writeString(scriptRoot.resolve("test.usr"), "dummy");
+        Path tempRoot = Files.createTempDirectory("lre-staging");
+
+        Path stagingDirectory;
+        try (ZipStagingArea stagingArea = ZipStagingArea.create(tempRoot)) {
+            stagingDirectory = stagingArea.getDirectory();
+            Path zip = new ZipFolderCompressor(stagingArea).compressFolder(new ScriptFolder(scriptRoot, workspace));
+
+            assertTrue(zip.startsWith(stagingDirectory));
+            assertEquals("script.zip", zip.getFileName().toString());
+            assertFalse(Files.exists(scriptRoot.getParent().resolve("script.zip")));
+
+            ZipStagingArea.delete(zip);
+            assertFalse(Files.exists(zip.getParent()));
+        }
+        assertFalse(Files.exists(stagingDirectory));
+    }
+
+    public void testAbandonedStagingDirectoriesAreRemoved() throws Exception {
+        Path tempRoot = Files.createTempDirectory("lre-staging");
+        Path abandoned = Files.createDirectories(tempRoot.resolve(ZipStagingArea.DIRECTORY_PREFIX + "old"));
+        Files.writeString(abandoned.resolve(".lock"), "");
+        Files.writeString(abandoned.resolve("leftover.zip"), "dummy");
+
+        try (ZipStagingArea inUse = ZipStagingArea.create(tempRoot);
+             ZipStagingArea stagingArea = ZipStagingArea.create(tempRoot)) {
+            assertFalse(Files.exists(abandoned));
+            assertTrue(Files.exists(inUse.getDirectory()));
+            assertTrue(Files.exists(stagingArea.getDirectory()));
+        }
+    }
+}
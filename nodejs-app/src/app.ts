@@ -48,10 +48,68 @@ let lreUsernameProxy = process.env.PLUGIN_LRE_USERNAME_PROXY;
 let lrePasswordProxy = process.env.PLUGIN_LRE_PASSWORD_PROXY;
 let lreSearchTimeslot: boolean = process.env.PLUGIN_LRE_SEARCH_TIMESLOT === 'true';
 let lreStatusBySla: boolean = process.env.PLUGIN_LRE_STATUS_BY_SLA === 'true';
+let lreRunPollMinMs: number = process.env.PLUGIN_LRE_RUN_POLL_MIN_MS
+    ? parseInt(process.env.PLUGIN_LRE_RUN_POLL_MIN_MS)
+    : 1000;
+let lreRunPollMaxMs: number = process.env.PLUGIN_LRE_RUN_POLL_MAX_MS
+    ? parseInt(process.env.PLUGIN_LRE_RUN_POLL_MAX_MS)
+    : 30000;
+let lreRunHandleFile = process.env.PLUGIN_LRE_RUN_HANDLE_FILE;
+let lreAttachRun = process.env.PLUGIN_LRE_ATTACH_RUN;
+let lreTestConcurrency: number = process.env.PLUGIN_LRE_TEST_CONCURRENCY
+    ? parseInt(process.env.PLUGIN_LRE_TEST_CONCURRENCY)
+    : 1;
 let lreWorkspaceDir = process.env.PLUGIN_LRE_WORKSPACE_DIR ?? process.env.HARNESS_WORKSPACE;
 let lreOutputDir = process.env.PLUGIN_LRE_OUTPUT_DIR ?? process.env.HARNESS_STEP_OUTPUTS_PATH ?? lreWorkspaceDir;
 let lreEnableStacktrace: boolean = process.env.PLUGIN_LRE_ENABLE_STACKTRACE === 'true';
 let lreRuntimeOnly: boolean = process.env.PLUGIN_LRE_RUNTIME_ONLY === 'true';
+let lreSyncParallelism: number = process.env.PLUGIN_LRE_SYNC_PARALLELISM
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_PARALLELISM)
+    : 1;
+let lreSyncCacheDir = process.env.PLUGIN_LRE_SYNC_CACHE_DIR;
+let lreForceFullSync: boolean = process.env.PLUGIN_LRE_FORCE_FULL_SYNC === 'true';
+let lreSyncCompressionThreads: number = process.env.PLUGIN_LRE_SYNC_COMPRESSION_THREADS
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_COMPRESSION_THREADS)
+    : 0;
+let lreSyncZipBudgetMb: number = process.env.PLUGIN_LRE_SYNC_ZIP_BUDGET_MB
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_ZIP_BUDGET_MB)
+    : 1024;
+let lreSyncScanThreads: number = process.env.PLUGIN_LRE_SYNC_SCAN_THREADS
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_SCAN_THREADS)
+    : 0;
+let lreSyncStagingDir = process.env.PLUGIN_LRE_SYNC_STAGING_DIR;
+let lreSyncZipCacheMb: number = process.env.PLUGIN_LRE_SYNC_ZIP_CACHE_MB
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_ZIP_CACHE_MB)
+    : 0;
+let lreSyncCompressionLevel: number = process.env.PLUGIN_LRE_SYNC_COMPRESSION_LEVEL
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_COMPRESSION_LEVEL)
+    : 6;
+let lreSyncStoredExtensions = process.env.PLUGIN_LRE_SYNC_STORED_EXTENSIONS;
+let lreSyncZipThreads: number = process.env.PLUGIN_LRE_SYNC_ZIP_THREADS
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_ZIP_THREADS)
+    : 0;
+let lreSyncParallelZipMinMb: number = process.env.PLUGIN_LRE_SYNC_PARALLEL_ZIP_MIN_MB
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_PARALLEL_ZIP_MIN_MB)
+    : 64;
+let lreSyncDeterministicZip: boolean = process.env.PLUGIN_LRE_SYNC_DETERMINISTIC_ZIP === 'true';
+let lreSyncExclude = process.env.PLUGIN_LRE_SYNC_EXCLUDE;
+let lreSyncScanCache: boolean = process.env.PLUGIN_LRE_SYNC_SCAN_CACHE !== 'false';
+let lreSyncChangedFiles = process.env.PLUGIN_LRE_SYNC_CHANGED_FILES;
+let lreSyncGitDiffBase = process.env.PLUGIN_LRE_SYNC_GIT_DIFF_BASE;
+let lreSyncReconcile: boolean = process.env.PLUGIN_LRE_SYNC_RECONCILE === 'true';
+let lreSyncMinParallelism: number = process.env.PLUGIN_LRE_SYNC_MIN_PARALLELISM
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_MIN_PARALLELISM)
+    : 1;
+let lreSyncMaxParallelism: number = process.env.PLUGIN_LRE_SYNC_MAX_PARALLELISM
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_MAX_PARALLELISM)
+    : 0;
+let lreSyncResume: boolean = process.env.PLUGIN_LRE_SYNC_RESUME === 'true';
+let lreSyncUploadRetries: number = process.env.PLUGIN_LRE_SYNC_UPLOAD_RETRIES
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_UPLOAD_RETRIES)
+    : 3;
+let lreSyncRetryDelayMs: number = process.env.PLUGIN_LRE_SYNC_RETRY_DELAY_MS
+    ? parseInt(process.env.PLUGIN_LRE_SYNC_RETRY_DELAY_MS)
+    : 2000;
 
 // Workspace directory in container
 
@@ -103,7 +161,7 @@ const validateInputVars = () => {
 	  }
 	  
 	  // Validate 'lre_test' parameter
-	  if (!lreTest && lreAction === 'ExecuteLreTest') {
+	  if (!lreTest && (lreAction === 'ExecuteLreTest' || lreAction === 'StartLreTest')) {
 		  throw new Error(`lre_test variable is not set.`);
 	  }
 	  
@@ -164,6 +222,31 @@ const validateInputVars = () => {
 		  lreStatusBySla = false;
 	  }
 	  
+	  // Validate 'lre_run_poll_min_ms' parameter
+	  if (!lreRunPollMinMs || lreRunPollMinMs < 1) {
+		  lreRunPollMinMs = 1000;
+	  }
+	  
+	  // Validate 'lre_run_poll_max_ms' parameter
+	  if (!lreRunPollMaxMs || lreRunPollMaxMs < 1) {
+		  lreRunPollMaxMs = 30000;
+	  }
+	  
+	  // Validate 'lre_run_handle_file' parameter
+	  if (!lreRunHandleFile) {
+		  lreRunHandleFile = '';
+	  }
+	  
+	  // Validate 'lre_attach_run' parameter
+	  if (!lreAttachRun) {
+		  lreAttachRun = '';
+	  }
+	  
+	  // Validate 'lre_test_concurrency' parameter
+	  if (!lreTestConcurrency || lreTestConcurrency < 1) {
+		  lreTestConcurrency = 1;
+	  }
+	  
 	  // Validate 'lre_output_dir' parameter
 	  if (!lreOutputDir) {
 		  lreOutputDir = '';
@@ -183,6 +266,121 @@ const validateInputVars = () => {
 	  if (lreRuntimeOnly !== true && lreRuntimeOnly !== false) {
 		  lreRuntimeOnly = false;
 	  }
+
+	  // Validate 'lre_sync_parallelism' parameter
+	  if (!lreSyncParallelism || lreSyncParallelism < 1) {
+		  lreSyncParallelism = 1;
+	  }
+
+	  // Validate 'lre_sync_cache_dir' parameter
+	  if (!lreSyncCacheDir) {
+		  lreSyncCacheDir = '';
+	  }
+
+	  // Validate 'lre_force_full_sync' parameter
+	  if (lreForceFullSync !== true && lreForceFullSync !== false) {
+		  lreForceFullSync = false;
+	  }
+
+	  // Validate 'lre_sync_compression_threads' parameter
+	  if (!lreSyncCompressionThreads || lreSyncCompressionThreads < 0) {
+		  lreSyncCompressionThreads = 0;
+	  }
+
+	  // Validate 'lre_sync_zip_budget_mb' parameter
+	  if (!lreSyncZipBudgetMb || lreSyncZipBudgetMb < 0) {
+		  lreSyncZipBudgetMb = 1024;
+	  }
+
+	  // Validate 'lre_sync_scan_threads' parameter
+	  if (!lreSyncScanThreads || lreSyncScanThreads < 0) {
+		  lreSyncScanThreads = 0;
+	  }
+
+	  // Validate 'lre_sync_staging_dir' parameter
+	  if (!lreSyncStagingDir) {
+		  lreSyncStagingDir = '';
+	  }
+
+	  // Validate 'lre_sync_zip_cache_mb' parameter
+	  if (!lreSyncZipCacheMb || lreSyncZipCacheMb < 0) {
+		  lreSyncZipCacheMb = 0;
+	  }
+
+	  // Validate 'lre_sync_compression_level' parameter
+	  if (Number.isNaN(lreSyncCompressionLevel) || lreSyncCompressionLevel < 0 || lreSyncCompressionLevel > 9) {
+		  lreSyncCompressionLevel = 6;
+	  }
+
+	  // Validate 'lre_sync_stored_extensions' parameter
+	  if (!lreSyncStoredExtensions) {
+		  lreSyncStoredExtensions = '';
+	  }
+
+	  // Validate 'lre_sync_zip_threads' parameter
+	  if (!lreSyncZipThreads || lreSyncZipThreads < 0) {
+		  lreSyncZipThreads = 0;
+	  }
+
+	  // Validate 'lre_sync_parallel_zip_min_mb' parameter
+	  if (!lreSyncParallelZipMinMb || lreSyncParallelZipMinMb < 0) {
+		  lreSyncParallelZipMinMb = 64;
+	  }
+
+	  // Validate 'lre_sync_deterministic_zip' parameter
+	  if (lreSyncDeterministicZip !== true && lreSyncDeterministicZip !== false) {
+		  lreSyncDeterministicZip = false;
+	  }
+
+	  // Validate 'lre_sync_exclude' parameter
+	  if (!lreSyncExclude) {
+		  lreSyncExclude = '';
+	  }
+
+	  // Validate 'lre_sync_scan_cache' parameter
+	  if (lreSyncScanCache !== true && lreSyncScanCache !== false) {
+		  lreSyncScanCache = true;
+	  }
+
+	  // Validate 'lre_sync_changed_files' parameter
+	  if (!lreSyncChangedFiles) {
+		  lreSyncChangedFiles = '';
+	  }
+
+	  // Validate 'lre_sync_git_diff_base' parameter
+	  if (!lreSyncGitDiffBase) {
+		  lreSyncGitDiffBase = '';
+	  }
+
+	  // Validate 'lre_sync_reconcile' parameter
+	  if (lreSyncReconcile !== true && lreSyncReconcile !== false) {
+		  lreSyncReconcile = false;
+	  }
+
+	  // Validate 'lre_sync_min_parallelism' parameter
+	  if (!lreSyncMinParallelism || lreSyncMinParallelism < 1) {
+		  lreSyncMinParallelism = 1;
+	  }
+
+	  // Validate 'lre_sync_max_parallelism' parameter
+	  if (!lreSyncMaxParallelism || lreSyncMaxParallelism < 0) {
+		  lreSyncMaxParallelism = 0;
+	  }
+
+	  // Validate 'lre_sync_resume' parameter
+	  if (lreSyncResume !== true && lreSyncResume !== false) {
+		  lreSyncResume = false;
+	  }
+
+	  // Validate 'lre_sync_upload_retries' parameter
+	  if (Number.isNaN(lreSyncUploadRetries) || lreSyncUploadRetries < 0) {
+		  lreSyncUploadRetries = 3;
+	  }
+
+	  // Validate 'lre_sync_retry_delay_ms' parameter
+	  if (Number.isNaN(lreSyncRetryDelayMs) || lreSyncRetryDelayMs < 0) {
+		  lreSyncRetryDelayMs = 2000;
+	  }
 };
 
 
@@ -205,10 +403,38 @@ const config = {
   lre_proxy_out_url: lreProxyOutUrl,
   lre_search_timeslot: lreSearchTimeslot,
   lre_status_by_sla: lreStatusBySla,
+  lre_run_poll_min_ms: lreRunPollMinMs,
+  lre_run_poll_max_ms: lreRunPollMaxMs,
+  lre_run_handle_file: lreRunHandleFile,
+  lre_attach_run: lreAttachRun,
+  lre_test_concurrency: lreTestConcurrency,
   lre_output_dir: lreOutputDir,
   lre_workspace_dir: lreWorkspaceDir,
   lre_enable_stacktrace: lreEnableStacktrace,
-  lre_runtime_only : lreRuntimeOnly
+  lre_runtime_only : lreRuntimeOnly,
+  lre_sync_parallelism: lreSyncParallelism,
+  lre_sync_cache_dir: lreSyncCacheDir,
+  lre_force_full_sync: lreForceFullSync,
+  lre_sync_compression_threads: lreSyncCompressionThreads,
+  lre_sync_zip_budget_mb: lreSyncZipBudgetMb,
+  lre_sync_scan_threads: lreSyncScanThreads,
+  lre_sync_staging_dir: lreSyncStagingDir,
+  lre_sync_zip_cache_mb: lreSyncZipCacheMb,
+  lre_sync_compression_level: lreSyncCompressionLevel,
+  lre_sync_stored_extensions: lreSyncStoredExtensions,
+  lre_sync_zip_threads: lreSyncZipThreads,
+  lre_sync_parallel_zip_min_mb: lreSyncParallelZipMinMb,
+  lre_sync_deterministic_zip: lreSyncDeterministicZip,
+  lre_sync_exclude: lreSyncExclude,
+  lre_sync_scan_cache: lreSyncScanCache,
+  lre_sync_changed_files: lreSyncChangedFiles,
+  lre_sync_git_diff_base: lreSyncGitDiffBase,
+  lre_sync_reconcile: lreSyncReconcile,
+  lre_sync_min_parallelism: lreSyncMinParallelism,
+  lre_sync_max_parallelism: lreSyncMaxParallelism,
+  lre_sync_resume: lreSyncResume,
+  lre_sync_upload_retries: lreSyncUploadRetries,
+  lre_sync_retry_delay_ms: lreSyncRetryDelayMs
 };
 
 const writeConfigFile = async () => {
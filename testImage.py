@@ -83,6 +83,34 @@ def run_test_container():
             "PLUGIN_LRE_WORKSPACE_DIR",
             "PLUGIN_LRE_ENABLE_STACKTRACE",
             "PLUGIN_LRE_RUNTIME_ONLY",
+            "PLUGIN_LRE_SYNC_PARALLELISM",
+            "PLUGIN_LRE_SYNC_CACHE_DIR",
+            "PLUGIN_LRE_FORCE_FULL_SYNC",
+            "PLUGIN_LRE_SYNC_COMPRESSION_THREADS",
+            "PLUGIN_LRE_SYNC_ZIP_BUDGET_MB",
+            "PLUGIN_LRE_SYNC_SCAN_THREADS",
+            "PLUGIN_LRE_SYNC_STAGING_DIR",
+            "PLUGIN_LRE_SYNC_ZIP_CACHE_MB",
+            "PLUGIN_LRE_SYNC_COMPRESSION_LEVEL",
+            "PLUGIN_LRE_SYNC_STORED_EXTENSIONS",
+            "PLUGIN_LRE_SYNC_ZIP_THREADS",
+            "PLUGIN_LRE_SYNC_PARALLEL_ZIP_MIN_MB",
+            "PLUGIN_LRE_SYNC_DETERMINISTIC_ZIP",
+            "PLUGIN_LRE_SYNC_EXCLUDE",
+            "PLUGIN_LRE_SYNC_SCAN_CACHE",
+            "PLUGIN_LRE_SYNC_CHANGED_FILES",
+            "PLUGIN_LRE_SYNC_GIT_DIFF_BASE",
+            "PLUGIN_LRE_SYNC_RECONCILE",
+            "PLUGIN_LRE_SYNC_MIN_PARALLELISM",
+            "PLUGIN_LRE_SYNC_MAX_PARALLELISM",
+            "PLUGIN_LRE_SYNC_RESUME",
+            "PLUGIN_LRE_SYNC_UPLOAD_RETRIES",
+            "PLUGIN_LRE_SYNC_RETRY_DELAY_MS",
+            "PLUGIN_LRE_RUN_POLL_MIN_MS",
+            "PLUGIN_LRE_RUN_POLL_MAX_MS",
+            "PLUGIN_LRE_RUN_HANDLE_FILE",
+            "PLUGIN_LRE_ATTACH_RUN",
+            "PLUGIN_LRE_TEST_CONCURRENCY",
         ]
     }
 